@@ -56,6 +56,8 @@ import org.openpdf.text.error_messages.MessageLocalization;
 import java.awt.Color;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.SignatureException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Comparator;
@@ -64,6 +66,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.w3c.dom.Node;
 
 /**
@@ -142,7 +146,10 @@ public class AcroFields {
     PdfWriter writer;
     private Map<String, Item> fields;
     private int topFirst;
-    private Map<String, int[]> sigNames;
+    /**
+     * The signed length of the revision and the revision number of each signature.
+     */
+    private Map<String, long[]> sigNames;
     private HashMap<String, SignatureType> sigTypes;
     private boolean append;
     private XfaForm xfa;
@@ -2163,17 +2170,17 @@ public class AcroFields {
              * (starting byte offset, length in bytes) Also see:
              * https://pdf-insecurity.org/download/paper.pdf
              */
-            int lengthOfSignedBlocks = 0;
+            long lengthOfSignedBlocks = 0;
             for (int i = rangeSize - 1; i > 0; i = i - 2) {
-                lengthOfSignedBlocks += ro.getAsNumber(i).intValue();
+                lengthOfSignedBlocks += ro.getAsNumber(i).longValue();
             }
             int unsignedBlock = contents.getOriginalBytes().length * 2 + 2;
-            int length = lengthOfSignedBlocks + unsignedBlock;
-            sorter.add(new Object[]{entry.getKey(), new int[]{length, 0}});
+            long length = lengthOfSignedBlocks + unsignedBlock;
+            sorter.add(new Object[]{entry.getKey(), new long[]{length, 0}});
         }
         sorter.sort(new SorterComparator());
         if (!sorter.isEmpty()) {
-            if (((int[]) sorter.get(sorter.size() - 1)[1])[0] == reader.getFileLength()) {
+            if (((long[]) sorter.get(sorter.size() - 1)[1])[0] == reader.getLongFileLength()) {
                 totalRevisions = sorter.size();
             } else {
                 totalRevisions = sorter.size() + 1;
@@ -2181,7 +2188,7 @@ public class AcroFields {
             for (int k = 0; k < sorter.size(); ++k) {
                 Object[] objs = sorter.get(k);
                 String name = (String) objs[0];
-                int[] p = (int[]) objs[1];
+                long[] p = (long[]) objs[1];
                 p[1] = k + 1;
                 sigNames.put(name, p);
             }
@@ -2332,7 +2339,7 @@ public class AcroFields {
         if (!sigNames.containsKey(name)) {
             return false;
         }
-        return sigNames.get(name)[0] == reader.getFileLength();
+        return sigNames.get(name)[0] == reader.getLongFileLength();
     }
 
     /**
@@ -2402,39 +2409,193 @@ public class AcroFields {
             return null;
         }
         try {
-            PdfName sub = v.getAsName(PdfName.SUBFILTER);
-            PdfString contents = v.getAsString(PdfName.CONTENTS);
-            PdfPKCS7 pk = null;
-            if (sub.equals(PdfName.ADBE_X509_RSA_SHA1)) {
-                PdfString cert = v.getAsString(PdfName.CERT);
-                pk = new PdfPKCS7(contents.getOriginalBytes(), cert.getBytes(), provider);
+            PdfPKCS7 pk = readSignature(v, provider);
+            updateByteRange(pk, v);
+            return pk;
+        } catch (Exception e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    /**
+     * Verifies all the signatures of the document. The byte ranges of all the signatures are digested in a single
+     * pass over the file, and the signatures are then checked with the <CODE>executor</CODE>, which can run them in
+     * parallel. A signature that can't be read or checked gets a failure in its result instead of an exception.
+     * <p>
+     * The certificates still have to be verified with the returned <CODE>PdfPKCS7</CODE>, as with
+     * {@link #verifySignature(String, String)}.
+     *
+     * @param provider the provider or <code>null</code> for the default provider
+     * @param executor the executor that checks the signatures, for instance <CODE>ForkJoinPool.commonPool()</CODE>,
+     *                 or <CODE>null</CODE> to check them in the calling thread
+     * @return the results in the order of {@link #getSignedFieldNames()}
+     * @since 3.0.1
+     */
+    public List<SignatureVerification> verifySignatures(String provider, Executor executor) {
+        List<String> names = getSignedFieldNames();
+        int size = names.size();
+        PdfPKCS7[] pks = new PdfPKCS7[size];
+        long[][] ranges = new long[size][];
+        Throwable[] failures = new Throwable[size];
+        long[] digestNanos = new long[size];
+        for (int k = 0; k < size; ++k) {
+            try {
+                PdfDictionary v = getSignatureDictionary(names.get(k));
+                ranges[k] = byteRange(v.getAsArray(PdfName.BYTERANGE));
+                pks[k] = readSignature(v, provider);
+            } catch (Exception e) {
+                failures[k] = e;
+                pks[k] = null;
+            }
+        }
+        try {
+            updateByteRanges(pks, ranges, failures, digestNanos);
+        } catch (IOException e) {
+            throw new ExceptionConverter(e);
+        }
+        boolean[] verified = new boolean[size];
+        long[] verifyNanos = new long[size];
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
+        for (int k = 0; k < size; ++k) {
+            if (failures[k] != null) {
+                continue;
+            }
+            final int idx = k;
+            Runnable check = () -> {
+                long start = System.nanoTime();
+                try {
+                    verified[idx] = pks[idx].verify();
+                } catch (Exception e) {
+                    failures[idx] = e;
+                }
+                verifyNanos[idx] = System.nanoTime() - start;
+            };
+            if (executor == null) {
+                check.run();
             } else {
-                pk = new PdfPKCS7(contents.getOriginalBytes(), provider);
+                checks.add(CompletableFuture.runAsync(check, executor));
             }
-            updateByteRange(pk, v);
-            PdfString str = v.getAsString(PdfName.M);
-            if (str != null) {
-                pk.setSignDate(PdfDate.decode(str.toString()));
+        }
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).join();
+        List<SignatureVerification> results = new ArrayList<>(size);
+        for (int k = 0; k < size; ++k) {
+            results.add(new SignatureVerification(names.get(k), pks[k], verified[k], failures[k],
+                    Duration.ofNanos(digestNanos[k]), Duration.ofNanos(verifyNanos[k])));
+        }
+        return results;
+    }
+
+    private PdfPKCS7 readSignature(PdfDictionary v, String provider) {
+        PdfName sub = v.getAsName(PdfName.SUBFILTER);
+        PdfString contents = v.getAsString(PdfName.CONTENTS);
+        PdfPKCS7 pk = null;
+        if (sub.equals(PdfName.ADBE_X509_RSA_SHA1)) {
+            PdfString cert = v.getAsString(PdfName.CERT);
+            pk = new PdfPKCS7(contents.getOriginalBytes(), cert.getBytes(), provider);
+        } else {
+            pk = new PdfPKCS7(contents.getOriginalBytes(), provider);
+        }
+        PdfString str = v.getAsString(PdfName.M);
+        if (str != null) {
+            pk.setSignDate(PdfDate.decode(str.toString()));
+        }
+        PdfObject obj = PdfReader.getPdfObject(v.get(PdfName.NAME));
+        if (obj != null) {
+            if (obj.isString()) {
+                pk.setSignName(((PdfString) obj).toUnicodeString());
+            } else if (obj.isName()) {
+                pk.setSignName(PdfName.decodeName(obj.toString()));
             }
-            PdfObject obj = PdfReader.getPdfObject(v.get(PdfName.NAME));
-            if (obj != null) {
-                if (obj.isString()) {
-                    pk.setSignName(((PdfString) obj).toUnicodeString());
-                } else if (obj.isName()) {
-                    pk.setSignName(PdfName.decodeName(obj.toString()));
+        }
+        str = v.getAsString(PdfName.REASON);
+        if (str != null) {
+            pk.setReason(str.toUnicodeString());
+        }
+        str = v.getAsString(PdfName.LOCATION);
+        if (str != null) {
+            pk.setLocation(str.toUnicodeString());
+        }
+        return pk;
+    }
+
+    /**
+     * Gets the start and end of each range of a <CODE>/ByteRange</CODE> array, as pairs.
+     */
+    static long[] byteRange(PdfArray b) {
+        long[] range = new long[b.size() / 2 * 2];
+        for (int k = 0; k < range.length; k += 2) {
+            range[k] = b.getAsNumber(k).longValue();
+            range[k + 1] = range[k] + b.getAsNumber(k + 1).longValue();
+        }
+        return range;
+    }
+
+    /**
+     * Digests the byte ranges of several signatures reading the file once from start to end. Each chunk read is given
+     * to every signature that covers it. The ranges of a signature must be in order and not overlap, as they always
+     * are when written by a conforming writer. A signature with other ranges fails.
+     */
+    private void updateByteRanges(PdfPKCS7[] pks, long[][] ranges, Throwable[] failures, long[] digestNanos)
+            throws IOException {
+        long end = 0;
+        for (int k = 0; k < pks.length; ++k) {
+            if (failures[k] != null) {
+                continue;
+            }
+            long[] range = ranges[k];
+            for (int r = 0; r < range.length; r += 2) {
+                if (range[r] < 0 || range[r + 1] < range[r] || (r > 0 && range[r] < range[r - 1])) {
+                    failures[k] = new IllegalArgumentException("Invalid /ByteRange");
+                    break;
                 }
             }
-            str = v.getAsString(PdfName.REASON);
-            if (str != null) {
-                pk.setReason(str.toUnicodeString());
+            if (failures[k] == null && range.length > 0) {
+                end = Math.max(end, range[range.length - 1]);
+            }
+        }
+        // the index of the next range of each signature
+        int[] next = new int[pks.length];
+        RandomAccessFileOrArray rf = reader.getSafeFile();
+        try {
+            rf.reOpen();
+            end = Math.min(end, rf.longLength());
+            byte[] buf = new byte[0x10000];
+            for (long pos = 0; pos < end; ) {
+                int rd = rf.read(buf, 0, (int) Math.min(buf.length, end - pos));
+                if (rd <= 0) {
+                    break;
+                }
+                long chunkEnd = pos + rd;
+                for (int k = 0; k < pks.length; ++k) {
+                    if (failures[k] != null) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    long[] range = ranges[k];
+                    try {
+                        for (int r = next[k]; r < range.length && range[r] < chunkEnd; r += 2) {
+                            long from = Math.max(range[r], pos);
+                            long to = Math.min(range[r + 1], chunkEnd);
+                            if (from < to) {
+                                pks[k].update(buf, (int) (from - pos), (int) (to - from));
+                            }
+                            if (range[r + 1] > chunkEnd) {
+                                break;
+                            }
+                            next[k] = r + 2;
+                        }
+                    } catch (SignatureException e) {
+                        failures[k] = e;
+                    }
+                    digestNanos[k] += System.nanoTime() - start;
+                }
+                pos = chunkEnd;
             }
-            str = v.getAsString(PdfName.LOCATION);
-            if (str != null) {
-                pk.setLocation(str.toUnicodeString());
+        } finally {
+            try {
+                rf.close();
+            } catch (Exception e) {
             }
-            return pk;
-        } catch (Exception e) {
-            throw new ExceptionConverter(e);
         }
     }
 
@@ -2445,11 +2606,11 @@ public class AcroFields {
             rf.reOpen();
             byte[] buf = new byte[8192];
             for (int k = 0; k < b.size(); ++k) {
-                int start = b.getAsNumber(k).intValue();
-                int length = b.getAsNumber(++k).intValue();
+                long start = b.getAsNumber(k).longValue();
+                long length = b.getAsNumber(++k).longValue();
                 rf.seek(start);
                 while (length > 0) {
-                    int rd = rf.read(buf, 0, Math.min(length, buf.length));
+                    int rd = rf.read(buf, 0, (int) Math.min(length, buf.length));
                     if (rd <= 0) {
                         break;
                     }
@@ -2502,7 +2663,7 @@ public class AcroFields {
         if (!sigNames.containsKey(field)) {
             return 0;
         }
-        return sigNames.get(field)[1];
+        return (int) sigNames.get(field)[1];
     }
 
     /**
@@ -2519,7 +2680,7 @@ public class AcroFields {
         if (!sigNames.containsKey(field)) {
             return null;
         }
-        int length = sigNames.get(field)[0];
+        long length = sigNames.get(field)[0];
         RandomAccessFileOrArray raf = reader.getSafeFile();
         raf.reOpen();
         raf.seek(0);
@@ -2789,6 +2950,22 @@ public class AcroFields {
         return true;
     }
 
+    /**
+     * The result of checking a signature with {@link AcroFields#verifySignatures(String, Executor)}.
+     *
+     * @param name       the signature field name
+     * @param pkcs7      the signature to continue the verification or <CODE>null</CODE> if it couldn't be read
+     * @param verified   <CODE>true</CODE> if the signature checks out
+     * @param failure    why the signature couldn't be read or checked or <CODE>null</CODE>
+     * @param digestTime the time spent digesting the byte ranges of this signature
+     * @param verifyTime the time spent checking the signature
+     * @since 3.0.1
+     */
+    public record SignatureVerification(String name, PdfPKCS7 pkcs7, boolean verified, Throwable failure,
+            Duration digestTime, Duration verifyTime) {
+
+    }
+
     /**
      * The field representations for retrieval and modification.
      */
@@ -3093,11 +3270,11 @@ public class AcroFields {
 
         private final byte[] b = new byte[1];
         private final RandomAccessFileOrArray raf;
-        private final int length;
-        private int rangePosition = 0;
+        private final long length;
+        private long rangePosition = 0;
         private boolean closed;
 
-        private RevisionStream(RandomAccessFileOrArray raf, int length) {
+        private RevisionStream(RandomAccessFileOrArray raf, long length) {
             this.raf = raf;
             this.length = length;
         }
@@ -3123,7 +3300,7 @@ public class AcroFields {
                 close();
                 return -1;
             }
-            int elen = Math.min(len, length - rangePosition);
+            int elen = (int) Math.min(len, length - rangePosition);
             raf.readFully(b, off, elen);
             rangePosition += elen;
             return elen;
@@ -3140,9 +3317,9 @@ public class AcroFields {
     private static class SorterComparator implements Comparator<Object[]> {
 
         public int compare(Object[] o1, Object[] o2) {
-            int n1 = ((int[]) o1[1])[0];
-            int n2 = ((int[]) o2[1])[0];
-            return n1 - n2;
+            long n1 = ((long[]) o1[1])[0];
+            long n2 = ((long[]) o2[1])[0];
+            return Long.compare(n1, n2);
         }
     }
 
@@ -58,7 +58,6 @@ import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.StringTokenizer;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base class for the several font types supported
@@ -325,8 +324,16 @@ public abstract class BaseFont {
     /**
      * cache for the fonts already used.
      */
-    protected static ConcurrentHashMap<String, BaseFont> fontCache = new ConcurrentHashMap<>(
-            500, 0.85f, 64);
+    protected static final FontRegistry<String, BaseFont> fontCache = new FontRegistry<>(
+            Long.getLong("org.openpdf.fontCacheBytes", 128L * 1024 * 1024), BaseFont::estimateSize);
+
+    /**
+     * cache for the font files read into memory, shared by the fonts created from the same file.
+     */
+    static final FontRegistry<String, byte[]> fontBytesCache = new FontRegistry<>(
+            Long.getLong("org.openpdf.fontBytesCacheBytes", 128L * 1024 * 1024), b -> b.length);
+
+    private static volatile boolean shareFontBytes = false;
 
     static {
         BuiltinFonts14.put(COURIER, PdfName.COURIER);
@@ -718,16 +725,25 @@ public abstract class BaseFont {
         } else if (encoding.equals(IDENTITY_H) || encoding.equals(IDENTITY_V)) {
             embedded = true;
         }
-        BaseFont fontFound = null;
-        BaseFont fontBuilt = null;
-        String key = name + "\n" + encoding + "\n" + embedded;
         if (cached) {
-            fontFound = fontCache.get(key);
-            if (fontFound != null) {
-                LayoutProcessor.loadFont(fontFound, name);
-                return fontFound;
+            String key = name + "\n" + encoding + "\n" + embedded;
+            String enc = encoding;
+            boolean emb = embedded;
+            BaseFont font = fontCache.get(key, () -> buildFont(name, nameBase, enc, emb, isBuiltinFonts14, isCJKFont,
+                    ttfAfm, pfb, noThrow, forceRead));
+            if (font != null) {
+                LayoutProcessor.loadFont(font, name);
             }
+            return font;
         }
+        return buildFont(name, nameBase, encoding, embedded, isBuiltinFonts14, isCJKFont, ttfAfm, pfb, noThrow,
+                forceRead);
+    }
+
+    private static BaseFont buildFont(String name, String nameBase, String encoding, boolean embedded,
+            boolean isBuiltinFonts14, boolean isCJKFont, byte[] ttfAfm, byte[] pfb, boolean noThrow,
+            boolean forceRead) throws DocumentException, IOException {
+        BaseFont fontBuilt;
         if (isBuiltinFonts14 || name.toLowerCase().endsWith(".afm")
                 || name.toLowerCase().endsWith(".pfm")) {
             fontBuilt = new Type1Font(name, encoding, embedded, ttfAfm, pfb,
@@ -753,13 +769,62 @@ public abstract class BaseFont {
             throw new DocumentException(MessageLocalization.getComposedMessage(
                     "font.1.with.2.is.not.recognized", name, encoding));
         }
-        if (cached) {
-            fontCache.putIfAbsent(key, fontBuilt);
-            return fontCache.get(key);
-        }
         return fontBuilt;
     }
 
+    /**
+     * Returns the cache of the fonts created with <CODE>cached</CODE> set, to read its counters or change its limit.
+     * The limit defaults to 128 MB of estimated font data and can be set with the system property
+     * <CODE>org.openpdf.fontCacheBytes</CODE>.
+     *
+     * @return the font cache
+     */
+    public static FontRegistry<String, BaseFont> getFontCache() {
+        return fontCache;
+    }
+
+    /**
+     * Returns the cache of the font files shared between fonts, see {@link #setShareFontBytes(boolean)}.
+     *
+     * @return the font file cache
+     */
+    public static FontRegistry<String, byte[]> getFontBytesCache() {
+        return fontBytesCache;
+    }
+
+    /**
+     * Gets whether TrueType fonts read into memory share one copy of the font file.
+     *
+     * @return <CODE>true</CODE> if the font files are shared
+     */
+    public static boolean isShareFontBytes() {
+        return shareFontBytes;
+    }
+
+    /**
+     * Makes TrueType fonts created with <CODE>forceRead</CODE> take their font file from a shared cache instead of
+     * reading their own copy, so a font used with several encodings is held in memory once.
+     *
+     * @param shareFontBytes <CODE>true</CODE> to share the font files
+     */
+    public static void setShareFontBytes(boolean shareFontBytes) {
+        BaseFont.shareFontBytes = shareFontBytes;
+    }
+
+    /**
+     * Estimates the heap used by a font, for the limit of the font cache. TrueType fonts are weighed by the size of
+     * their tables, the other fonts by a fixed amount.
+     */
+    private static long estimateSize(BaseFont font) {
+        long size = 16 * 1024;
+        if (font instanceof TrueTypeFont ttf && ttf.tables != null) {
+            for (int[] location : ttf.tables.values()) {
+                size += location[1];
+            }
+        }
+        return size;
+    }
+
     /**
      * Creates a font based on an existing document font. The created font font may not behave as expected, depending on
      * the encoding or subset.
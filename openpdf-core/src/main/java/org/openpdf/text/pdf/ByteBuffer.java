@@ -55,6 +55,7 @@ import org.openpdf.text.error_messages.MessageLocalization;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
@@ -69,16 +70,17 @@ import java.util.Locale;
 public class ByteBuffer extends OutputStream {
 
     public static final byte ZERO = (byte) '0';
-    private static final char[] chars = new char[]{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
     private static final byte[] bytes = new byte[]{48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 97, 98, 99, 100, 101, 102};
     private static final DecimalFormatSymbols dfs = new DecimalFormatSymbols(Locale.US);
     /**
-     * If <CODE>true</CODE> always output floating point numbers with 6 decimal digits. If <CODE>false</CODE> uses the
-     * faster, although less precise, representation.
+     * If <CODE>true</CODE> always output floating point numbers with 6 decimal digits, or the number set with
+     * {@link #setHighPrecisionDecimals(int)}. If <CODE>false</CODE> uses the faster, although less precise,
+     * representation.
      */
     public static boolean HIGH_PRECISION = false;
-    private static int byteCacheSize = 0;
-    private static byte[][] byteCache = new byte[byteCacheSize][];
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000,
+            1000000000};
+    private static int highPrecisionDecimals = 6;
     /**
      * The count of bytes in the buffer.
      */
@@ -108,92 +110,50 @@ public class ByteBuffer extends OutputStream {
     }
 
     /**
-     * Sets the cache size.
-     * <p>
-     * This can only be used to increment the size. If the size that is passed through is smaller than the current size,
-     * nothing happens.
+     * Formerly set the size of a cache of formatted numbers. Numbers are now written straight into the buffer without
+     * allocating, so there is nothing to cache.
      *
      * @param size the size of the cache
+     * @deprecated no longer has any effect
      */
-
+    @Deprecated
     public static void setCacheSize(int size) {
-        if (size > 3276700) {
-            size = 3276700;
-        }
-        if (size <= byteCacheSize) {
-            return;
-        }
-        byte[][] tmpCache = new byte[size][];
-        System.arraycopy(byteCache, 0, tmpCache, 0, byteCacheSize);
-        byteCache = tmpCache;
-        byteCacheSize = size;
+        // nothing to cache
     }
 
     /**
-     * You can fill the cache in advance if you want to.
+     * Formerly filled the cache of formatted numbers in advance.
      *
      * @param decimals decimals
+     * @deprecated no longer has any effect
      */
-
+    @Deprecated
     public static void fillCache(int decimals) {
-        int step = 1;
-        switch (decimals) {
-            case 0:
-                step = 100;
-                break;
-            case 1:
-                step = 10;
-                break;
-        }
-        for (int i = 1; i < byteCacheSize; i += step) {
-            if (byteCache[i] != null) {
-                continue;
-            }
-            byteCache[i] = convertToBytes(i);
-        }
+        // nothing to cache
     }
 
     /**
-     * Converts an double (multiplied by 100 and cast to an int) into an array of bytes.
+     * Gets the number of decimals written when {@link #HIGH_PRECISION} is <CODE>true</CODE>.
      *
-     * @param i the int
-     * @return a byte array
+     * @return the number of decimals
+     * @since 3.0.1
      */
+    public static int getHighPrecisionDecimals() {
+        return highPrecisionDecimals;
+    }
 
-    private static byte[] convertToBytes(int i) {
-        int size = (int) Math.floor(Math.log(i) / Math.log(10));
-        if (i % 100 != 0) {
-            size += 2;
-        }
-        if (i % 10 != 0) {
-            size++;
-        }
-        if (i < 100) {
-            size++;
-            if (i < 10) {
-                size++;
-            }
-        }
-        size--;
-        byte[] cache = new byte[size];
-        size--;
-        if (i < 100) {
-            cache[0] = (byte) '0';
-        }
-        if (i % 10 != 0) {
-            cache[size--] = bytes[i % 10];
-        }
-        if (i % 100 != 0) {
-            cache[size--] = bytes[(i / 10) % 10];
-            cache[size--] = (byte) '.';
-        }
-        size = (int) Math.floor(Math.log(i) / Math.log(10)) - 1;
-        int add = 0;
-        while (add < size) {
-            cache[add] = bytes[(i / (int) Math.pow(10, size - add + 1)) % 10];
-            add++;
+    /**
+     * Sets the number of decimals written when {@link #HIGH_PRECISION} is <CODE>true</CODE>. Numbers are rounded half
+     * even and trailing zeros are dropped. The default is 6.
+     *
+     * @param decimals the number of decimals, from 0 to 9
+     * @since 3.0.1
+     */
+    public static void setHighPrecisionDecimals(int decimals) {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + (POWERS_OF_TEN.length - 1));
         }
-        return cache;
+        highPrecisionDecimals = decimals;
     }
 
     /**
@@ -216,236 +176,171 @@ public class ByteBuffer extends OutputStream {
      * then the double is appended directly to the buffer and this methods returns <CODE>null</CODE>.
      */
     public static String formatDouble(double d, ByteBuffer buf) {
+        if (buf != null) {
+            buf.appendDouble(d);
+            return null;
+        }
+        int decimals = highPrecisionDecimals;
+        if (HIGH_PRECISION && !isRoundingExact(d, decimals)) {
+            return formatDecimal(d, decimals);
+        }
+        ByteBuffer tmp = new ByteBuffer(32);
+        tmp.appendDouble(d);
+        return new String(tmp.buf, 0, tmp.count, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes a <CODE>double</CODE> in the PDF format straight into the buffer.
+     * <p>
+     * By default values below 1 keep 5 decimals, values up to 32767 keep 2 decimals and larger values are rounded to
+     * an integer. With {@link #HIGH_PRECISION} the values are rounded half even to
+     * {@link #getHighPrecisionDecimals()} decimals, the same as <CODE>DecimalFormat</CODE>; the few values too large
+     * or too close to a tie to be rounded from the <CODE>double</CODE> product go through
+     * <CODE>DecimalFormat</CODE>.
+     *
+     * @param d the value
+     */
+    private void appendDouble(double d) {
         if (HIGH_PRECISION) {
-            DecimalFormat dn = new DecimalFormat("0.######", dfs);
-            String sform = dn.format(d);
-            if (buf == null) {
-                return sform;
+            int decimals = highPrecisionDecimals;
+            if (isRoundingExact(d, decimals)) {
+                appendRounded(d, decimals);
             } else {
-                buf.append(sform);
-                return null;
+                append(formatDecimal(d, decimals));
             }
+            return;
         }
-        boolean negative = false;
         if (Math.abs(d) < 0.000015) {
-            if (buf != null) {
-                buf.append(ZERO);
-                return null;
-            } else {
-                return "0";
-            }
+            append(ZERO);
+            return;
         }
+        ensureCapacity(24);
+        byte[] b = buf;
+        int pos = count;
         if (d < 0) {
-            negative = true;
+            b[pos++] = '-';
             d = -d;
         }
         if (d < 1.0) {
             d += 0.000005;
             if (d >= 1) {
-                if (negative) {
-                    if (buf != null) {
-                        buf.append((byte) '-');
-                        buf.append((byte) '1');
-                        return null;
-                    } else {
-                        return "-1";
-                    }
-                } else {
-                    if (buf != null) {
-                        buf.append((byte) '1');
-                        return null;
-                    } else {
-                        return "1";
-                    }
-                }
-            }
-            if (buf != null) {
-                int v = (int) (d * 100000);
-
-                if (negative) {
-                    buf.append((byte) '-');
-                }
-                buf.append((byte) '0');
-                buf.append((byte) '.');
-
-                buf.append((byte) (v / 10000 + ZERO));
-                if (v % 10000 != 0) {
-                    buf.append((byte) ((v / 1000) % 10 + ZERO));
-                    if (v % 1000 != 0) {
-                        buf.append((byte) ((v / 100) % 10 + ZERO));
-                        if (v % 100 != 0) {
-                            buf.append((byte) ((v / 10) % 10 + ZERO));
-                            if (v % 10 != 0) {
-                                buf.append((byte) ((v) % 10 + ZERO));
-                            }
-                        }
-                    }
-                }
-                return null;
+                b[pos++] = '1';
             } else {
-                int x = 100000;
-                int v = (int) (d * x);
-
-                StringBuilder res = new StringBuilder();
-                if (negative) {
-                    res.append('-');
-                }
-                res.append("0.");
-
-                while (v < x / 10) {
-                    res.append('0');
-                    x /= 10;
-                }
-                res.append(v);
-                int cut = res.length() - 1;
-                while (res.charAt(cut) == '0') {
-                    --cut;
-                }
-                res.setLength(cut + 1);
-                return res.toString();
+                b[pos++] = '0';
+                b[pos++] = '.';
+                pos = writeFraction(b, pos, (int) (d * 100000), 5);
             }
         } else if (d <= 32767) {
             d += 0.005;
             int v = (int) (d * 100);
-
-            if (v < byteCacheSize && byteCache[v] != null) {
-                if (buf != null) {
-                    if (negative) {
-                        buf.append((byte) '-');
-                    }
-                    buf.append(byteCache[v]);
-                    return null;
-                } else {
-                    String tmp = PdfEncodings.convertToString(byteCache[v], null);
-                    if (negative) {
-                        tmp = "-" + tmp;
-                    }
-                    return tmp;
+            pos = writeDigits(b, pos, v / 100);
+            if (v % 100 != 0) {
+                b[pos++] = '.';
+                b[pos++] = bytes[(v / 10) % 10];
+                if (v % 10 != 0) {
+                    b[pos++] = bytes[v % 10];
                 }
             }
-            if (buf != null) {
-                if (v < byteCacheSize) {
-                    //create the cachebyte[]
-                    byte[] cache;
-                    int size = 0;
-                    if (v >= 1000000) {
-                        //the original number is >=10000, we need 5 more bytes
-                        size += 5;
-                    } else if (v >= 100000) {
-                        //the original number is >=1000, we need 4 more bytes
-                        size += 4;
-                    } else if (v >= 10000) {
-                        //the original number is >=100, we need 3 more bytes
-                        size += 3;
-                    } else if (v >= 1000) {
-                        //the original number is >=10, we need 2 more bytes
-                        size += 2;
-                    } else if (v >= 100) {
-                        //the original number is >=1, we need 1 more bytes
-                        size += 1;
-                    }
-
-                    //now we must check if we have a decimal number
-                    if (v % 100 != 0) {
-                        //yes, do not forget the "."
-                        size += 2;
-                    }
-                    if (v % 10 != 0) {
-                        size++;
-                    }
-                    cache = new byte[size];
-                    int add = 0;
-                    if (v >= 1000000) {
-                        cache[add++] = bytes[(v / 1000000)];
-                    }
-                    if (v >= 100000) {
-                        cache[add++] = bytes[(v / 100000) % 10];
-                    }
-                    if (v >= 10000) {
-                        cache[add++] = bytes[(v / 10000) % 10];
-                    }
-                    if (v >= 1000) {
-                        cache[add++] = bytes[(v / 1000) % 10];
-                    }
-                    if (v >= 100) {
-                        cache[add++] = bytes[(v / 100) % 10];
-                    }
-
-                    if (v % 100 != 0) {
-                        cache[add++] = (byte) '.';
-                        cache[add++] = bytes[(v / 10) % 10];
-                        if (v % 10 != 0) {
-                            cache[add++] = bytes[v % 10];
-                        }
-                    }
-                    byteCache[v] = cache;
-                }
+        } else {
+            d += 0.5;
+            pos = writeDigits(b, pos, (long) d);
+        }
+        count = pos;
+    }
 
-                if (negative) {
-                    buf.append((byte) '-');
-                }
-                if (v >= 1000000) {
-                    buf.append(bytes[(v / 1000000)]);
-                }
-                if (v >= 100000) {
-                    buf.append(bytes[(v / 100000) % 10]);
-                }
-                if (v >= 10000) {
-                    buf.append(bytes[(v / 10000) % 10]);
-                }
-                if (v >= 1000) {
-                    buf.append(bytes[(v / 1000) % 10]);
-                }
-                if (v >= 100) {
-                    buf.append(bytes[(v / 100) % 10]);
-                }
+    /**
+     * Checks if a value can be rounded to <CODE>decimals</CODE> decimals from its scaled <CODE>double</CODE>
+     * product with the same result as exact decimal rounding: the product must fit in a <CODE>long</CODE> without
+     * loss and must not be within its rounding error of a tie.
+     */
+    private static boolean isRoundingExact(double d, int decimals) {
+        double scaled = Math.abs(d) * POWERS_OF_TEN[decimals];
+        if (!(scaled < 1e15)) {
+            return false;
+        }
+        double fraction = scaled - Math.floor(scaled);
+        return Math.abs(fraction - 0.5) > scaled * 0x1p-50;
+    }
 
-                if (v % 100 != 0) {
-                    buf.append((byte) '.');
-                    buf.append(bytes[(v / 10) % 10]);
-                    if (v % 10 != 0) {
-                        buf.append(bytes[v % 10]);
-                    }
-                }
-                return null;
-            } else {
-                StringBuilder res = new StringBuilder();
-                if (negative) {
-                    res.append('-');
-                }
-                if (v >= 1000000) {
-                    res.append(chars[(v / 1000000)]);
-                }
-                if (v >= 100000) {
-                    res.append(chars[(v / 100000) % 10]);
-                }
-                if (v >= 10000) {
-                    res.append(chars[(v / 10000) % 10]);
-                }
-                if (v >= 1000) {
-                    res.append(chars[(v / 1000) % 10]);
-                }
-                if (v >= 100) {
-                    res.append(chars[(v / 100) % 10]);
-                }
+    private static String formatDecimal(double d, int decimals) {
+        DecimalFormat dn = new DecimalFormat(decimals == 0 ? "0" : "0." + "#".repeat(decimals), dfs);
+        return dn.format(d);
+    }
 
-                if (v % 100 != 0) {
-                    res.append('.');
-                    res.append(chars[(v / 10) % 10]);
-                    if (v % 10 != 0) {
-                        res.append(chars[v % 10]);
-                    }
-                }
-                return res.toString();
-            }
-        } else {
-            StringBuilder res = new StringBuilder();
-            if (negative) {
-                res.append('-');
-            }
-            d += 0.5;
-            long v = (long) d;
-            return res.append(v).toString();
+    private void appendRounded(double d, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        double scaled = Math.abs(d) * scale;
+        double floor = Math.floor(scaled);
+        long v = (long) floor + (scaled - floor > 0.5 ? 1 : 0);
+        ensureCapacity(32);
+        byte[] b = buf;
+        int pos = count;
+        // DecimalFormat keeps the sign of negative values rounded to zero
+        if (Double.doubleToRawLongBits(d) < 0) {
+            b[pos++] = '-';
+        }
+        pos = writeDigits(b, pos, v / scale);
+        if (v % scale != 0) {
+            b[pos++] = '.';
+            pos = writeFraction(b, pos, v % scale, decimals);
+        }
+        count = pos;
+    }
+
+    /**
+     * Writes the decimal digits of a non negative number.
+     *
+     * @return the position after the last digit
+     */
+    private static int writeDigits(byte[] b, int pos, long v) {
+        int end = pos + digitCount(v);
+        int k = end;
+        while (v > Integer.MAX_VALUE) {
+            b[--k] = bytes[(int) (v % 10)];
+            v /= 10;
+        }
+        int i = (int) v;
+        while (k > pos) {
+            b[--k] = bytes[i % 10];
+            i /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Writes the <CODE>digits</CODE> decimals of a positive fraction, without the trailing zeros.
+     *
+     * @return the position after the last digit
+     */
+    private static int writeFraction(byte[] b, int pos, long v, int digits) {
+        while (v % 10 == 0) {
+            v /= 10;
+            --digits;
+        }
+        for (int k = pos + digits - 1; k >= pos; --k) {
+            b[k] = bytes[(int) (v % 10)];
+            v /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static int digitCount(long v) {
+        int n = 1;
+        for (long p = 10; v >= p && n < 19; p *= 10) {
+            ++n;
+        }
+        return n;
+    }
+
+    /**
+     * Makes room for <CODE>extra</CODE> more bytes.
+     */
+    private void ensureCapacity(int extra) {
+        int newcount = count + extra;
+        if (newcount > buf.length) {
+            byte[] newbuf = new byte[Math.max(buf.length << 1, newcount)];
+            System.arraycopy(buf, 0, newbuf, 0, count);
+            buf = newbuf;
         }
     }
 
@@ -544,7 +439,7 @@ public class ByteBuffer extends OutputStream {
      * @return a reference to this <CODE>ByteBuffer</CODE> object
      */
     public ByteBuffer append(int i) {
-        return append(String.valueOf(i));
+        return append((long) i);
     }
 
     /**
@@ -554,7 +449,16 @@ public class ByteBuffer extends OutputStream {
      * @return a reference to this <CODE>ByteBuffer</CODE> object
      */
     public ByteBuffer append(long l) {
-        return append(String.valueOf(l));
+        if (l == Long.MIN_VALUE) {
+            return append(String.valueOf(l));
+        }
+        ensureCapacity(20);
+        if (l < 0) {
+            buf[count++] = '-';
+            l = -l;
+        }
+        count = writeDigits(buf, count, l);
+        return this;
     }
 
     public ByteBuffer append(byte b) {
@@ -583,7 +487,7 @@ public class ByteBuffer extends OutputStream {
      * @return a reference to this <CODE>ByteBuffer</CODE> object
      */
     public ByteBuffer append(double d) {
-        append(formatDouble(d, this));
+        appendDouble(d);
         return this;
     }
 
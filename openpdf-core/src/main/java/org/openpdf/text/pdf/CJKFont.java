@@ -55,7 +55,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentHashMap;
@@ -83,7 +82,10 @@ class CJKFont extends BaseFont {
             500, 0.85f, 64);
     private static boolean propertiesLoaded = false;
     private static Object initLock = new Object();
-    Hashtable<String, char[]> allCMaps = new Hashtable<>();
+    /**
+     * The CMaps read so far, shared by every CJK font. The tables are never modified once published.
+     */
+    private static final ConcurrentHashMap<String, char[]> allCMaps = new ConcurrentHashMap<>();
     /**
      * The font name
      */
@@ -143,7 +145,7 @@ class CJKFont extends BaseFont {
                                     s));
                 }
                 c[CID_NEWLINE] = '\n';
-                allCMaps.put(s, c);
+                c = putCMap(s, c);
             }
             translationMap = c;
         } else {
@@ -162,18 +164,29 @@ class CJKFont extends BaseFont {
                 c = allCMaps.get(nt);
                 if (c == null) {
                     c = readCMap(nt);
-                    allCMaps.put(nt, c);
+                    if (c == null) {
+                        throw new DocumentException(
+                                MessageLocalization.getComposedMessage(
+                                        "the.cmap.1.does.not.exist.as.a.resource",
+                                        nt));
+                    }
+                    c = putCMap(nt, c);
                 }
                 if (tk.hasMoreTokens()) {
                     String nt2 = tk.nextToken();
                     char[] m2 = readCMap(nt2);
+                    if (m2 == null) {
+                        throw new DocumentException(
+                                MessageLocalization.getComposedMessage(
+                                        "the.cmap.1.does.not.exist.as.a.resource",
+                                        nt2));
+                    }
                     for (int k = 0; k < 0x10000; ++k) {
                         if (m2[k] == 0) {
                             m2[k] = c[k];
                         }
                     }
-                    allCMaps.put(enc, m2);
-                    c = m2;
+                    c = putCMap(enc, m2);
                 }
             }
             translationMap = c;
@@ -227,15 +240,33 @@ class CJKFont extends BaseFont {
                 && (enc.equals("Identity-H") || enc.equals("Identity-V") || encodings.contains("_" + enc + "_"));
     }
 
+    /**
+     * Publishes a CMap in the shared cache, returning the table another thread may have published first.
+     */
+    private static char[] putCMap(String name, char[] c) {
+        char[] previous = allCMaps.putIfAbsent(name, c);
+        return previous == null ? c : previous;
+    }
+
+    /**
+     * Reads a precompiled CMap resource: 0x10000 big-endian chars, read in one go.
+     *
+     * @param name the CMap name, without the <CODE>.cmap</CODE> extension
+     * @return the translation table or <CODE>null</CODE> if the resource is missing or truncated
+     */
     static char[] readCMap(String name) {
-        try {
-            name = name + ".cmap";
-            InputStream is = getResourceStream(RESOURCE_PATH + name);
+        try (InputStream is = getResourceStream(RESOURCE_PATH + name + ".cmap")) {
+            if (is == null) {
+                return null;
+            }
+            byte[] b = is.readNBytes(0x20000);
+            if (b.length < 0x20000) {
+                return null;
+            }
             char[] c = new char[0x10000];
             for (int k = 0; k < 0x10000; ++k) {
-                c[k] = (char) ((is.read() << 8) + is.read());
+                c[k] = (char) (((b[2 * k] & 0xff) << 8) | (b[2 * k + 1] & 0xff));
             }
-            is.close();
             return c;
         } catch (Exception e) {
             // empty on purpose
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+package org.openpdf.text.pdf;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map for the entries of a <CODE>PdfDictionary</CODE>. Most dictionaries have only a few entries, so up to
+ * {@link #MAX_ARRAY_SIZE} entries are kept in a flat array of keys and values, in the order they were added. A bigger
+ * map switches to a <CODE>HashMap</CODE>.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    static final int MAX_ARRAY_SIZE = 8;
+
+    /**
+     * The keys at even and the values at odd positions, <CODE>null</CODE> when empty or when {@link #map} is used.
+     */
+    private Object[] table;
+    private int size;
+    private HashMap<K, V> map;
+    private int modCount;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int indexOf(Object key) {
+        for (int k = 0; k < size * 2; k += 2) {
+            Object t = table[k];
+            if (t == key || (t != null && t.equals(key))) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map != null ? map.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+        int idx = indexOf(key);
+        return idx < 0 ? null : (V) table[idx + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (map != null) {
+            return map.put(key, value);
+        }
+        int idx = indexOf(key);
+        if (idx >= 0) {
+            V old = (V) table[idx + 1];
+            table[idx + 1] = value;
+            return old;
+        }
+        ++modCount;
+        if (size == MAX_ARRAY_SIZE) {
+            map = new HashMap<>();
+            for (int k = 0; k < size * 2; k += 2) {
+                map.put((K) table[k], (V) table[k + 1]);
+            }
+            table = null;
+            size = 0;
+            map.put(key, value);
+            return null;
+        }
+        if (table == null) {
+            table = new Object[4];
+        } else if (size * 2 == table.length) {
+            table = Arrays.copyOf(table, Math.min(table.length * 2, MAX_ARRAY_SIZE * 2));
+        }
+        table[size * 2] = key;
+        table[size * 2 + 1] = value;
+        ++size;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (map != null) {
+            return map.remove(key);
+        }
+        int idx = indexOf(key);
+        return idx < 0 ? null : removeAt(idx);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int idx) {
+        V old = (V) table[idx + 1];
+        System.arraycopy(table, idx + 2, table, idx, size * 2 - idx - 2);
+        --size;
+        table[size * 2] = null;
+        table[size * 2 + 1] = null;
+        ++modCount;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        map = null;
+        table = null;
+        size = 0;
+        ++modCount;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return map != null ? map.entrySet().iterator() : new ArrayIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+    }
+
+    private final class ArrayIterator implements Iterator<Map.Entry<K, V>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size * 2;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size * 2) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next += 2;
+            return new ArrayEntry((K) table[last], (V) table[last + 1]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * An entry that writes a new value through to the map.
+     */
+    private final class ArrayEntry extends AbstractMap.SimpleEntry<K, V> {
+
+        ArrayEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
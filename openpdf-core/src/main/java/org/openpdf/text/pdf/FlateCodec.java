@@ -0,0 +1,350 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+package org.openpdf.text.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Flate (zlib) compression and decompression backed by a bounded pool of {@link Deflater} and {@link Inflater}
+ * instances.
+ * <p>
+ * Creating a <CODE>Deflater</CODE> or <CODE>Inflater</CODE> allocates native zlib state, which is expensive compared
+ * to compressing the small content streams and XObjects found in most documents. The codec keeps released instances
+ * around for reuse, so a document with tens of thousands of streams only pays the setup cost a handful of times. The
+ * pool is shared by all threads; instances are never used by two threads at the same time.
+ *
+ * @since 3.0.1
+ */
+public final class FlateCodec {
+
+    /**
+     * The maximum number of idle instances kept in each pool.
+     */
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int CHUNK_SIZE = 0x4000;
+
+    /**
+     * Upper bound of the initial output buffer when inflating, larger results grow the buffer.
+     */
+    private static final int MAX_INITIAL_INFLATE_SIZE = 1 << 24;
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private FlateCodec() {
+    }
+
+    /**
+     * Takes a <CODE>Deflater</CODE> from the pool, or creates one if the pool is empty. The instance must be handed
+     * back with {@link #releaseDeflater(Deflater)} once the compressed data has been finished.
+     *
+     * @param compressionLevel the compression level (0 = no compression, 9 = best compression, -1 is default)
+     * @return a reset <CODE>Deflater</CODE> with the requested level
+     */
+    public static Deflater acquireDeflater(int compressionLevel) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            return new Deflater(compressionLevel);
+        }
+        deflater.setLevel(compressionLevel);
+        return deflater;
+    }
+
+    /**
+     * Returns a <CODE>Deflater</CODE> to the pool. If the pool is full the native resources are released.
+     *
+     * @param deflater the <CODE>Deflater</CODE>, may be <CODE>null</CODE>
+     */
+    public static void releaseDeflater(Deflater deflater) {
+        if (deflater == null) {
+            return;
+        }
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Takes an <CODE>Inflater</CODE> from the pool, or creates one if the pool is empty. The instance must be handed
+     * back with {@link #releaseInflater(Inflater)}.
+     *
+     * @return a reset <CODE>Inflater</CODE>
+     */
+    public static Inflater acquireInflater() {
+        Inflater inflater = inflaters.poll();
+        return inflater == null ? new Inflater() : inflater;
+    }
+
+    /**
+     * Returns an <CODE>Inflater</CODE> to the pool. If the pool is full the native resources are released.
+     *
+     * @param inflater the <CODE>Inflater</CODE>, may be <CODE>null</CODE>
+     */
+    public static void releaseInflater(Inflater inflater) {
+        if (inflater == null) {
+            return;
+        }
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Compresses a byte array.
+     *
+     * @param data             the data to compress
+     * @param compressionLevel the compression level
+     * @return the compressed data
+     */
+    public static byte[] deflate(byte[] data, int compressionLevel) {
+        return deflate(data, 0, data.length, compressionLevel).toByteArray();
+    }
+
+    /**
+     * Compresses a part of a byte array into a buffer presized for typical PDF content.
+     *
+     * @param data             the data to compress
+     * @param off              the start offset in <CODE>data</CODE>
+     * @param len              the number of bytes to compress
+     * @param compressionLevel the compression level
+     * @return the compressed data
+     */
+    public static ByteArrayOutputStream deflate(byte[] data, int off, int len, int compressionLevel) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, len / 2 + 64));
+        try {
+            deflate(data, off, len, compressionLevel, out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return out;
+    }
+
+    /**
+     * Compresses a part of a byte array and writes the result to a stream.
+     *
+     * @param data             the data to compress
+     * @param off              the start offset in <CODE>data</CODE>
+     * @param len              the number of bytes to compress
+     * @param compressionLevel the compression level
+     * @param out              the destination of the compressed data
+     * @throws IOException on error writing to <CODE>out</CODE>
+     */
+    public static void deflate(byte[] data, int off, int len, int compressionLevel, OutputStream out)
+            throws IOException {
+        Deflater deflater = acquireDeflater(compressionLevel);
+        try {
+            byte[] buf = new byte[Math.min(CHUNK_SIZE, Math.max(64, len / 2 + 64))];
+            deflater.setInput(data, off, len);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+        } finally {
+            releaseDeflater(deflater);
+        }
+    }
+
+    /**
+     * Decompresses flate encoded data.
+     * <p>
+     * In strict mode <CODE>null</CODE> is returned if the data is corrupt or truncated. Otherwise as much data as
+     * could be decoded before the error is returned, which is how damaged streams in the wild are recovered.
+     *
+     * @param in     the compressed data
+     * @param strict <CODE>true</CODE> to reject corrupt data
+     * @return the decoded data, or <CODE>null</CODE> on error in strict mode
+     */
+    public static byte[] inflate(byte[] in, boolean strict) {
+        Inflater inflater = acquireInflater();
+        byte[] out = new byte[(int) Math.max(CHUNK_SIZE, Math.min(MAX_INITIAL_INFLATE_SIZE, in.length * 4L))];
+        int size = 0;
+        // byte by byte in lenient mode, so no output is lost when the error is detected
+        int step = strict ? Integer.MAX_VALUE : 1;
+        try {
+            inflater.setInput(in);
+            while (!inflater.finished()) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, (int) Math.min(MAX_ARRAY_SIZE, (long) out.length << 1));
+                }
+                int n = inflater.inflate(out, size, Math.min(step, out.length - size));
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // truncated data or a preset dictionary we cannot provide
+                    if (strict) {
+                        return null;
+                    }
+                    break;
+                }
+                size += n;
+            }
+        } catch (DataFormatException e) {
+            if (strict) {
+                return null;
+            }
+        } finally {
+            releaseInflater(inflater);
+        }
+        return size == out.length ? out : Arrays.copyOf(out, size);
+    }
+
+    /**
+     * Decompresses data while it is read, instead of into one array, for streams too large to be held in memory once
+     * decoded. Corrupt or truncated data is handled as {@link #inflate(byte[], boolean)} does in lenient mode: the
+     * stream ends where the error is found, after all data decoded before it. Closing the stream hands its
+     * <CODE>Inflater</CODE> back to the pool.
+     *
+     * @param in the compressed data
+     * @return a stream of the decoded data
+     */
+    public static InputStream inflateStream(byte[] in) {
+        return new InflatingInputStream(in);
+    }
+
+    private static final class InflatingInputStream extends InputStream {
+
+        private final byte[] in;
+        private final byte[] single = new byte[1];
+        private Inflater inflater;
+        /**
+         * Number of decoded bytes read so far.
+         */
+        private long position;
+        /**
+         * Set after an error: the data is decoded again one byte at a time, so no output is lost at the next error.
+         */
+        private boolean lenient;
+        private boolean eof;
+
+        InflatingInputStream(byte[] in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (eof) {
+                return -1;
+            }
+            if (inflater == null) {
+                inflater = acquireInflater();
+                inflater.setInput(in);
+            }
+            try {
+                int n;
+                while ((n = inflater.inflate(b, off, lenient ? 1 : len)) == 0) {
+                    if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) {
+                        close();
+                        return -1;
+                    }
+                }
+                position += n;
+                return n;
+            } catch (DataFormatException e) {
+                if (lenient || !restartLenient()) {
+                    close();
+                    return -1;
+                }
+                return read(b, off, len);
+            }
+        }
+
+        /**
+         * Decodes the data again up to the current position, to go on one byte at a time.
+         */
+        private boolean restartLenient() {
+            lenient = true;
+            releaseInflater(inflater);
+            inflater = acquireInflater();
+            inflater.setInput(in);
+            byte[] skipped = new byte[CHUNK_SIZE];
+            long remaining = position;
+            try {
+                while (remaining > 0) {
+                    int n = inflater.inflate(skipped, 0, (int) Math.min(skipped.length, remaining));
+                    if (n == 0) {
+                        return false;
+                    }
+                    remaining -= n;
+                }
+                return true;
+            } catch (DataFormatException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            eof = true;
+            releaseInflater(inflater);
+            inflater = null;
+        }
+    }
+}
@@ -52,7 +52,6 @@ package org.openpdf.text.pdf;
 import org.openpdf.text.ExceptionConverter;
 import org.openpdf.text.TextRenderingOptions;
 import org.openpdf.text.Utilities;
-import java.awt.font.GlyphVector;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -158,10 +157,10 @@ class FontDetails {
         fillerCmap.put(key, value);
     }
 
-    void addMissingCmapEntries(String text, GlyphVector glyphVector, BaseFont baseFont) {
+    void addMissingCmapEntries(String text, int[] glyphCodes, int[] charIndices, BaseFont baseFont) {
 
         if (baseFont instanceof TrueTypeFontUnicode trueTypeFont && getFillerCmap() != null) {
-            int[][] localCmap = trueTypeFont.getSentenceMissingCmap(text, glyphVector);
+            int[][] localCmap = trueTypeFont.getSentenceMissingCmap(text, glyphCodes, charIndices);
 
             for (int[] ints : localCmap) {
                 putFillerCmap(ints[0], new int[]{ints[0], ints[1]});
@@ -311,7 +310,7 @@ class FontDetails {
      *
      * @param glyphCodes List of glyph codes
      * @return byte array with one or two bytes as UTF-16BE representation of the glyph code
-     * @see <CODE>convertToBytes(GlyphVector glyphVector,...)</CODE>
+     * @see <CODE>convertToBytes(int[] glyphCodes,...)</CODE>
      */
     byte[] convertToBytes(final List<Integer> glyphCodes) {
         if (fontType != BaseFont.FONT_TYPE_TTUNI) {
@@ -344,14 +343,14 @@ class FontDetails {
         return s.getBytes(StandardCharsets.UTF_16BE);
     }
 
-    byte[] convertToBytes(GlyphVector glyphVector, int beginIndex, int endIndex) {
+    byte[] convertToBytes(int[] glyphCodes, int beginIndex, int endIndex) {
         if (fontType != BaseFont.FONT_TYPE_TTUNI || symbolic) {
             throw new UnsupportedOperationException("Only supported for True Type Unicode fonts");
         }
         List<Integer> codePoints = new ArrayList<>();
 
         for (int i = beginIndex; i < endIndex; i++) {
-            int code = glyphVector.getGlyphCode(i);
+            int code = glyphCodes[i];
             if (code == 0xFFFE || code == 0xFFFF) {
                 // considered non-glyphs by AWT
                 continue;
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+package org.openpdf.text.pdf;
+
+import org.openpdf.text.DocumentException;
+import org.openpdf.text.ExceptionConverter;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache of parsed fonts and font data, such as shaped glyph runs, shared by all threads.
+ * <p>
+ * Entries are kept in least recently used order and weighed with an estimate of their heap size. When the total
+ * exceeds the limit the least recently used entries are dropped. A dropped value that is still referenced elsewhere,
+ * such as a font used by an open document, is remembered weakly and handed out again instead of being loaded a second
+ * time, so code that compares fonts by identity, like the font subsets of <CODE>PdfWriter</CODE>, never sees two
+ * instances of the same font. Concurrent requests for a font that is not cached are coalesced, so a font is parsed
+ * once no matter how many threads ask for it.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @since 3.0.1
+ */
+public final class FontRegistry<K, V> {
+
+    /**
+     * Loads a value missing from the registry.
+     *
+     * @param <V> the value type
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+
+        V load() throws DocumentException, IOException;
+    }
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    /**
+     * The values dropped from <CODE>entries</CODE> that may still be in use.
+     */
+    private final HashMap<K, Evicted<K, V>> evicted = new HashMap<>();
+    private final ReferenceQueue<V> collected = new ReferenceQueue<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final ToLongFunction<? super V> weigher;
+    private volatile long maxBytes;
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a registry.
+     *
+     * @param maxBytes the maximum estimated size of the cached values in bytes
+     * @param weigher  estimates the size of a value in bytes
+     */
+    public FontRegistry(long maxBytes, ToLongFunction<? super V> weigher) {
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @param key the key
+     * @return the value or <CODE>null</CODE> if it is not cached
+     */
+    public V get(K key) {
+        V value;
+        synchronized (entries) {
+            value = lookup(key);
+        }
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return value;
+    }
+
+    /**
+     * Finds a cached value, bringing back a dropped value that is still in use. Must hold the lock on
+     * <CODE>entries</CODE>.
+     */
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            return entry.value;
+        }
+        expungeCollected();
+        Evicted<K, V> ref = evicted.remove(key);
+        V value = ref == null ? null : ref.get();
+        if (value != null) {
+            store(key, value, Math.max(0, weigher.applyAsLong(value)));
+        }
+        return value;
+    }
+
+    /**
+     * Gets a cached value or loads it. If another thread is already loading the same key this thread waits for that
+     * load instead of starting its own.
+     *
+     * @param key    the key
+     * @param loader loads the value if it is not cached
+     * @return the value
+     * @throws DocumentException if the loader throws it
+     * @throws IOException       if the loader throws it
+     */
+    public V get(K key, Loader<? extends V> loader) throws DocumentException, IOException {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, load);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // the value may have been stored between the lookup and the registration of this load
+            synchronized (entries) {
+                value = lookup(key);
+            }
+            if (value == null) {
+                loads.increment();
+                value = loader.load();
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (IOException | RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) throws DocumentException, IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    /**
+     * Stores a value, replacing the cached value of the key if any.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        long weight = Math.max(0, weigher.applyAsLong(value));
+        synchronized (entries) {
+            evicted.remove(key);
+            store(key, value, weight);
+        }
+    }
+
+    private void store(K key, V value, long weight) {
+        Entry<V> old = entries.put(key, new Entry<>(value, weight));
+        if (old != null) {
+            bytes -= old.weight;
+        }
+        bytes += weight;
+        evict();
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key the key
+     * @return the removed value or <CODE>null</CODE>
+     */
+    public V remove(K key) {
+        synchronized (entries) {
+            evicted.remove(key);
+            Entry<V> old = entries.remove(key);
+            if (old == null) {
+                return null;
+            }
+            bytes -= old.weight;
+            return old.value;
+        }
+    }
+
+    /**
+     * Removes all values. The counters are kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            evicted.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Drops least recently used entries until the total is within the limit. The most recent entry is always kept.
+     */
+    private void evict() {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && entries.size() > 1) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            it.remove();
+            bytes -= eldest.getValue().weight;
+            evictions.increment();
+            evicted.put(eldest.getKey(), new Evicted<>(eldest.getKey(), eldest.getValue().value, collected));
+        }
+        expungeCollected();
+    }
+
+    /**
+     * Forgets the dropped values that were garbage collected.
+     */
+    private void expungeCollected() {
+        Object ref;
+        while ((ref = collected.poll()) != null) {
+            Evicted<?, ?> gone = (Evicted<?, ?>) ref;
+            evicted.remove(gone.key, gone);
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the maximum estimated size of the cached values, evicting entries if needed.
+     *
+     * @param maxBytes the limit in bytes
+     */
+    public void setMaxBytes(long maxBytes) {
+        synchronized (entries) {
+            this.maxBytes = maxBytes;
+            evict();
+        }
+    }
+
+    /**
+     * Returns the number of cached values.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the estimated size of the cached values.
+     *
+     * @return the size in bytes
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached value.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of lookups that found a cached value.
+     *
+     * @return the hit rate between 0 and 1, or 0 if nothing was looked up yet
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Returns the number of values loaded. Lower than the misses when concurrent requests were coalesced.
+     *
+     * @return the load count
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * Returns the number of values dropped to stay within the limit.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "FontRegistry{size=" + size() + ", bytes=" + getBytes() + ", maxBytes=" + maxBytes
+                + ", hits=" + getHits() + ", misses=" + getMisses() + ", loads=" + getLoads()
+                + ", evictions=" + getEvictions() + '}';
+    }
+
+    private record Entry<V>(V value, long weight) {
+    }
+
+    private static final class Evicted<K, V> extends WeakReference<V> {
+
+        private final K key;
+
+        Evicted(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.openpdf.text.pdf;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.Map;
 import org.apache.fop.complexscripts.fonts.GlyphSubstitutionTable;
 import org.apache.fop.complexscripts.util.CharScript;
@@ -17,6 +18,10 @@ public class FopGlyphProcessor {
 
     private static boolean isFopSupported;
 
+    private static final FontRegistry<RunKey, ShapedRun> shapedRuns = new FontRegistry<>(
+            Long.getLong("org.openpdf.shapedRunCacheBytes", 8L * 1024 * 1024),
+            run -> 96 + 12L * run.glyphs.length);
+
     static {
         try {
             Class.forName("org.apache.fop.complexscripts.util.GlyphSequence");
@@ -30,9 +35,42 @@ public class FopGlyphProcessor {
         return isFopSupported;
     }
 
+    /**
+     * Returns the cache of substituted glyph runs, to read its counters or change its limit. The limit defaults to
+     * 8 MB and can be set with the system property <CODE>org.openpdf.shapedRunCacheBytes</CODE>.
+     *
+     * @return the cache
+     * @since 3.0.1
+     */
+    public static FontRegistry<?, ?> getShapedRunCache() {
+        return shapedRuns;
+    }
+
     public static byte[] convertToBytesWithGlyphs(BaseFont font, String text, String fileName,
             Map<Integer, int[]> longTag, String language) throws UnsupportedEncodingException {
         TrueTypeFontUnicode ttu = (TrueTypeFontUnicode) font;
+        RunKey key = new RunKey(ttu, language, text);
+        ShapedRun run = shapedRuns.get(key);
+        if (run == null) {
+            run = shape(ttu, text, fileName, language);
+            shapedRuns.put(key, run);
+        }
+        int[] processedChars = run.glyphs;
+        int limit = processedChars.length;
+        char[] charEncodedGlyphCodes = new char[limit];
+
+        for (int i = 0; i < limit; i++) {
+            charEncodedGlyphCodes[i] = (char) processedChars[i];
+            Integer glyphCode = processedChars[i];
+            if (!longTag.containsKey(glyphCode)) {
+                longTag.put(glyphCode,
+                        new int[]{processedChars[i], ttu.getGlyphWidth(processedChars[i]), run.chars[i]});
+            }
+        }
+        return new String(charEncodedGlyphCodes).getBytes(CJKFont.CJK_ENCODING);
+    }
+
+    private static ShapedRun shape(TrueTypeFontUnicode ttu, String text, String fileName, String language) {
         IntBuffer charBuffer = IntBuffer.allocate(text.length());
         IntBuffer glyphBuffer = IntBuffer.allocate(text.length());
         int textLength = text.length();
@@ -60,18 +98,22 @@ public class FopGlyphProcessor {
             glyphSequence = gsubTable.substitute(glyphSequence, script, language);
         }
         int limit = glyphSequence.getGlyphs().limit();
-        int[] processedChars = glyphSequence.getGlyphs().array();
-        char[] charEncodedGlyphCodes = new char[limit];
-
+        int[] glyphs = Arrays.copyOf(glyphSequence.getGlyphs().array(), limit);
+        int[] chars = new int[limit];
         for (int i = 0; i < limit; i++) {
-            charEncodedGlyphCodes[i] = (char) processedChars[i];
-            Integer glyphCode = processedChars[i];
-            if (!longTag.containsKey(glyphCode)) {
-                longTag.put(glyphCode,
-                        new int[]{processedChars[i], ttu.getGlyphWidth(processedChars[i]), charBuffer.get(i)});
-            }
+            chars[i] = charBuffer.get(i);
         }
-        return new String(charEncodedGlyphCodes).getBytes(CJKFont.CJK_ENCODING);
+        return new ShapedRun(glyphs, chars);
+    }
+
+    private record RunKey(BaseFont font, String language, String text) {
+    }
+
+    /**
+     * The glyphs of a text after substitution and, for each glyph, the character it is reported for in the ToUnicode
+     * map.
+     */
+    private record ShapedRun(int[] glyphs, int[] chars) {
     }
 
 }
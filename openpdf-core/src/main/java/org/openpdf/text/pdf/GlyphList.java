@@ -50,38 +50,36 @@
 package org.openpdf.text.pdf;
 
 import org.openpdf.text.pdf.fonts.FontsResourceAnchor;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.StringTokenizer;
 
 public class GlyphList {
 
-    private static HashMap<Integer, String> unicode2names = new HashMap<>();
+    /**
+     * The code points of the glyph list, sorted, without duplicates.
+     */
+    private static int[] unicodes = new int[0];
+    /**
+     * The glyph name for each entry of <CODE>unicodes</CODE>.
+     */
+    private static String[] unicodeNames = new String[0];
     private static HashMap<String, int[]> names2unicode = new HashMap<>();
 
     static {
-        InputStream is = null;
-        try {
-            is = BaseFont.getResourceStream(BaseFont.RESOURCE_PATH + "glyphlist.txt",
-                    FontsResourceAnchor.class.getClassLoader());
+        try (InputStream is = BaseFont.getResourceStream(BaseFont.RESOURCE_PATH + "glyphlist.txt",
+                FontsResourceAnchor.class.getClassLoader())) {
             if (is == null) {
                 String msg = "glyphlist.txt not found as resource. (It must exist as resource in the package org.openpdf.text.pdf.fonts)";
                 throw new Exception(msg);
             }
-            byte[] buf = new byte[1024];
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            while (true) {
-                int size = is.read(buf);
-                if (size < 0) {
-                    break;
-                }
-                out.write(buf, 0, size);
-            }
-            is.close();
-            is = null;
-            String s = PdfEncodings.convertToString(out.toByteArray(), null);
+            String s = PdfEncodings.convertToString(is.readAllBytes(), null);
             StringTokenizer tk = new StringTokenizer(s, "\r\n");
+            // each entry is packed as code << 32 | line index so that sorting keeps the file order
+            long[] entries = new long[6000];
+            String[] names = new String[entries.length];
+            int size = 0;
             while (tk.hasMoreTokens()) {
                 String line = tk.nextToken();
                 if (line.startsWith("#")) {
@@ -98,20 +96,32 @@ public class GlyphList {
                     continue;
                 }
                 hex = t2.nextToken();
-                Integer num = Integer.valueOf(hex, 16);
-                unicode2names.put(num, name);
+                int num = Integer.parseInt(hex, 16);
+                if (size == entries.length) {
+                    entries = Arrays.copyOf(entries, size * 2);
+                    names = Arrays.copyOf(names, size * 2);
+                }
+                entries[size] = ((long) num << 32) | size;
+                names[size++] = name;
                 names2unicode.put(name, new int[]{num});
             }
-        } catch (Exception e) {
-            System.err.println("glyphlist.txt loading error: " + e.getMessage());
-        } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (Exception e) {
-                    // empty on purpose
+            Arrays.sort(entries, 0, size);
+            int[] codes = new int[size];
+            String[] codeNames = new String[size];
+            int count = 0;
+            for (int k = 0; k < size; ++k) {
+                int code = (int) (entries[k] >>> 32);
+                // the last line for a code point wins, as it did with a map
+                if (count > 0 && codes[count - 1] == code) {
+                    --count;
                 }
+                codes[count] = code;
+                codeNames[count++] = names[(int) entries[k]];
             }
+            unicodes = Arrays.copyOf(codes, count);
+            unicodeNames = Arrays.copyOf(codeNames, count);
+        } catch (Exception e) {
+            System.err.println("glyphlist.txt loading error: " + e.getMessage());
         }
     }
 
@@ -120,6 +130,7 @@ public class GlyphList {
     }
 
     public static String unicodeToName(int num) {
-        return unicode2names.get(num);
+        int index = Arrays.binarySearch(unicodes, num);
+        return index < 0 ? null : unicodeNames[index];
     }
 }
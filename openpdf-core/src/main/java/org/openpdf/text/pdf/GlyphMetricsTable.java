@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+
+package org.openpdf.text.pdf;
+
+import org.openpdf.text.Utilities;
+import java.util.Map;
+
+/**
+ * A read-only view of a TrueType cmap indexed by code point. The lookup goes through two levels of arrays, pages of
+ * 256 code points allocated only where the cmap has entries, so no <CODE>Integer</CODE> is boxed and no hash is
+ * computed. The <CODE>int[]</CODE> metrics are the ones held by the cmap, so a width changed through
+ * {@link BaseFont#setCharAdvance(int, int)} is seen by both.
+ */
+final class GlyphMetricsTable {
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int MAX_CODE_POINT = 0x10ffff;
+
+    /**
+     * The cmap this table was built from.
+     */
+    private final Map<Integer, int[]> cmap;
+    private final int[][][] pages;
+
+    private GlyphMetricsTable(Map<Integer, int[]> cmap, int[][][] pages) {
+        this.cmap = cmap;
+        this.pages = pages;
+    }
+
+    /**
+     * Builds the table for a cmap. Codes outside the Unicode range can never be looked up from text and are left out.
+     *
+     * @param cmap the cmap, the key is the code and the value is {glyph index, width}
+     * @return the table or <CODE>null</CODE> if <CODE>cmap</CODE> is <CODE>null</CODE>
+     */
+    static GlyphMetricsTable of(Map<Integer, int[]> cmap) {
+        if (cmap == null) {
+            return null;
+        }
+        int max = -1;
+        for (Integer code : cmap.keySet()) {
+            if (code >= 0 && code <= MAX_CODE_POINT) {
+                max = Math.max(max, code);
+            }
+        }
+        int[][][] pages = new int[(max >> PAGE_SHIFT) + 1][][];
+        for (Map.Entry<Integer, int[]> entry : cmap.entrySet()) {
+            int code = entry.getKey();
+            if (code < 0 || code > MAX_CODE_POINT) {
+                continue;
+            }
+            int[][] page = pages[code >> PAGE_SHIFT];
+            if (page == null) {
+                page = new int[PAGE_SIZE][];
+                pages[code >> PAGE_SHIFT] = page;
+            }
+            page[code & PAGE_MASK] = entry.getValue();
+        }
+        return new GlyphMetricsTable(cmap, pages);
+    }
+
+    /**
+     * Returns <CODE>table</CODE> if it was built from <CODE>cmap</CODE>, otherwise a new table for <CODE>cmap</CODE>.
+     *
+     * @param table the table built so far, may be <CODE>null</CODE>
+     * @param cmap  the cmap the table must reflect, may be <CODE>null</CODE>
+     * @return the table for <CODE>cmap</CODE> or <CODE>null</CODE> if <CODE>cmap</CODE> is <CODE>null</CODE>
+     */
+    static GlyphMetricsTable of(GlyphMetricsTable table, Map<Integer, int[]> cmap) {
+        if (table != null && table.cmap == cmap) {
+            return table;
+        }
+        return of(cmap);
+    }
+
+    /**
+     * Gets the glyph index and width for a code point.
+     *
+     * @param code the code point
+     * @return an <CODE>int</CODE> array with {glyph index, width} or <CODE>null</CODE> if the code is not mapped
+     */
+    int[] get(int code) {
+        int page = code >>> PAGE_SHIFT;
+        if (page >= pages.length) {
+            return null;
+        }
+        int[][] metrics = pages[page];
+        return metrics == null ? null : metrics[code & PAGE_MASK];
+    }
+
+    /**
+     * Sums the widths of the code points of a text, surrogate pairs being taken as one code point. Unmapped code
+     * points count as zero.
+     *
+     * @param text the text
+     * @return the width in normalized 1000 units
+     */
+    int getWidth(String text) {
+        int total = 0;
+        int len = text.length();
+        for (int k = 0; k < len; ++k) {
+            int code = text.charAt(k);
+            if (Utilities.isSurrogatePair(text, k)) {
+                code = Utilities.convertToUtf32(text, k);
+                ++k;
+            }
+            int[] metrics = get(code);
+            if (metrics != null) {
+                total += metrics[1];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sums the widths of the low bytes of a text, the way symbolic fonts map their characters. Only characters in the
+     * ranges 0x0000-0x00ff and 0xf000-0xf0ff are counted.
+     *
+     * @param text the text
+     * @return the width in normalized 1000 units
+     */
+    int getSymbolWidth(String text) {
+        int total = 0;
+        int len = text.length();
+        for (int k = 0; k < len; ++k) {
+            char c = text.charAt(k);
+            if ((c & 0xff00) == 0 || (c & 0xff00) == 0xf000) {
+                int[] metrics = get(c & 0xff);
+                if (metrics != null) {
+                    total += metrics[1];
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+package org.openpdf.text.pdf;
+
+/**
+ * Maps the object number and generation of the indirect references of a source document to the references they were
+ * given in the copy, and remembers which objects were already copied. The keys are held in a <CODE>long[]</CODE> with
+ * open addressing, so an entry costs a key, a reference slot and a flag instead of a map node, a key object and a
+ * value object.
+ */
+final class IndirectReferenceTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private PdfIndirectReference[] refs;
+    private boolean[] copied;
+    private int size;
+
+    IndirectReferenceTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Gets the reference given in the copy to a source object.
+     *
+     * @param num the object number in the source document
+     * @param gen the generation in the source document
+     * @return the reference in the copy or <CODE>null</CODE> if the object was never mapped
+     */
+    PdfIndirectReference get(int num, int gen) {
+        int slot = find(key(num, gen));
+        return slot < 0 ? null : refs[slot];
+    }
+
+    /**
+     * Checks if a source object has already been copied.
+     *
+     * @param num the object number in the source document
+     * @param gen the generation in the source document
+     * @return <CODE>true</CODE> if the object was mapped and marked as copied
+     */
+    boolean isCopied(int num, int gen) {
+        int slot = find(key(num, gen));
+        return slot >= 0 && copied[slot];
+    }
+
+    /**
+     * Maps a source object to a reference in the copy. The object is not marked as copied.
+     *
+     * @param num the object number in the source document
+     * @param gen the generation in the source document
+     * @param ref the reference in the copy
+     */
+    void put(int num, int gen, PdfIndirectReference ref) {
+        long key = key(num, gen);
+        int slot = find(key);
+        if (slot >= 0) {
+            refs[slot] = ref;
+            copied[slot] = false;
+            return;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length << 1);
+        }
+        slot = ~find(key);
+        keys[slot] = key;
+        refs[slot] = ref;
+        ++size;
+    }
+
+    /**
+     * Marks a mapped source object as copied.
+     *
+     * @param num the object number in the source document
+     * @param gen the generation in the source document
+     */
+    void setCopied(int num, int gen) {
+        int slot = find(key(num, gen));
+        if (slot >= 0) {
+            copied[slot] = true;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static long key(int num, int gen) {
+        return ((long) gen << 32) | (num & 0xffffffffL);
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @return the slot holding the key, or the complement of the free slot where it would go
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9e3779b97f4a7c15L) >>> 32) & mask;
+        while (refs[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        PdfIndirectReference[] oldRefs = refs;
+        boolean[] oldCopied = copied;
+        allocate(capacity);
+        for (int k = 0; k < oldKeys.length; ++k) {
+            if (oldRefs[k] != null) {
+                int slot = ~find(oldKeys[k]);
+                keys[slot] = oldKeys[k];
+                refs[slot] = oldRefs[k];
+                copied[slot] = oldCopied[k];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        refs = new PdfIndirectReference[capacity];
+        copied = new boolean[capacity];
+    }
+}
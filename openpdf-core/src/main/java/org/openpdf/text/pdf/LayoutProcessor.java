@@ -45,6 +45,7 @@ package org.openpdf.text.pdf;
 import org.openpdf.text.FontFactory;
 import org.openpdf.text.error_messages.MessageLocalization;
 import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphMetrics;
 import java.awt.font.GlyphVector;
 import java.awt.font.TextAttribute;
 import java.awt.geom.AffineTransform;
@@ -77,6 +78,15 @@ public class LayoutProcessor {
 
     private static final Map<TextAttribute, Object> globalTextAttributes = new ConcurrentHashMap<>();
 
+    /**
+     * The glyphs and positions of laid out texts, keyed by base font, AWT font, size, flags and text. The AWT font holds
+     * the kerning, ligature and run direction attributes, which can be changed for a base font at any time. Only the
+     * copied arrays are kept, the glyph vectors themselves are not safe to share between threads.
+     */
+    private static final FontRegistry<RunKey, ShapedRun> shapedRuns = new FontRegistry<>(
+            Long.getLong("org.openpdf.shapedRunCacheBytes", 8L * 1024 * 1024),
+            run -> 128 + 32L * run.glyphs.length);
+
     // Static variables can only be set once
     private static boolean enabled = false;
     private static int flags = DEFAULT_FLAGS;
@@ -339,6 +349,10 @@ public class LayoutProcessor {
      * @return glyph vector containing reordered text, width and positioning info
      */
     public static GlyphVector computeGlyphVector(BaseFont baseFont, float fontSize, String text) {
+        return layoutGlyphVector(LayoutProcessor.awtFontMap.get(baseFont), fontSize, text);
+    }
+
+    private static GlyphVector layoutGlyphVector(java.awt.Font baseAwtFont, float fontSize, String text) {
         char[] chars = text.toCharArray();
 
         FontRenderContext fontRenderContext = new FontRenderContext(new AffineTransform(), false, true);
@@ -350,7 +364,7 @@ public class LayoutProcessor {
             Bidi bidi = new Bidi(as.getIterator());
             localFlags = bidi.isLeftToRight() ? java.awt.Font.LAYOUT_LEFT_TO_RIGHT : java.awt.Font.LAYOUT_RIGHT_TO_LEFT;
         }
-        java.awt.Font awtFont = LayoutProcessor.awtFontMap.get(baseFont).deriveFont(fontSize);
+        java.awt.Font awtFont = baseAwtFont.deriveFont(fontSize);
         Map<TextAttribute, ?> textAttributes = awtFont.getAttributes();
         if (textAttributes != null) {
             Object runDirection = textAttributes.get(TextAttribute.RUN_DIRECTION);
@@ -363,30 +377,60 @@ public class LayoutProcessor {
     }
 
     /**
-     * Checks if the glyphVector contains adjustments that make advanced layout necessary
+     * Returns the cache of laid out glyph runs, to read its counters or change its limit. The limit defaults to
+     * 8 MB and can be set with the system property <CODE>org.openpdf.shapedRunCacheBytes</CODE>.
+     *
+     * @return the cache
+     * @since 3.0.1
+     */
+    public static FontRegistry<?, ?> getShapedRunCache() {
+        return shapedRuns;
+    }
+
+    /**
+     * Lays out the text, or returns the glyphs and positions of the same text laid out before with the same font, text
+     * attributes, size and flags.
+     *
+     * @param baseFont OpenPdf base font
+     * @param fontSize font size to apply
+     * @param text     input text
+     * @return the laid out glyphs
+     */
+    private static ShapedRun shape(BaseFont baseFont, float fontSize, String text) {
+        java.awt.Font baseAwtFont = LayoutProcessor.awtFontMap.get(baseFont);
+        RunKey key = new RunKey(baseFont, baseAwtFont, fontSize, LayoutProcessor.flags, text);
+        ShapedRun run = shapedRuns.get(key);
+        if (run == null) {
+            run = ShapedRun.of(layoutGlyphVector(baseAwtFont, fontSize, text));
+            shapedRuns.put(key, run);
+        }
+        return run;
+    }
+
+    /**
+     * Checks if the run contains adjustments that make advanced layout necessary
      *
-     * @param glyphVector glyph vector containing the positions
-     * @return true, if the glyphVector contains adjustments
+     * @param run glyph run containing the positions
+     * @return true, if the run contains adjustments
      */
-    private static boolean noAdjustments(GlyphVector glyphVector) {
+    private static boolean noAdjustments(ShapedRun run) {
         boolean retVal = false;
         float lastX = 0f;
         float lastY = 0f;
 
-        for (int i = 0; i < glyphVector.getNumGlyphs(); i++) {
-            Point2D p = glyphVector.getGlyphPosition(i);
-            float dx = (float) p.getX() - lastX;
-            float dy = (float) p.getY() - lastY;
+        for (int i = 0; i < run.numGlyphs(); i++) {
+            float dx = run.x(i) - lastX;
+            float dy = run.y(i) - lastY;
 
-            float ax = (i == 0) ? 0.0f : glyphVector.getGlyphMetrics(i - 1).getAdvanceX();
-            float ay = (i == 0) ? 0.0f : glyphVector.getGlyphMetrics(i - 1).getAdvanceY();
+            float ax = (i == 0) ? 0.0f : run.advanceX(i - 1);
+            float ay = (i == 0) ? 0.0f : run.advanceY(i - 1);
 
             if (dx != ax || dy != ay) {
                 retVal = true;
                 break;
             }
-            lastX = (float) p.getX();
-            lastY = (float) p.getY();
+            lastX = run.x(i);
+            lastY = run.y(i);
         }
         return !retVal;
     }
@@ -410,62 +454,59 @@ public class LayoutProcessor {
     }
 
 
-    private static void completeCmap(PdfContentByte cb, BaseFont baseFont, String text, GlyphVector glyphVector) {
-        cb.state.fontDetails.addMissingCmapEntries(text, glyphVector, baseFont);
+    private static void completeCmap(PdfContentByte cb, BaseFont baseFont, String text, ShapedRun run) {
+        cb.state.fontDetails.addMissingCmapEntries(text, run.glyphs, run.charIndices, baseFont);
     }
 
 
     @Deprecated
     private static Point2D showText1(PdfContentByte cb, BaseFont baseFont, float fontSize, String text) {
-        GlyphVector glyphVector = computeGlyphVector(baseFont, fontSize, text);
-        completeCmap(cb, baseFont, text, glyphVector);
-
-        if (noAdjustments(glyphVector)) {
-            cb.showText(glyphVector);
-            Point2D p = glyphVector.getGlyphPosition(glyphVector.getNumGlyphs());
-            float dx = (float) p.getX();
-            float dy = (float) p.getY();
+        ShapedRun run = shape(baseFont, fontSize, text);
+        completeCmap(cb, baseFont, text, run);
+        int numGlyphs = run.numGlyphs();
+
+        if (noAdjustments(run)) {
+            cb.showText(run.glyphs, 0, numGlyphs);
+            float dx = run.x(numGlyphs);
+            float dy = run.y(numGlyphs);
             cb.moveTextBasic(dx, -dy);
             return new Point2D.Double(-dx, dy);
         }
         float lastX = 0f;
         float lastY = 0f;
 
-        for (int i = 0; i < glyphVector.getNumGlyphs(); i++) {
-            Point2D p = glyphVector.getGlyphPosition(i);
-
-            float dx = (float) p.getX() - lastX;
-            float dy = (float) p.getY() - lastY;
+        for (int i = 0; i < numGlyphs; i++) {
+            float dx = run.x(i) - lastX;
+            float dy = run.y(i) - lastY;
 
             cb.moveTextBasic(dx, -dy);
 
-            cb.showText(glyphVector, i, i + 1);
+            cb.showText(run.glyphs, i, i + 1);
 
-            lastX = (float) p.getX();
-            lastY = (float) p.getY();
+            lastX = run.x(i);
+            lastY = run.y(i);
         }
-        Point2D p = glyphVector.getGlyphPosition(glyphVector.getNumGlyphs());
-        float dx = (float) p.getX() - lastX;
-        float dy = (float) p.getY() - lastY;
+        float dx = run.x(numGlyphs) - lastX;
+        float dy = run.y(numGlyphs) - lastY;
         cb.moveTextBasic(dx, -dy);
 
-        return new Point2D.Double(-p.getX(), p.getY());
+        return new Point2D.Double(-run.x(numGlyphs), run.y(numGlyphs));
     }
 
 
     private static Point2D showText2(PdfContentByte cb, BaseFont baseFont, float fontSize, String text) {
-        GlyphVector glyphVector = computeGlyphVector(baseFont, fontSize, text);
-        completeCmap(cb, baseFont, text, glyphVector);
+        ShapedRun run = shape(baseFont, fontSize, text);
+        completeCmap(cb, baseFont, text, run);
 
         if (writeActualText) {
             PdfDictionary d = new PdfDictionary();
             d.put(PdfName.ACTUALTEXT, new PdfString(text, PdfObject.TEXT_UNICODE));
             cb.beginMarkedContentSequence(PdfName.SPAN, d, true);
         }
-        if (noAdjustments(glyphVector)) {
-            cb.showText(glyphVector);
+        if (noAdjustments(run)) {
+            cb.showText(run.glyphs, 0, run.numGlyphs());
         } else {
-            adjustAndShowText(cb, fontSize, glyphVector);
+            adjustAndShowText(cb, fontSize, run);
         }
         if (writeActualText) {
             cb.endMarkedContentSequence();
@@ -474,7 +515,7 @@ public class LayoutProcessor {
     }
 
 
-    private static void adjustAndShowText(PdfContentByte cb, final float fontSize, final GlyphVector glyphVector) {
+    private static void adjustAndShowText(PdfContentByte cb, final float fontSize, final ShapedRun run) {
 
         final float deltaY = 1e-5f;
         final float deltaX = deltaY;
@@ -484,11 +525,10 @@ public class LayoutProcessor {
 
         PdfGlyphArray ga = new PdfGlyphArray();
 
-        for (int i = 0; i < glyphVector.getNumGlyphs(); i++) {
-            Point2D p = glyphVector.getGlyphPosition(i);
-            float ax = (i == 0) ? 0.0f : glyphVector.getGlyphMetrics(i - 1).getAdvanceX();
-            float dx = (float) p.getX() - lastX - ax;
-            float py = (float) p.getY();
+        for (int i = 0; i < run.numGlyphs(); i++) {
+            float ax = (i == 0) ? 0.0f : run.advanceX(i - 1);
+            float dx = run.x(i) - lastX - ax;
+            float py = run.y(i);
 
             if (Math.abs(py) >= deltaY) {
                 if (!ga.isEmpty()) {
@@ -500,17 +540,17 @@ public class LayoutProcessor {
             if (Math.abs(dx) >= deltaX) {
                 ga.add(-dx * factorX);
             }
-            ga.add(glyphVector.getGlyphCode(i));
+            ga.add(run.glyphs[i]);
             if (Math.abs(py) >= deltaY) {
                 cb.showText(ga);
                 ga.clear();
                 cb.setTextRise(0.0f);
             }
-            lastX = (float) p.getX();
+            lastX = run.x(i);
         }
-        Point2D p = glyphVector.getGlyphPosition(glyphVector.getNumGlyphs());
-        float ax = (glyphVector.getNumGlyphs() == 0) ? 0.0f : glyphVector.getGlyphMetrics(glyphVector.getNumGlyphs() - 1).getAdvanceX();
-        float dx = (float) p.getX() - lastX - ax;
+        int numGlyphs = run.numGlyphs();
+        float ax = (numGlyphs == 0) ? 0.0f : run.advanceX(numGlyphs - 1);
+        float dx = run.x(numGlyphs) - lastX - ax;
         if (Math.abs(dx) >= deltaX) {
             ga.add(-dx * factorX);
         }
@@ -523,7 +563,51 @@ public class LayoutProcessor {
         flags = DEFAULT_FLAGS;
         awtFontMap.clear();
         globalTextAttributes.clear();
+        shapedRuns.clear();
         writeActualText = false;
         setVersion(Version.TWO);
     }
+
+    private record RunKey(BaseFont font, java.awt.Font awtFont, float fontSize, int flags, String text) {
+    }
+
+    /**
+     * The glyphs of a laid out text with the char index, position and advance of each glyph. The positions hold one
+     * more x and y pair for the end of the run. The arrays are never changed once the run is created.
+     */
+    private record ShapedRun(int[] glyphs, int[] charIndices, float[] positions, float[] advances) {
+
+        static ShapedRun of(GlyphVector glyphVector) {
+            int numGlyphs = glyphVector.getNumGlyphs();
+            float[] advances = new float[2 * numGlyphs];
+            for (int i = 0; i < numGlyphs; i++) {
+                GlyphMetrics metrics = glyphVector.getGlyphMetrics(i);
+                advances[2 * i] = metrics.getAdvanceX();
+                advances[2 * i + 1] = metrics.getAdvanceY();
+            }
+            return new ShapedRun(glyphVector.getGlyphCodes(0, numGlyphs, null),
+                    glyphVector.getGlyphCharIndices(0, numGlyphs, null),
+                    glyphVector.getGlyphPositions(0, numGlyphs + 1, null), advances);
+        }
+
+        int numGlyphs() {
+            return glyphs.length;
+        }
+
+        float x(int i) {
+            return positions[2 * i];
+        }
+
+        float y(int i) {
+            return positions[2 * i + 1];
+        }
+
+        float advanceX(int i) {
+            return advances[2 * i];
+        }
+
+        float advanceY(int i) {
+            return advances[2 * i + 1];
+        }
+    }
 }
@@ -63,6 +63,7 @@ public class MappedRandomAccessFile implements AutoCloseable {
 
     private LongMappedByteBuffer mappedByteBuffer = null;
     private FileChannel channel = null;
+    private boolean ownsChannel = true;
 
     /**
      * Constructs a new MappedRandomAccessFile instance
@@ -87,6 +88,22 @@ public class MappedRandomAccessFile implements AutoCloseable {
 
     }
 
+    private MappedRandomAccessFile(MappedRandomAccessFile file) {
+        this.channel = file.channel;
+        this.mappedByteBuffer = file.mappedByteBuffer.duplicate();
+        this.ownsChannel = false;
+    }
+
+    /**
+     * Creates a reader that shares the mapped content of this file and has its own position. Closing it doesn't close
+     * the channel of this file.
+     *
+     * @return the new reader
+     */
+    public MappedRandomAccessFile duplicate() {
+        return new MappedRandomAccessFile(this);
+    }
+
     /**
      * initializes the channel and mapped bytebuffer
      *
@@ -101,7 +118,10 @@ public class MappedRandomAccessFile implements AutoCloseable {
         this.channel = channel;
         this.mappedByteBuffer = new LongMappedByteBuffer(channel, mapMode);
 
-        mappedByteBuffer.load();
+        // only preload files that fit in a single mapped window; larger files are paged in on demand
+        if (mappedByteBuffer.size() <= Integer.MAX_VALUE) {
+            mappedByteBuffer.load();
+        }
     }
 
     /**
@@ -201,7 +221,7 @@ public class MappedRandomAccessFile implements AutoCloseable {
      */
     public void close() throws IOException {
         mappedByteBuffer = null;
-        if (channel != null) {
+        if (channel != null && ownsChannel) {
             channel.close();
         }
         channel = null;
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+package org.openpdf.text.pdf;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * A streaming 128 bit MurmurHash3 (x64 variant). Much faster than a cryptographic digest, it's meant to tell apart
+ * data that isn't chosen to collide, like the resources of the documents being merged.
+ */
+final class Murmur3Hash128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] tail = new byte[16];
+    private int tailLength;
+    private long length;
+    private long h1;
+    private long h2;
+
+    void update(int b) {
+        tail[tailLength++] = (byte) b;
+        ++length;
+        if (tailLength == 16) {
+            block((long) LONG_LE.get(tail, 0), (long) LONG_LE.get(tail, 8));
+            tailLength = 0;
+        }
+    }
+
+    void update(byte[] b, int off, int len) {
+        length += len;
+        if (tailLength > 0) {
+            int n = Math.min(16 - tailLength, len);
+            System.arraycopy(b, off, tail, tailLength, n);
+            tailLength += n;
+            off += n;
+            len -= n;
+            if (tailLength < 16) {
+                return;
+            }
+            block((long) LONG_LE.get(tail, 0), (long) LONG_LE.get(tail, 8));
+            tailLength = 0;
+        }
+        while (len >= 16) {
+            block((long) LONG_LE.get(b, off), (long) LONG_LE.get(b, off + 8));
+            off += 16;
+            len -= 16;
+        }
+        System.arraycopy(b, off, tail, 0, len);
+        tailLength = len;
+    }
+
+    /**
+     * Adds the characters of a string, one byte each as in ISO-8859-1.
+     */
+    void update(String s) {
+        for (int k = 0; k < s.length(); ++k) {
+            update(s.charAt(k));
+        }
+    }
+
+    /**
+     * Finishes the hash. The hash can't be updated afterwards.
+     *
+     * @return the two halves of the hash
+     */
+    long[] digest() {
+        long k1 = 0;
+        long k2 = 0;
+        for (int k = tailLength - 1; k >= 8; --k) {
+            k2 |= (tail[k] & 0xffL) << ((k - 8) * 8);
+        }
+        if (tailLength > 8) {
+            h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+        }
+        for (int k = Math.min(tailLength, 8) - 1; k >= 0; --k) {
+            k1 |= (tail[k] & 0xffL) << (k * 8);
+        }
+        if (tailLength > 0) {
+            h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = mix(h1);
+        h2 = mix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private void block(long k1, long k2) {
+        h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+        h1 = Long.rotateLeft(h1, 27) + h2;
+        h1 = h1 * 5 + 0x52dce729;
+        h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+        h2 = Long.rotateLeft(h2, 31) + h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+package org.openpdf.text.pdf;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The elements of a <CODE>PdfArray</CODE> that holds only numbers, like a MediaBox or the widths of a font, kept as an
+ * <CODE>int</CODE> or <CODE>double</CODE> array instead of as <CODE>PdfNumber</CODE> objects. An element is made into
+ * a <CODE>PdfNumber</CODE> each time it's read. The first change to the list turns it into an <CODE>ArrayList</CODE>.
+ */
+final class NumberList extends AbstractList<PdfObject> implements RandomAccess {
+
+    private int[] ints;
+    private double[] doubles;
+    private final int size;
+    private List<PdfObject> list;
+
+    private NumberList(int[] ints, double[] doubles, int size) {
+        this.ints = ints;
+        this.doubles = doubles;
+        this.size = size;
+    }
+
+    static NumberList of(int[] values) {
+        return new NumberList(values.clone(), null, values.length);
+    }
+
+    static NumberList of(float[] values) {
+        double[] doubles = new double[values.length];
+        for (int k = 0; k < values.length; ++k) {
+            doubles[k] = values[k];
+        }
+        return new NumberList(null, doubles, values.length);
+    }
+
+    /**
+     * Gets a compact list with the same elements if they are all numbers that are written back the same way, so
+     * nothing changes when the array is written.
+     *
+     * @param elements the elements of an array
+     * @return a <CODE>NumberList</CODE> or <CODE>elements</CODE> if it can't be made compact
+     */
+    static List<PdfObject> compact(List<PdfObject> elements) {
+        int size = elements.size();
+        if (size < 2 || elements instanceof NumberList) {
+            return elements;
+        }
+        int[] ints = new int[size];
+        for (int k = 0; k < size; ++k) {
+            PdfObject obj = elements.get(k);
+            if (!(obj instanceof PdfNumber number) || obj.getIndRef() != null) {
+                return elements;
+            }
+            if (ints != null) {
+                if (isPlainInt(number.getBytes())) {
+                    ints[k] = number.intValue();
+                } else {
+                    ints = null;
+                }
+            }
+        }
+        if (ints != null) {
+            return new NumberList(ints, null, size);
+        }
+        double[] doubles = new double[size];
+        for (int k = 0; k < size; ++k) {
+            PdfNumber number = (PdfNumber) elements.get(k);
+            doubles[k] = number.doubleValue();
+            if (!new PdfNumber(doubles[k]).toString().equals(number.toString())) {
+                return elements;
+            }
+        }
+        return new NumberList(null, doubles, size);
+    }
+
+    /**
+     * Checks that a number is written as <CODE>Integer.toString</CODE> would write it.
+     */
+    private static boolean isPlainInt(byte[] b) {
+        if (b == null || b.length == 0) {
+            return false;
+        }
+        int k = b[0] == '-' ? 1 : 0;
+        int digits = b.length - k;
+        if (digits == 0 || digits > 9 || (b[k] == '0' && (digits > 1 || k == 1))) {
+            return false;
+        }
+        for (; k < b.length; ++k) {
+            if (b[k] < '0' || b[k] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public PdfObject get(int index) {
+        if (list != null) {
+            return list.get(index);
+        }
+        Objects.checkIndex(index, size);
+        return ints != null ? new PdfNumber(ints[index]) : new PdfNumber(doubles[index]);
+    }
+
+    @Override
+    public int size() {
+        return list != null ? list.size() : size;
+    }
+
+    @Override
+    public PdfObject set(int index, PdfObject element) {
+        return toList().set(index, element);
+    }
+
+    @Override
+    public void add(int index, PdfObject element) {
+        toList().add(index, element);
+        ++modCount;
+    }
+
+    @Override
+    public PdfObject remove(int index) {
+        PdfObject old = toList().remove(index);
+        ++modCount;
+        return old;
+    }
+
+    private List<PdfObject> toList() {
+        if (list == null) {
+            List<PdfObject> elements = new ArrayList<>(size + 1);
+            for (int k = 0; k < size; ++k) {
+                elements.add(get(k));
+            }
+            list = elements;
+            ints = null;
+            doubles = null;
+        }
+        return list;
+    }
+}
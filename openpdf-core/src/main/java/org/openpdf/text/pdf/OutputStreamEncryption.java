@@ -59,10 +59,12 @@ public class OutputStreamEncryption extends OutputStream {
 
     private static final int AES_128 = 4;
     private static final int AES_256_V3 = 6;
+    private static final int BUFFER_SIZE = 8192;
     protected OutputStream out;
     protected ARCFOUREncryption arcfour;
     protected AESCipher cipher;
     private byte[] sb = new byte[1];
+    private byte[] buf;
     private boolean aes;
     private boolean finished;
 
@@ -180,23 +182,36 @@ public class OutputStreamEncryption extends OutputStream {
      */
     public void write(byte[] b, int off, int len) throws IOException {
         if (aes) {
-            byte[] b2 = cipher.update(b, off, len);
-            if (b2 == null || b2.length == 0) {
-                return;
+            while (len > 0) {
+                int sz = Math.min(len, BUFFER_SIZE);
+                int n = cipher.update(b, off, sz, buffer(), 0);
+                if (n > 0) {
+                    out.write(buf, 0, n);
+                }
+                len -= sz;
+                off += sz;
             }
-            out.write(b2, 0, b2.length);
         } else {
-            byte[] b2 = new byte[Math.min(len, 4192)];
             while (len > 0) {
-                int sz = Math.min(len, b2.length);
-                arcfour.encryptARCFOUR(b, off, sz, b2, 0);
-                out.write(b2, 0, sz);
+                int sz = Math.min(len, BUFFER_SIZE);
+                arcfour.encryptARCFOUR(b, off, sz, buffer(), 0);
+                out.write(buf, 0, sz);
                 len -= sz;
                 off += sz;
             }
         }
     }
 
+    /**
+     * Gets the work buffer, which also has room for the partial block an <CODE>AESCipher</CODE> holds.
+     */
+    private byte[] buffer() {
+        if (buf == null) {
+            buf = new byte[BUFFER_SIZE + 16];
+        }
+        return buf;
+    }
+
     public void finish() throws IOException {
         if (!finished) {
             finished = true;
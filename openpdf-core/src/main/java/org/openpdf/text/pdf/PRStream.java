@@ -50,18 +50,14 @@
 package org.openpdf.text.pdf;
 
 import org.openpdf.text.Document;
-import org.openpdf.text.ExceptionConverter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 
 
 public class PRStream extends PdfStream {
 
     protected PdfReader reader;
-    protected int offset;
+    protected long offset;
     protected int length;
 
     //added by ujihara for decryption
@@ -90,7 +86,7 @@ public class PRStream extends PdfStream {
         this.reader = reader;
     }
 
-    public PRStream(PdfReader reader, int offset) {
+    public PRStream(PdfReader reader, long offset) {
         this.reader = reader;
         this.offset = offset;
     }
@@ -111,17 +107,7 @@ public class PRStream extends PdfStream {
         this.reader = reader;
         this.offset = -1;
         if (Document.compress) {
-            try {
-                ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                Deflater deflater = new Deflater(compressionLevel);
-                DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
-                zip.write(conts);
-                zip.close();
-                deflater.end();
-                bytes = stream.toByteArray();
-            } catch (IOException ioe) {
-                throw new ExceptionConverter(ioe);
-            }
+            bytes = FlateCodec.deflate(conts, compressionLevel);
             put(PdfName.FILTER, PdfName.FLATEDECODE);
         } else {
             bytes = conts;
@@ -154,18 +140,8 @@ public class PRStream extends PdfStream {
         remove(PdfName.FILTER);
         this.offset = -1;
         if (Document.compress && compress) {
-            try {
-                ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                Deflater deflater = new Deflater(compressionLevel);
-                DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
-                zip.write(data);
-                zip.close();
-                deflater.end();
-                bytes = stream.toByteArray();
-                this.compressionLevel = compressionLevel;
-            } catch (IOException ioe) {
-                throw new ExceptionConverter(ioe);
-            }
+            bytes = FlateCodec.deflate(data, compressionLevel);
+            this.compressionLevel = compressionLevel;
             put(PdfName.FILTER, PdfName.FLATEDECODE);
         } else {
             bytes = data;
@@ -182,7 +158,25 @@ public class PRStream extends PdfStream {
         setData(data, true);
     }
 
+    /**
+     * Gets the position of the stream data in the file.
+     *
+     * @return the position of the stream data
+     * @throws ArithmeticException if the position does not fit in an <CODE>int</CODE>
+     * @deprecated use {@link #getLongOffset()}, which also works for files larger than 2 GB
+     */
+    @Deprecated
     public int getOffset() {
+        return Math.toIntExact(offset);
+    }
+
+    /**
+     * Gets the position of the stream data in the file.
+     *
+     * @return the position of the stream data
+     * @since 3.0.1
+     */
+    public long getLongOffset() {
         return offset;
     }
 
@@ -233,9 +227,12 @@ public class PRStream extends PdfStream {
         os.write(STARTSTREAM);
         if (length > 0) {
             if (crypto != null && !crypto.isEmbeddedFilesOnly()) {
-                b = crypto.encryptByteArray(b);
+                OutputStreamEncryption ose = crypto.getEncryptionStream(os);
+                ose.write(b);
+                ose.finish();
+            } else {
+                os.write(b);
             }
-            os.write(b);
         }
         os.write(ENDSTREAM);
     }
@@ -49,9 +49,13 @@
 
 package org.openpdf.text.pdf;
 
+import org.openpdf.text.ExceptionConverter;
 import org.openpdf.text.error_messages.MessageLocalization;
 import org.openpdf.text.exceptions.InvalidPdfException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * @author Paulo Soares (psoares@consiste.pt)
@@ -99,14 +103,52 @@ public class PRTokeniser implements AutoCloseable {
 
     static final String EMPTY = "";
 
+    /**
+     * Keywords and content stream operators returned as constants instead of new strings, by length.
+     */
+    private static final String[][] KEYWORDS = new String[10][];
+
+    /**
+     * The largest powers of ten that are exact doubles.
+     */
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15};
+
+    static {
+        String[] keywords = {"R", "obj", "endobj", "stream", "endstream", "null", "true", "false", "xref", "trailer",
+                "startxref", "n", "f", "BT", "ET", "Tf", "Tj", "TJ", "Td", "TD", "Tm", "T*", "Tc", "Tw", "Tz", "TL",
+                "Tr", "Ts", "'", "\"", "cm", "q", "Q", "re", "f*", "F", "W", "W*", "m", "l", "c", "v", "y", "h", "S",
+                "s", "B", "B*", "b", "b*", "g", "G", "rg", "RG", "k", "K", "cs", "CS", "sc", "SC", "scn", "SCN", "gs",
+                "Do", "d", "w", "J", "j", "M", "i", "ri", "BI", "ID", "EI", "sh", "BDC", "BMC", "EMC", "MP", "DP",
+                "d0", "d1", "BX", "EX"};
+        for (String keyword : keywords) {
+            int length = keyword.length();
+            String[] list = KEYWORDS[length] == null ? new String[1] : Arrays.copyOf(KEYWORDS[length],
+                    KEYWORDS[length].length + 1);
+            list[list.length - 1] = keyword;
+            KEYWORDS[length] = list;
+        }
+    }
+
 
     protected RandomAccessFileOrArray file;
     protected int type;
-    protected String stringValue;
+    /**
+     * The text of the current token, made from <CODE>buf</CODE> on the first call to {@link #getStringValue()}.
+     */
+    private String stringValue;
     protected int reference;
     protected int generation;
     protected boolean hexString;
 
+    /**
+     * The bytes of the current token. The buffer is reused, the text is only made when asked for.
+     */
+    private byte[] buf = new byte[64];
+    private int bufLength;
+    private byte[] savedNumber = new byte[16];
+    private int savedNumberLength;
+
     public PRTokeniser(String filename) throws IOException {
         file = new RandomAccessFileOrArray(filename);
     }
@@ -119,6 +161,17 @@ public class PRTokeniser implements AutoCloseable {
         this.file = file;
     }
 
+    /**
+     * Creates a tokeniser that reads a stream once from start to end, such as the decoded data of a content stream,
+     * without reading all of it into memory first. Such a tokeniser can't seek backwards.
+     *
+     * @param is the stream to tokenise, closed when the tokeniser is closed
+     * @since 3.0.1
+     */
+    public PRTokeniser(InputStream is) {
+        this.file = new SequentialFileOrArray(is);
+    }
+
     public static final boolean isWhitespace(int ch) {
         return (ch == 0 || ch == 9 || ch == 10 || ch == 12 || ch == 13 || ch == 32);
     }
@@ -174,10 +227,24 @@ public class PRTokeniser implements AutoCloseable {
         file.seek(pos);
     }
 
+    public void seek(long pos) throws IOException {
+        file.seek(pos);
+    }
+
     public int getFilePointer() throws IOException {
         return file.getFilePointer();
     }
 
+    /**
+     * Returns the current position, valid for files larger than 2 GB.
+     *
+     * @return the current position
+     * @throws IOException on error
+     */
+    public long getLongFilePointer() throws IOException {
+        return file.getLongFilePointer();
+    }
+
     public void close() throws IOException {
         file.close();
     }
@@ -186,12 +253,26 @@ public class PRTokeniser implements AutoCloseable {
         return file.length();
     }
 
+    /**
+     * Returns the length of the underlying file, valid for files larger than 2 GB.
+     *
+     * @return the length of the file
+     * @throws IOException on error
+     */
+    public long longLength() throws IOException {
+        return file.longLength();
+    }
+
     public int read() throws IOException {
         return file.read();
     }
 
     public RandomAccessFileOrArray getSafeFile() {
-        return new RandomAccessFileOrArray(file);
+        try {
+            return file.createView();
+        } catch (IOException e) {
+            throw new ExceptionConverter(e);
+        }
     }
 
     public RandomAccessFileOrArray getFile() {
@@ -215,10 +296,32 @@ public class PRTokeniser implements AutoCloseable {
         return type;
     }
 
+    /**
+     * Gets the text of the current token: the name without the slash, the bytes of a string or the number, comment or
+     * keyword as written.
+     *
+     * @return the text of the current token
+     */
     public String getStringValue() {
+        if (stringValue == null) {
+            stringValue = new String(buf, 0, bufLength, StandardCharsets.ISO_8859_1);
+        }
         return stringValue;
     }
 
+    /**
+     * Gets the buffer holding the bytes of the current token, without making a String of them.
+     *
+     * @return the buffer, valid up to {@link #getTokenLength()} and until the next token is read
+     */
+    byte[] getTokenBytes() {
+        return buf;
+    }
+
+    int getTokenLength() {
+        return bufLength;
+    }
+
     public int getReference() {
         return reference;
     }
@@ -235,7 +338,7 @@ public class PRTokeniser implements AutoCloseable {
 
     public void throwError(String error) throws IOException {
         throw new InvalidPdfException(MessageLocalization.getComposedMessage("1.at.file.pointer.2", error,
-                String.valueOf(file.getFilePointer())));
+                String.valueOf(file.getLongFilePointer())));
     }
 
     public String checkPdfHeader() throws IOException {
@@ -270,10 +373,10 @@ public class PRTokeniser implements AutoCloseable {
         file.setStartOffset(idx);
     }
 
-    public int getStartxref() throws IOException {
+    public long getStartxref() throws IOException {
         int step = 1024; // packet size to read the file from the end
         int delta = 8; // delta to provide packets overlapping in case 'startxref' appears split between two packets
-        int pos = file.length() - delta;
+        long pos = file.longLength() - delta;
         int idx;
         do {
             pos = Math.max(0, pos - step);
@@ -289,9 +392,9 @@ public class PRTokeniser implements AutoCloseable {
 
     public void nextValidToken() throws IOException {
         int level = 0;
-        String n1 = null;
-        String n2 = null;
-        int ptr = 0;
+        int n2 = 0;
+        boolean n2Valid = false;
+        long ptr = 0;
         while (nextToken() || level == 2) {
             if (type == TK_COMMENT) {
                 continue;
@@ -301,41 +404,45 @@ public class PRTokeniser implements AutoCloseable {
                     if (type != TK_NUMBER) {
                         return;
                     }
-                    ptr = file.getFilePointer();
-                    n1 = stringValue;
+                    ptr = file.getLongFilePointer();
+                    saveNumber();
                     ++level;
                     break;
                 }
                 case 1: {
                     if (type != TK_NUMBER) {
                         file.seek(ptr);
-                        type = TK_NUMBER;
-                        stringValue = n1;
+                        restoreNumber();
                         return;
                     }
-                    n2 = stringValue;
+                    // parsed now as the buffer is reused
+                    n2Valid = isInt();
+                    if (n2Valid) {
+                        n2 = intValue();
+                    }
                     ++level;
                     break;
                 }
                 default: {
-                    if (type != TK_OTHER || !stringValue.equals("R")) {
+                    if (type != TK_OTHER || bufLength != 1 || buf[0] != 'R') {
                         file.seek(ptr);
-                        type = TK_NUMBER;
-                        stringValue = n1;
+                        restoreNumber();
                         return;
                     }
+                    if (!n2Valid) {
+                        throwError(MessageLocalization.getComposedMessage("invalid.generation.number"));
+                    }
                     type = TK_REF;
-                    reference = Integer.parseInt(n1);
-                    generation = Integer.parseInt(n2);
+                    reference = parseInt(savedNumber, savedNumberLength);
+                    generation = n2;
                     return;
                 }
             }
         }
         // http://bugs.debian.org/cgi-bin/bugreport.cgi?bug=687669#20
         if (level > 0) {
-            type = TK_NUMBER;
             file.seek(ptr);
-            stringValue = n1;
+            restoreNumber();
             return;
         }
 //                if (type == TK_ENDOFFILE && level > 0)
@@ -364,7 +471,7 @@ public class PRTokeniser implements AutoCloseable {
         // Note:  We have to initialize stringValue here, after we've looked for the end of the stream,
         // to ensure that we don't lose the value of a token that might end exactly at the end
         // of the stream
-        StringBuffer outBuf = null;
+        bufLength = 0;
         stringValue = EMPTY;
 
         switch (ch) {
@@ -375,7 +482,7 @@ public class PRTokeniser implements AutoCloseable {
                 type = TK_END_ARRAY;
                 break;
             case '/': {
-                outBuf = new StringBuffer();
+                stringValue = null;
                 type = TK_NAME;
                 while (true) {
                     ch = file.read();
@@ -385,7 +492,7 @@ public class PRTokeniser implements AutoCloseable {
                     if (ch == '#') {
                         ch = (getHex(file.read()) << 4) + getHex(file.read());
                     }
-                    outBuf.append((char) ch);
+                    append(ch);
                 }
                 backOnePosition(ch);
                 break;
@@ -406,7 +513,7 @@ public class PRTokeniser implements AutoCloseable {
                     type = TK_START_DIC;
                     break;
                 }
-                outBuf = new StringBuffer();
+                stringValue = null;
                 type = TK_STRING;
                 hexString = true;
                 int v2 = 0;
@@ -427,7 +534,7 @@ public class PRTokeniser implements AutoCloseable {
                     }
                     if (v2 == '>') {
                         ch = v1 << 4;
-                        outBuf.append((char) ch);
+                        append(ch);
                         break;
                     }
                     v2 = getHex(v2);
@@ -435,7 +542,7 @@ public class PRTokeniser implements AutoCloseable {
                         break;
                     }
                     ch = (v1 << 4) + v2;
-                    outBuf.append((char) ch);
+                    append(ch);
                     v1 = file.read();
                 }
                 if (v1 < 0 || v2 < 0) {
@@ -450,7 +557,7 @@ public class PRTokeniser implements AutoCloseable {
                 } while (ch != -1 && ch != '\r' && ch != '\n');
                 break;
             case '(': {
-                outBuf = new StringBuffer();
+                stringValue = null;
                 type = TK_STRING;
                 hexString = false;
                 int nesting = 0;
@@ -538,7 +645,7 @@ public class PRTokeniser implements AutoCloseable {
                     if (nesting == -1) {
                         break;
                     }
-                    outBuf.append((char) ch);
+                    append(ch);
                 }
                 if (ch == -1) {
                     throwError(MessageLocalization.getComposedMessage("error.reading.string"));
@@ -546,32 +653,189 @@ public class PRTokeniser implements AutoCloseable {
                 break;
             }
             default: {
-                outBuf = new StringBuffer();
+                stringValue = null;
                 if (ch == '-' || ch == '+' || ch == '.' || (ch >= '0' && ch <= '9')) {
                     type = TK_NUMBER;
                     do {
-                        outBuf.append((char) ch);
+                        append(ch);
                         ch = file.read();
                     } while (ch != -1 && ((ch >= '0' && ch <= '9') || ch == '.'));
                 } else {
                     type = TK_OTHER;
                     do {
-                        outBuf.append((char) ch);
+                        append(ch);
                         ch = file.read();
                     } while (!delims[ch + 1]);
+                    stringValue = keyword();
                 }
                 backOnePosition(ch);
                 break;
             }
         }
-        if (outBuf != null) {
-            stringValue = outBuf.toString();
-        }
         return true;
     }
 
+    private void append(int ch) {
+        if (bufLength == buf.length) {
+            buf = Arrays.copyOf(buf, bufLength * 2);
+        }
+        buf[bufLength++] = (byte) ch;
+    }
+
+    /**
+     * Gets the constant for a keyword token.
+     *
+     * @return the keyword or <CODE>null</CODE> if the token is not a known keyword
+     */
+    private String keyword() {
+        if (bufLength >= KEYWORDS.length || KEYWORDS[bufLength] == null) {
+            return null;
+        }
+        for (String keyword : KEYWORDS[bufLength]) {
+            int k = 0;
+            while (k < bufLength && keyword.charAt(k) == buf[k]) {
+                ++k;
+            }
+            if (k == bufLength) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    private void saveNumber() {
+        if (savedNumber.length < bufLength) {
+            savedNumber = new byte[bufLength];
+        }
+        System.arraycopy(buf, 0, savedNumber, 0, bufLength);
+        savedNumberLength = bufLength;
+    }
+
+    private void restoreNumber() {
+        if (buf.length < savedNumberLength) {
+            buf = new byte[savedNumberLength];
+        }
+        System.arraycopy(savedNumber, 0, buf, 0, savedNumberLength);
+        bufLength = savedNumberLength;
+        type = TK_NUMBER;
+        stringValue = null;
+    }
+
     public int intValue() {
-        return Integer.parseInt(stringValue);
+        return parseInt(buf, bufLength);
+    }
+
+    /**
+     * Returns the current number token as a <CODE>long</CODE>, used for byte offsets that may exceed 2 GB.
+     *
+     * @return the value of the current token
+     */
+    public long longValue() {
+        return parseLong(buf, bufLength);
+    }
+
+    /**
+     * Checks that the current token is an integer small enough for an <CODE>int</CODE>.
+     */
+    private boolean isInt() {
+        int k = bufLength > 0 && (buf[0] == '-' || buf[0] == '+') ? 1 : 0;
+        if (k == bufLength || bufLength - k > 9) {
+            return false;
+        }
+        for (; k < bufLength; ++k) {
+            if (buf[k] < '0' || buf[k] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(byte[] b, int length) {
+        long value = parseLong(b, length);
+        if (value != (int) value) {
+            return Integer.parseInt(new String(b, 0, length, StandardCharsets.ISO_8859_1));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal integer like <CODE>Long.parseLong</CODE> does, which is also used for anything unusual so the
+     * same exceptions are thrown.
+     */
+    private static long parseLong(byte[] b, int length) {
+        int k = 0;
+        boolean negative = false;
+        if (length > 0 && (b[0] == '-' || b[0] == '+')) {
+            negative = b[0] == '-';
+            ++k;
+        }
+        if (k == length || length - k > 18) {
+            return Long.parseLong(new String(b, 0, length, StandardCharsets.ISO_8859_1));
+        }
+        long value = 0;
+        for (; k < length; ++k) {
+            int digit = b[k] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(new String(b, 0, length, StandardCharsets.ISO_8859_1));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Makes a number object from the current number token without going through a <CODE>String</CODE>.
+     *
+     * @return the number
+     */
+    PdfNumber numberValue() {
+        int k = 0;
+        boolean negative = false;
+        if (bufLength > 0 && (buf[0] == '-' || buf[0] == '+')) {
+            negative = buf[0] == '-';
+            ++k;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; k < bufLength; ++k) {
+            int ch = buf[k];
+            if (ch == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = ch - '0';
+            if (digit < 0 || digit > 9 || ++digits > 15) {
+                // malformed or too long to be exact, let the String parser decide
+                return new PdfNumber(getStringValue());
+            }
+            mantissa = mantissa * 10 + digit;
+            if (scale >= 0) {
+                ++scale;
+            }
+        }
+        if (digits == 0) {
+            return new PdfNumber(getStringValue());
+        }
+        // both operands are exact, so the division is rounded like Double.parseDouble
+        double value = scale > 0 ? mantissa / POW10[scale] : mantissa;
+        return new PdfNumber(Arrays.copyOf(buf, bufLength), negative ? -value : value);
+    }
+
+    /**
+     * Makes a name object from the current name token without going through a <CODE>String</CODE>.
+     *
+     * @param shared <CODE>true</CODE> to return the constant from {@link PdfName} if there is one
+     * @return the name
+     */
+    PdfName nameValue(boolean shared) {
+        if (shared) {
+            PdfName name = PdfName.staticName(buf, bufLength);
+            if (name != null) {
+                return name;
+            }
+        }
+        return new PdfName(PdfName.encodeName(buf, bufLength));
     }
 
     public boolean readLineSegment(byte[] input) throws IOException {
@@ -595,7 +859,7 @@ public class PRTokeniser implements AutoCloseable {
                     break;
                 case '\r':
                     eol = true;
-                    int cur = getFilePointer();
+                    long cur = getLongFilePointer();
                     if ((read()) != '\n') {
                         seek(cur);
                     }
@@ -622,7 +886,7 @@ public class PRTokeniser implements AutoCloseable {
                         break;
                     case '\r':
                         eol = true;
-                        int cur = getFilePointer();
+                        long cur = getLongFilePointer();
                         if ((read()) != '\n') {
                             seek(cur);
                         }
@@ -105,8 +105,8 @@ public class PdfArray extends PdfObject {
      * @param values an array of <CODE>float</CODE> values to be added
      */
     public PdfArray(float[] values) {
-        this();
-        add(values);
+        super(ARRAY);
+        arrayList = NumberList.of(values);
     }
 
     /**
@@ -119,8 +119,8 @@ public class PdfArray extends PdfObject {
      * @param values an array of <CODE>int</CODE> values to be added
      */
     public PdfArray(int[] values) {
-        this();
-        add(values);
+        super(ARRAY);
+        arrayList = NumberList.of(values);
     }
 
     /**
@@ -146,6 +146,14 @@ public class PdfArray extends PdfObject {
         this(array.getElements());
     }
 
+    /**
+     * Keeps the elements as primitive numbers if they are all numbers that are written back unchanged. The elements
+     * are then made into new <CODE>PdfNumber</CODE> objects each time they are read.
+     */
+    void compactNumbers() {
+        arrayList = NumberList.compact(arrayList);
+    }
+
     // METHODS OVERRIDING SOME PDFOBJECT METHODS
 
     /**
@@ -53,24 +53,32 @@ import org.openpdf.text.Element;
 import org.openpdf.text.Font;
 import org.openpdf.text.Rectangle;
 import org.openpdf.text.utils.PdfBatch;
+import org.openpdf.text.utils.PdfBatch.BatchOptions;
 import org.openpdf.text.utils.PdfBatch.BatchResult;
+import org.openpdf.text.utils.PdfBatch.BatchStream;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * The PdfBatchUtils class provides high-level utilities for performing common PDF operations—such as merging, watermarking, encrypting, and splitting—in batch mode 
  * using Java 21 virtual threads for efficient concurrent execution.
- *
+ * <p>
+ * Inputs are opened in partial mode on memory-mapped files and outputs are streamed to disk, so the heap use of a job
+ * does not grow with the size of its files. The batch methods run one job per available processor at a time and
+ * report the results in completion order; the stream methods take explicit {@link BatchOptions}.
  */
 public final class PdfBatchUtils {
 
@@ -101,16 +109,17 @@ public final class PdfBatchUtils {
         Objects.requireNonNull(output, "output");
         Files.createDirectories(output.getParent());
 
-        try (var fos = new FileOutputStream(output.toFile())) {
+        try (var fos = newOutput(output)) {
             Document doc = new Document();
             PdfCopy copy = new PdfCopy(doc, fos);
             doc.open();
             for (Path in : inputs) {
-                try (PdfReader reader = new PdfReader(Files.readAllBytes(in))) {
+                try (PdfReader reader = openReader(in)) {
                     int n = reader.getNumberOfPages();
                     for (int i = 1; i <= n; i++) {
                         copy.addPage(copy.getImportedPage(reader, i));
                     }
+                    copy.freeReader(reader);
                 }
             }
             doc.close();
@@ -121,7 +130,12 @@ public final class PdfBatchUtils {
     /** Batch merge. */
     public static BatchResult<Path> batchMerge(List<MergeJob> jobs, Consumer<Path> onSuccess, Consumer<Throwable> onFailure) {
         return PdfBatch.run(jobs.stream().map(job -> (Callable<Path>) () -> merge(job.inputs, job.output)).toList(),
-                onSuccess, onFailure);
+                BatchOptions.defaults(), onSuccess, onFailure);
+    }
+
+    /** Bounded batch merge; the jobs are read lazily and the results arrive as they complete. */
+    public static BatchStream<Path> streamMerge(Iterable<MergeJob> jobs, BatchOptions options) {
+        return PdfBatch.stream(tasks(jobs, job -> () -> merge(job.inputs, job.output)), options);
     }
 
     // ------------------------- Watermark -------------------------
@@ -130,8 +144,8 @@ public final class PdfBatchUtils {
     public static Path watermark(Path input, Path output, String text, float fontSize, float opacity)
             throws IOException, DocumentException {
         Files.createDirectories(output.getParent());
-        try (PdfReader reader = new PdfReader(Files.readAllBytes(input));
-                var out = new FileOutputStream(output.toFile())) {
+        try (PdfReader reader = openReader(input);
+                var out = newOutput(output)) {
             PdfStamper stamper = new PdfStamper(reader, out);
             BaseFont bf = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.EMBEDDED);
             Font font = new Font(bf, fontSize);
@@ -161,7 +175,13 @@ public final class PdfBatchUtils {
 
     /** Batch watermark. */
     public static BatchResult<Path> batchWatermark(List<WatermarkJob> jobs, Consumer<Path> onSuccess, Consumer<Throwable> onFailure) {
-        return PdfBatch.run(jobs.stream().map(j -> (Callable<Path>) () -> watermark(j.input, j.output, j.text, j.fontSize, j.opacity)).toList(), onSuccess, onFailure);
+        return PdfBatch.run(jobs.stream().map(j -> (Callable<Path>) () -> watermark(j.input, j.output, j.text, j.fontSize, j.opacity)).toList(), BatchOptions.defaults(), onSuccess, onFailure);
+    }
+
+    /** Bounded batch watermark; the jobs are read lazily and the results arrive as they complete. */
+    public static BatchStream<Path> streamWatermark(Iterable<WatermarkJob> jobs, BatchOptions options) {
+        return PdfBatch.stream(tasks(jobs, j -> () -> watermark(j.input, j.output, j.text, j.fontSize, j.opacity)),
+                options);
     }
 
     // ------------------------- Encrypt -------------------------
@@ -172,8 +192,8 @@ public final class PdfBatchUtils {
             int permissions, int encryptionType)
             throws IOException, DocumentException {
         Files.createDirectories(output.getParent());
-        try (PdfReader reader = new PdfReader(Files.readAllBytes(input));
-                var out = new FileOutputStream(output.toFile())) {
+        try (PdfReader reader = openReader(input);
+                var out = newOutput(output)) {
             PdfStamper stamper = new PdfStamper(reader, out);
             stamper.setEncryption(
                     userPassword != null ? userPassword.getBytes() : null,
@@ -187,7 +207,13 @@ public final class PdfBatchUtils {
 
     /** Batch encrypt. */
     public static BatchResult<Path> batchEncrypt(List<EncryptJob> jobs, Consumer<Path> onSuccess, Consumer<Throwable> onFailure) {
-        return PdfBatch.run(jobs.stream().map(j -> (Callable<Path>) () -> encrypt(j.input, j.output, j.userPassword, j.ownerPassword, j.permissions, j.encryptionType)).toList(), onSuccess, onFailure);
+        return PdfBatch.run(jobs.stream().map(j -> (Callable<Path>) () -> encrypt(j.input, j.output, j.userPassword, j.ownerPassword, j.permissions, j.encryptionType)).toList(), BatchOptions.defaults(), onSuccess, onFailure);
+    }
+
+    /** Bounded batch encrypt; the jobs are read lazily and the results arrive as they complete. */
+    public static BatchStream<Path> streamEncrypt(Iterable<EncryptJob> jobs, BatchOptions options) {
+        return PdfBatch.stream(tasks(jobs, j -> () -> encrypt(j.input, j.output, j.userPassword, j.ownerPassword,
+                j.permissions, j.encryptionType)), options);
     }
 
     // ------------------------- Split -------------------------
@@ -196,16 +222,17 @@ public final class PdfBatchUtils {
     public static List<Path> split(Path input, Path outputDir, String baseName) throws IOException, DocumentException {
         Files.createDirectories(outputDir);
         List<Path> outputs = new ArrayList<>();
-        try (PdfReader reader = new PdfReader(Files.readAllBytes(input))) {
+        try (PdfReader reader = openReader(input)) {
             int n = reader.getNumberOfPages();
             for (int i = 1; i <= n; i++) {
                 Path out = outputDir.resolve(baseName + "_page" + i + ".pdf");
-                try (var fos = new FileOutputStream(out.toFile())) {
+                try (var fos = newOutput(out)) {
                     Document doc = new Document(reader.getPageSizeWithRotation(i));
                     PdfCopy copy = new PdfCopy(doc, fos);
                     doc.open();
                     copy.addPage(copy.getImportedPage(reader, i));
                     doc.close();
+                    reader.releasePage(i);
                 }
                 outputs.add(out);
             }
@@ -215,7 +242,12 @@ public final class PdfBatchUtils {
 
     /** Batch split. */
     public static BatchResult<List<Path>> batchSplit(List<SplitJob> jobs, Consumer<List<Path>> onSuccess, Consumer<Throwable> onFailure) {
-        return PdfBatch.run(jobs.stream().map(j -> (Callable<List<Path>>) () -> split(j.input, j.outputDir, j.baseName)).toList(), onSuccess, onFailure);
+        return PdfBatch.run(jobs.stream().map(j -> (Callable<List<Path>>) () -> split(j.input, j.outputDir, j.baseName)).toList(), BatchOptions.defaults(), onSuccess, onFailure);
+    }
+
+    /** Bounded batch split; the jobs are read lazily and the results arrive as they complete. */
+    public static BatchStream<List<Path>> streamSplit(Iterable<SplitJob> jobs, BatchOptions options) {
+        return PdfBatch.stream(tasks(jobs, j -> () -> split(j.input, j.outputDir, j.baseName)), options);
     }
 
     // ------------------------- Convenience helpers -------------------------
@@ -234,6 +266,35 @@ public final class PdfBatchUtils {
     public static int aes128() { return PdfWriter.ENCRYPTION_AES_128; }
     public static int aes256() { return PdfWriter.ENCRYPTION_AES_256_V3; }
 
+    /**
+     * Opens a PDF in partial mode on a memory-mapped file: only the xref is read up front and objects are parsed
+     * when needed, so large inputs are not copied to the heap.
+     */
+    private static PdfReader openReader(Path input) throws IOException {
+        RandomAccessFileOrArray file = new RandomAccessFileOrArray(input.toString(), false, false);
+        try {
+            return new PdfReader(file, null);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /** Opens a buffered output stream, so the writer streams to disk in large blocks. */
+    private static OutputStream newOutput(Path output) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(output), 64 * 1024);
+    }
+
+    /** Maps jobs to tasks lazily, so a long job list is not turned into a task list up front. */
+    private static <J, T> Iterable<Callable<T>> tasks(Iterable<J> jobs, Function<J, Callable<T>> task) {
+        Objects.requireNonNull(jobs, "jobs");
+        return () -> new Iterator<>() {
+            private final Iterator<J> it = jobs.iterator();
+            @Override public boolean hasNext() { return it.hasNext(); }
+            @Override public Callable<T> next() { return task.apply(it.next()); }
+        };
+    }
+
     /** Small utility for closing Closeables, ignoring exceptions. */
     private static void closeQuietly(Closeable c) { try { if (c != null) c.close(); } catch (Exception ignored) {} }
 
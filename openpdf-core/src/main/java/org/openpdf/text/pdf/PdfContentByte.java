@@ -218,6 +218,20 @@ public class PdfContentByte {
         }
     }
 
+    /**
+     * Constructs a new <CODE>PdfContentByte</CODE>-object writing into a recycled buffer.
+     *
+     * @param wr      the writer associated to this content
+     * @param content the buffer to reuse, it is emptied; <CODE>null</CODE> to allocate a new one
+     */
+    PdfContentByte(PdfWriter wr, ByteBuffer content) {
+        this(wr);
+        if (content != null) {
+            content.reset();
+            this.content = content;
+        }
+    }
+
     // constructors
 
     /**
@@ -1741,11 +1755,22 @@ public class PdfContentByte {
      * @param endIndex    index of last glyph+1
      */
     public void showText(GlyphVector glyphVector, int beginIndex, int endIndex) {
+        showText(glyphVector.getGlyphCodes(0, glyphVector.getNumGlyphs(), null), beginIndex, endIndex);
+    }
+
+    /**
+     * Shows the glyphs <CODE>beginIndex</CODE> to <CODE>endIndex</CODE> of <CODE>glyphCodes</CODE>.
+     *
+     * @param glyphCodes the glyph codes to write
+     * @param beginIndex index of first glyph
+     * @param endIndex   index of last glyph+1
+     */
+    void showText(int[] glyphCodes, int beginIndex, int endIndex) {
         if (state.fontDetails == null) {
             throw new NullPointerException(
                     MessageLocalization.getComposedMessage("font.and.size.must.be.set.before.writing.any.text"));
         }
-        byte[] b = state.fontDetails.convertToBytes(glyphVector, beginIndex, endIndex);
+        byte[] b = state.fontDetails.convertToBytes(glyphCodes, beginIndex, endIndex);
         escapeAndAppendString(b, content);
         content.append("Tj").append_i(separator);
     }
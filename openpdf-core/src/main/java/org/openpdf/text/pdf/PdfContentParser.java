@@ -65,10 +65,18 @@ public class PdfContentParser {
      * Commands have this type.
      */
     public static final int COMMAND_TYPE = 200;
+
+    private static final int OPERATOR_CACHE_SIZE = 128;
     /**
      * Holds value of property tokeniser.
      */
     private PRTokeniser tokeniser;
+    /**
+     * The operators read so far, by {@link #getOperatorCode(byte[], int)}, so that an operator used many times is a
+     * single object.
+     */
+    private final PdfLiteral[] operators = new PdfLiteral[OPERATOR_CACHE_SIZE];
+    private final int[] operatorCodes = new int[OPERATOR_CACHE_SIZE];
 
     /**
      * Creates a new instance of PdfContentParser
@@ -140,7 +148,7 @@ public class PdfContentParser {
             if (tokeniser.getTokenType() != PRTokeniser.TK_NAME) {
                 throw new IOException(MessageLocalization.getComposedMessage("dictionary.key.is.not.a.name"));
             }
-            PdfName name = new PdfName(tokeniser.getStringValue(), false);
+            PdfName name = tokeniser.nameValue(true);
             PdfObject obj = readPRObject();
             int type = obj.type();
             if (-type == PRTokeniser.TK_END_DIC) {
@@ -198,16 +206,51 @@ public class PdfContentParser {
                 PdfString str = new PdfString(tokeniser.getStringValue(), null).setHexWriting(tokeniser.isHexString());
                 return str;
             case PRTokeniser.TK_NAME:
-                return new PdfName(tokeniser.getStringValue(), false);
+                return tokeniser.nameValue(true);
             case PRTokeniser.TK_NUMBER:
-                return new PdfNumber(tokeniser.getStringValue());
+                return tokeniser.numberValue();
             case PRTokeniser.TK_OTHER:
-                return new PdfLiteral(COMMAND_TYPE, tokeniser.getStringValue());
+                return readOperator();
             default:
                 return new PdfLiteral(-type, tokeniser.getStringValue());
         }
     }
 
+    private PdfLiteral readOperator() {
+        int code = getOperatorCode(tokeniser.getTokenBytes(), tokeniser.getTokenLength());
+        if (code < 0) {
+            return new PdfLiteral(COMMAND_TYPE, tokeniser.getStringValue());
+        }
+        int slot = (code ^ code >>> 7 ^ code >>> 15) & (OPERATOR_CACHE_SIZE - 1);
+        PdfLiteral operator = operators[slot];
+        if (operator == null || operatorCodes[slot] != code) {
+            operator = new PdfLiteral(COMMAND_TYPE, tokeniser.getStringValue());
+            operators[slot] = operator;
+            operatorCodes[slot] = code;
+        }
+        return operator;
+    }
+
+    /**
+     * Packs the bytes of an operator of up to three bytes, which all operators defined by PDF are, into an
+     * <CODE>int</CODE>. Operators can then be compared and looked up without making a <CODE>String</CODE> of them.
+     *
+     * @param bytes  the bytes of the operator
+     * @param length the number of bytes
+     * @return the code of the operator, or -1 if it is empty or longer than three bytes
+     * @since 3.0.1
+     */
+    public static int getOperatorCode(byte[] bytes, int length) {
+        if (length < 1 || length > 3) {
+            return -1;
+        }
+        int code = length << 24;
+        for (int k = 0; k < length; ++k) {
+            code |= (bytes[k] & 0xff) << (k << 3);
+        }
+        return code;
+    }
+
     /**
      * Reads the next token skipping over the comments.
      *
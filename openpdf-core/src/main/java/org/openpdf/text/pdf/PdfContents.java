@@ -52,7 +52,9 @@ package org.openpdf.text.pdf;
 import org.openpdf.text.DocWriter;
 import org.openpdf.text.Document;
 import org.openpdf.text.Rectangle;
+import org.openpdf.text.error_messages.MessageLocalization;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
@@ -70,6 +72,14 @@ class PdfContents extends PdfStream {
     static final byte[] ROTATE180 = DocWriter.getISOBytes("-1 0 0 -1 ");
     static final byte[] ROTATE270 = DocWriter.getISOBytes("0 -1 1 0 ");
     static final byte[] ROTATEFINAL = DocWriter.getISOBytes(" cm\n");
+
+    /**
+     * The canvases written by {@link #toPdf(PdfWriter, OutputStream)} when the content is streamed, in the order
+     * under, content, text, secondContent; <CODE>null</CODE> when the content is held in <CODE>streamBytes</CODE>.
+     */
+    private PdfContentByte[] streamedParts;
+    private Rectangle streamedPage;
+    private long streamedLength = -1;
     // constructor
 
     /**
@@ -85,63 +95,38 @@ class PdfContents extends PdfStream {
     PdfContents(PdfContentByte under, PdfContentByte content, PdfContentByte text, PdfContentByte secondContent,
             Rectangle page) throws BadPdfFormatException {
         super();
+        PdfWriter writer = under.getPdfWriter();
+        // with a compression executor the writer compresses the finished page on a worker thread
+        boolean deferCompression = Document.compress && writer.getCompressionExecutor() != null;
+        if (Document.compress && !deferCompression && writer.isStreamPageContents()) {
+            // the canvases are only read while the writer adds this object, before the next page resets them
+            compressed = true;
+            compressionLevel = writer.getCompressionLevel();
+            streamedParts = new PdfContentByte[]{under, content, text, secondContent};
+            streamedPage = page;
+            ref = writer.getPdfIndirectReference();
+            put(PdfName.LENGTH, ref);
+            put(PdfName.FILTER, PdfName.FLATEDECODE);
+            return;
+        }
         try {
             OutputStream out = null;
             Deflater deflater = null;
-            streamBytes = new ByteArrayOutputStream();
-            if (Document.compress) {
+            int size = under.size() + content.size() + (text == null ? 0 : text.size()) + secondContent.size();
+            if (Document.compress && !deferCompression) {
                 compressed = true;
-                compressionLevel = text.getPdfWriter().getCompressionLevel();
-                deflater = new Deflater(compressionLevel);
+                compressionLevel = writer.getCompressionLevel();
+                deflater = FlateCodec.acquireDeflater(compressionLevel);
+                streamBytes = new ByteArrayOutputStream(size / 4 + 64);
                 out = new DeflaterOutputStream(streamBytes, deflater);
             } else {
+                streamBytes = new ByteArrayOutputStream(size + 64);
                 out = streamBytes;
             }
-            int rotation = page.getRotation();
-            switch (rotation) {
-                case 90:
-                    out.write(ROTATE90);
-                    out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getTop())));
-                    out.write(' ');
-                    out.write('0');
-                    out.write(ROTATEFINAL);
-                    break;
-                case 180:
-                    out.write(ROTATE180);
-                    out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getRight())));
-                    out.write(' ');
-                    out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getTop())));
-                    out.write(ROTATEFINAL);
-                    break;
-                case 270:
-                    out.write(ROTATE270);
-                    out.write('0');
-                    out.write(' ');
-                    out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getRight())));
-                    out.write(ROTATEFINAL);
-                    break;
-            }
-            if (under.size() > 0) {
-                out.write(SAVESTATE);
-                under.getInternalBuffer().writeTo(out);
-                out.write(RESTORESTATE);
-            }
-            if (content.size() > 0) {
-                out.write(SAVESTATE);
-                content.getInternalBuffer().writeTo(out);
-                out.write(RESTORESTATE);
-            }
-            if (text != null) {
-                out.write(SAVESTATE);
-                text.getInternalBuffer().writeTo(out);
-                out.write(RESTORESTATE);
-            }
-            if (secondContent.size() > 0) {
-                secondContent.getInternalBuffer().writeTo(out);
-            }
+            writeContent(out, under, content, text, secondContent, page);
             out.close();
             if (deflater != null) {
-                deflater.end();
+                FlateCodec.releaseDeflater(deflater);
             }
         } catch (Exception e) {
             throw new BadPdfFormatException(e.getMessage());
@@ -149,6 +134,117 @@ class PdfContents extends PdfStream {
         put(PdfName.LENGTH, new PdfNumber(streamBytes.size()));
         if (compressed) {
             put(PdfName.FILTER, PdfName.FLATEDECODE);
+        } else if (Document.compress) {
+            deferFlateCompress(writer.getCompressionLevel());
+        }
+    }
+
+    private static void writeContent(OutputStream out, PdfContentByte under, PdfContentByte content,
+            PdfContentByte text, PdfContentByte secondContent, Rectangle page) throws IOException {
+        int rotation = page.getRotation();
+        switch (rotation) {
+            case 90:
+                out.write(ROTATE90);
+                out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getTop())));
+                out.write(' ');
+                out.write('0');
+                out.write(ROTATEFINAL);
+                break;
+            case 180:
+                out.write(ROTATE180);
+                out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getRight())));
+                out.write(' ');
+                out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getTop())));
+                out.write(ROTATEFINAL);
+                break;
+            case 270:
+                out.write(ROTATE270);
+                out.write('0');
+                out.write(' ');
+                out.write(DocWriter.getISOBytes(ByteBuffer.formatDouble(page.getRight())));
+                out.write(ROTATEFINAL);
+                break;
+        }
+        if (under.size() > 0) {
+            out.write(SAVESTATE);
+            under.getInternalBuffer().writeTo(out);
+            out.write(RESTORESTATE);
+        }
+        if (content.size() > 0) {
+            out.write(SAVESTATE);
+            content.getInternalBuffer().writeTo(out);
+            out.write(RESTORESTATE);
+        }
+        if (text != null) {
+            out.write(SAVESTATE);
+            text.getInternalBuffer().writeTo(out);
+            out.write(RESTORESTATE);
+        }
+        if (secondContent.size() > 0) {
+            secondContent.getInternalBuffer().writeTo(out);
+        }
+    }
+
+    /**
+     * Checks if the content is deflated straight into the output, in which case {@link #writeLength()} must be
+     * called once the writer has added this object.
+     *
+     * @return <CODE>true</CODE> if the content is streamed
+     */
+    boolean isStreamed() {
+        return streamedParts != null;
+    }
+
+    /**
+     * Writes the length of a streamed content as an indirect object.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void writeLength() throws IOException {
+        if (streamedParts == null) {
+            super.writeLength();
+            return;
+        }
+        if (streamedLength == -1) {
+            throw new IOException(MessageLocalization.getComposedMessage(
+                    "writelength.can.only.be.called.after.output.of.the.stream.body"));
+        }
+        writer.addToBody(new PdfNumber(streamedLength), ref, false);
+        // the canvases belong to the next page from now on
+        streamedParts = null;
+        streamedPage = null;
+    }
+
+    @Override
+    public void toPdf(PdfWriter writer, OutputStream os) throws IOException {
+        if (streamedParts == null) {
+            super.toPdf(writer, os);
+            return;
+        }
+        this.writer = writer;
+        PdfEncryption crypto = writer == null ? null : writer.getEncryption();
+        superToPdf(writer, os);
+        os.write(STARTSTREAM);
+        OutputStreamCounter osc = new OutputStreamCounter(os);
+        OutputStreamEncryption ose = null;
+        OutputStream fout = osc;
+        if (crypto != null && !crypto.isEmbeddedFilesOnly()) {
+            fout = ose = crypto.getEncryptionStream(fout);
+        }
+        Deflater deflater = FlateCodec.acquireDeflater(compressionLevel);
+        try {
+            DeflaterOutputStream def = new DeflaterOutputStream(fout, deflater, 0x8000);
+            writeContent(def, streamedParts[0], streamedParts[1], streamedParts[2], streamedParts[3], streamedPage);
+            def.finish();
+            rawLength = deflater.getBytesRead();
+        } finally {
+            FlateCodec.releaseDeflater(deflater);
+        }
+        if (ose != null) {
+            ose.finish();
         }
+        streamedLength = osc.getCounter();
+        os.write(ENDSTREAM);
     }
 }
@@ -67,8 +67,8 @@ import java.util.Map;
 
 public class PdfCopy extends PdfWriter {
 
-    protected HashMap<RefKey, IndirectReferences> indirects;
-    protected HashMap<PdfReader, HashMap<RefKey, IndirectReferences>> indirectMap;
+    private IndirectReferenceTable indirects;
+    private final HashMap<PdfReader, IndirectReferenceTable> indirectMap;
     protected PdfReader reader;
     protected PdfIndirectReference acroForm;
     protected int[] namePtr = {0};
@@ -147,18 +147,16 @@ public class PdfCopy extends PdfWriter {
      * @throws BadPdfFormatException on error with the Pdf format
      */
     protected PdfIndirectReference copyIndirect(PRIndirectReference in) throws IOException, BadPdfFormatException {
-        PdfIndirectReference theRef;
-        RefKey key = new RefKey(in);
-        IndirectReferences iRef = indirects.get(key);
-        if (iRef != null) {
-            theRef = iRef.getRef();
-            if (iRef.getCopied()) {
+        int num = in.getNumber();
+        int gen = in.getGeneration();
+        PdfIndirectReference theRef = indirects.get(num, gen);
+        if (theRef != null) {
+            if (indirects.isCopied(num, gen)) {
                 return theRef;
             }
         } else {
             theRef = body.getPdfIndirectReference();
-            iRef = new IndirectReferences(theRef);
-            indirects.put(key, iRef);
+            indirects.put(num, gen, theRef);
         }
         PdfObject obj = PdfReader.getPdfObjectRelease(in);
         if (obj != null && obj.isDictionary()) {
@@ -167,7 +165,7 @@ public class PdfCopy extends PdfWriter {
                 return theRef;
             }
         }
-        iRef.setCopied();
+        indirects.setCopied(num, gen);
         obj = copyObject(obj);
         addToBody(obj, theRef);
         return theRef;
@@ -305,7 +303,7 @@ public class PdfCopy extends PdfWriter {
         this.reader = reader;
         indirects = indirectMap.get(reader);
         if (indirects == null) {
-            indirects = new HashMap<>();
+            indirects = new IndirectReferenceTable();
             indirectMap.put(reader, indirects);
             PdfDictionary catalog = reader.getCatalog();
             PRIndirectReference ref;
@@ -317,7 +315,7 @@ public class PdfCopy extends PdfWriter {
             if (acroForm == null) {
                 acroForm = body.getPdfIndirectReference();
             }
-            indirects.put(new RefKey(ref), new IndirectReferences(acroForm));
+            indirects.put(ref.getNumber(), ref.getGeneration(), acroForm);
         }
     }
 
@@ -334,19 +332,18 @@ public class PdfCopy extends PdfWriter {
         PdfDictionary thePage = reader.getPageN(pageNum);
         PRIndirectReference origRef = reader.getPageOrigRef(pageNum);
         reader.releasePage(pageNum);
-        RefKey key = new RefKey(origRef);
-        PdfIndirectReference pageRef;
-        IndirectReferences iRef = indirects.get(key);
-        if (iRef != null && !iRef.getCopied()) {
-            pageReferences.add(iRef.getRef());
-            iRef.setCopied();
-        }
-        pageRef = getCurrentPage();
-        if (iRef == null) {
-            iRef = new IndirectReferences(pageRef);
-            indirects.put(key, iRef);
-        }
-        iRef.setCopied();
+        int num = origRef.getNumber();
+        int gen = origRef.getGeneration();
+        PdfIndirectReference myRef = indirects.get(num, gen);
+        if (myRef != null && !indirects.isCopied(num, gen)) {
+            pageReferences.add(myRef);
+            indirects.setCopied(num, gen);
+        }
+        PdfIndirectReference pageRef = getCurrentPage();
+        if (myRef == null) {
+            indirects.put(num, gen, pageRef);
+        }
+        indirects.setCopied(num, gen);
         PdfDictionary newPage = copyDictionary(thePage);
         root.addPage(newPage);
         ++currentPageNumber;
@@ -388,18 +385,17 @@ public class PdfCopy extends PdfWriter {
         if (hisRef == null) {
             return; // bugfix by John Englar
         }
-        RefKey key = new RefKey(hisRef);
-        PdfIndirectReference myRef;
-        IndirectReferences iRef = indirects.get(key);
-        if (iRef != null) {
-            acroForm = myRef = iRef.getRef();
+        int num = hisRef.getNumber();
+        int gen = hisRef.getGeneration();
+        PdfIndirectReference myRef = indirects.get(num, gen);
+        if (myRef != null) {
+            acroForm = myRef;
         } else {
             acroForm = myRef = body.getPdfIndirectReference();
-            iRef = new IndirectReferences(myRef);
-            indirects.put(key, iRef);
+            indirects.put(num, gen, myRef);
         }
-        if (!iRef.getCopied()) {
-            iRef.setCopied();
+        if (!indirects.isCopied(num, gen)) {
+            indirects.setCopied(num, gen);
             PdfDictionary theForm = copyDictionary((PdfDictionary) PdfReader.getPdfObject(hisRef));
             addToBody(theForm, myRef);
         }
@@ -489,8 +485,32 @@ public class PdfCopy extends PdfWriter {
         }
     }
 
+    /**
+     * Returns the references of the objects of the current reader that were translated so far.
+     *
+     * @return the table of the current reader
+     */
+    IndirectReferenceTable getIndirects() {
+        return indirects;
+    }
+
+    /**
+     * Releases everything kept for a reader whose pages have all been added. Only the objects of the readers still
+     * being copied stay in memory, so the memory used when merging many documents depends on the largest one and not
+     * on their total. Pages of this reader used as templates are written now.
+     *
+     * @param reader the reader that will not be copied from anymore
+     * @throws IOException on error
+     */
     public void freeReader(PdfReader reader) throws IOException {
+        PdfReaderInstance current = currentPdfReaderInstance;
+        super.freeReader(reader);
+        currentPdfReaderInstance = current;
         indirectMap.remove(reader);
+        if (this.reader == reader) {
+            this.reader = null;
+            indirects = null;
+        }
         if (currentPdfReaderInstance != null) {
             if (currentPdfReaderInstance.getReader() == reader) {
                 try {
@@ -534,35 +554,12 @@ public class PdfCopy extends PdfWriter {
         return new PageStamp(reader, pageN, this);
     }
 
-    /**
-     * This class holds information about indirect references, since they are renumbered by iText.
-     */
-    static class IndirectReferences {
-
-        PdfIndirectReference theRef;
-        boolean hasCopied;
-
-        IndirectReferences(PdfIndirectReference ref) {
-            theRef = ref;
-            hasCopied = false;
-        }
-
-        void setCopied() {
-            hasCopied = true;
-        }
-
-        boolean getCopied() {
-            return hasCopied;
-        }
-
-        PdfIndirectReference getRef() {
-            return theRef;
-        }
-    }
-
     /**
      * A key to allow us to hash indirect references
+     *
+     * @deprecated no longer used, the translated references are kept in a table of primitive keys
      */
+    @Deprecated
     protected static class RefKey {
 
         int num;
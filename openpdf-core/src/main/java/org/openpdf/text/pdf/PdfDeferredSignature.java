@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+
+package org.openpdf.text.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.openpdf.text.error_messages.MessageLocalization;
+
+/**
+ * A signed document waiting for its signature. It is returned by {@link PdfSignatureAppearance#closeDeferred()} and
+ * only holds the place of the <CODE>/Contents</CODE> hole in the file, so many documents can wait for a slow or remote
+ * signer without keeping them in memory. It can also be made again from stored values in another process.
+ * <pre>
+ * PdfStamper stp = PdfStamper.createSignature(reader, null, null, file, true, "SHA-256");
+ * PdfSignatureAppearance sap = stp.getSignatureAppearance();
+ * sap.setCryptoDictionary(dic);
+ * sap.preClose(exclusionSizes);
+ * PdfDeferredSignature deferred = sap.closeDeferred();
+ * // later, maybe in another thread
+ * deferred.inject(signer.sign(deferred.getRangeDigest()));
+ * </pre>
+ *
+ * @since 3.0.1
+ */
+public class PdfDeferredSignature {
+
+    private final File file;
+    private final long contentsPosition;
+    private final int contentsLength;
+    private final long[] byteRange;
+    private final byte[] rangeDigest;
+
+    /**
+     * Creates a deferred signature.
+     *
+     * @param file             the prepared document
+     * @param contentsPosition the position of the <CODE>/Contents</CODE> hole in the file
+     * @param contentsLength   the length of the hole, including the <CODE>&lt;&gt;</CODE> delimiters
+     * @param byteRange        the <CODE>/ByteRange</CODE> written in the document
+     * @param rangeDigest      the digest of the byte ranges or <CODE>null</CODE> if it wasn't computed
+     */
+    public PdfDeferredSignature(File file, long contentsPosition, int contentsLength, long[] byteRange,
+            byte[] rangeDigest) {
+        this.file = file;
+        this.contentsPosition = contentsPosition;
+        this.contentsLength = contentsLength;
+        this.byteRange = byteRange;
+        this.rangeDigest = rangeDigest;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getContentsPosition() {
+        return contentsPosition;
+    }
+
+    public int getContentsLength() {
+        return contentsLength;
+    }
+
+    public long[] getByteRange() {
+        return byteRange.clone();
+    }
+
+    public byte[] getRangeDigest() {
+        return rangeDigest == null ? null : rangeDigest.clone();
+    }
+
+    /**
+     * Gets the largest signature that fits in the <CODE>/Contents</CODE> hole.
+     *
+     * @return the number of bytes
+     */
+    public int getMaxSignatureLength() {
+        return (contentsLength - 2) / 2;
+    }
+
+    /**
+     * Writes the signature into the <CODE>/Contents</CODE> hole of the document. The rest is padded with zeros.
+     *
+     * @param signature the encoded signature, like a PKCS#7 container
+     * @throws IOException on error
+     */
+    public void inject(byte[] signature) throws IOException {
+        int max = getMaxSignatureLength();
+        if (signature.length > max) {
+            throw new IllegalArgumentException(
+                    MessageLocalization.getComposedMessage("the.key.1.is.too.big.is.2.reserved.3",
+                            PdfName.CONTENTS.toString(), String.valueOf(signature.length * 2 + 2),
+                            String.valueOf(contentsLength)));
+        }
+        byte[] padded = new byte[max];
+        System.arraycopy(signature, 0, padded, 0, signature.length);
+        PdfString str = new PdfString(padded);
+        str.setHexWriting(true);
+        ByteBuffer bf = new ByteBuffer(contentsLength);
+        str.toPdf(null, bf);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(contentsPosition);
+            raf.write(bf.getBuffer(), 0, bf.size());
+        }
+    }
+}
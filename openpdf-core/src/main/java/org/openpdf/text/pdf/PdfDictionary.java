@@ -51,7 +51,6 @@ package org.openpdf.text.pdf;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -119,7 +118,7 @@ public class PdfDictionary extends PdfObject {
      */
     public PdfDictionary() {
         super(DICTIONARY);
-        hashMap = new HashMap<>();
+        hashMap = new CompactMap<>();
     }
 
     /**
@@ -146,7 +145,7 @@ public class PdfDictionary extends PdfObject {
     public void toPdf(PdfWriter writer, OutputStream os) throws IOException {
         os.write('<');
         os.write('<');
-        // loop over all the object-pairs in the HashMap
+        // loop over all the object-pairs in the map
         for (PdfName pdfName : hashMap.keySet()) {
             PdfObject value = hashMap.get(pdfName);
             pdfName.toPdf(writer, os);
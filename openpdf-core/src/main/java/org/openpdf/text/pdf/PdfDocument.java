@@ -111,6 +111,10 @@ public class PdfDocument extends Document {
      * The characters to be applied the hanging punctuation.
      */
     static final String hangingPunctuation = ".,;:'";
+    /**
+     * The largest page content buffer kept for the next page, larger ones are left to the garbage collector.
+     */
+    private static final int MAX_SPARE_BUFFER_SIZE = 16 * 1024 * 1024;
 
 // CONSTRUCTING A PdfDocument/PdfWriter INSTANCE
     /**
@@ -125,6 +129,11 @@ public class PdfDocument extends Document {
      * This is the PdfContentByte object, containing the borders and other Graphics.
      */
     protected PdfContentByte graphics;
+    /**
+     * The content buffers of the last page written, reused by the next page instead of growing new ones.
+     */
+    private ByteBuffer spareGraphicsBuffer;
+    private ByteBuffer spareTextBuffer;
 
 // LISTENER METHODS START
 
@@ -984,6 +993,7 @@ public class PdfDocument extends Document {
                 page.put(PdfName.STRUCTPARENTS, new PdfNumber(pageIdValue));
             }
 
+            PdfContentByte pageText = text;
             if (text.size() > textEmptySize) {
                 text.endText();
             } else {
@@ -991,6 +1001,9 @@ public class PdfDocument extends Document {
             }
             writer.add(page, new PdfContents(writer.getDirectContentUnder(), graphics, text, writer.getDirectContent(),
                     pageSize));
+            // the page content has been written out, its buffers can take the next page
+            spareGraphicsBuffer = getSpareBuffer(graphics);
+            spareTextBuffer = getSpareBuffer(pageText);
             // we initialize the new page
             initPage();
         } catch (DocumentException | IOException de) {
@@ -1125,8 +1138,14 @@ public class PdfDocument extends Document {
 
 //    [C4] Page labels
 
+    private static ByteBuffer getSpareBuffer(PdfContentByte cb) {
+        ByteBuffer buffer = cb.getInternalBuffer();
+        return buffer.getBuffer().length > MAX_SPARE_BUFFER_SIZE ? null : buffer;
+    }
+
     private void resetText(boolean move) {
-        text = new PdfContentByte(writer);
+        text = new PdfContentByte(writer, spareTextBuffer);
+        spareTextBuffer = null;
         text.reset();
         text.beginText();
         textEmptySize = text.size();
@@ -1151,7 +1170,8 @@ public class PdfDocument extends Document {
         pageResources = new PageResources();
 
         writer.resetContent();
-        graphics = new PdfContentByte(writer);
+        graphics = new PdfContentByte(writer, spareGraphicsBuffer);
+        spareGraphicsBuffer = null;
         resetText(false);
 
         markPoint = 0;
@@ -142,7 +142,7 @@ public class PdfEFStream extends PdfStream {
             }
             Deflater deflater = null;
             if (compressed) {
-                deflater = new Deflater(compressionLevel);
+                deflater = FlateCodec.acquireDeflater(compressionLevel);
                 fout = def = new DeflaterOutputStream(fout, deflater, 0x8000);
             }
 
@@ -157,7 +157,7 @@ public class PdfEFStream extends PdfStream {
             }
             if (def != null) {
                 def.finish();
-                deflater.end();
+                FlateCodec.releaseDeflater(deflater);
             }
             if (ose != null) {
                 ose.finish();
@@ -171,13 +171,13 @@ public class PdfEFStream extends PdfStream {
                     os.write(bytes);
                 }
             } else {
-                byte[] b;
+                OutputStreamEncryption ose = crypto.getEncryptionStream(os);
                 if (streamBytes != null) {
-                    b = crypto.encryptByteArray(streamBytes.toByteArray());
+                    streamBytes.writeTo(ose);
                 } else {
-                    b = crypto.encryptByteArray(bytes);
+                    ose.write(bytes);
                 }
-                os.write(b);
+                ose.finish();
             }
         }
         os.write(ENDSTREAM);
@@ -51,9 +51,9 @@ package org.openpdf.text.pdf;
 
 import org.openpdf.text.ExceptionConverter;
 import org.openpdf.text.error_messages.MessageLocalization;
+import org.openpdf.text.pdf.crypto.AESCipher;
 import org.openpdf.text.pdf.crypto.ARCFOUREncryption;
 import org.openpdf.text.pdf.crypto.IVGenerator;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
@@ -154,6 +154,19 @@ public class PdfEncryption {
 
     private int cryptoMode;
 
+    /**
+     * The global key, revision and object the current {@link #key} was computed for
+     */
+    private byte[] hashKeyMkey;
+    private int hashKeyRevision;
+    private int hashKeyNumber;
+    private int hashKeyGeneration;
+
+    /**
+     * The AES cipher reused for strings and byte arrays, created when first needed
+     */
+    private Cipher aesCipher;
+
     public PdfEncryption() {
         try {
             md5 = MessageDigest.getInstance("MD5");
@@ -548,6 +561,10 @@ public class PdfEncryption {
         if (revision >= AES_256_V3) {
             return;
         }
+        if (hashKeyMkey == mkey && hashKeyRevision == revision && hashKeyNumber == number
+                && hashKeyGeneration == generation) {
+            return;
+        }
 
         md5.reset(); // added by ujihara
         extra[0] = (byte) number;
@@ -565,6 +582,10 @@ public class PdfEncryption {
         if (keySize > 16) {
             keySize = 16;
         }
+        hashKeyMkey = mkey;
+        hashKeyRevision = revision;
+        hashKeyNumber = number;
+        hashKeyGeneration = generation;
     }
 
     public PdfDictionary getEncryptionDictionary() {
@@ -730,15 +751,20 @@ public class PdfEncryption {
     }
 
     public byte[] encryptByteArray(byte[] b) {
-        try {
-            ByteArrayOutputStream ba = new ByteArrayOutputStream();
-            OutputStreamEncryption os2 = getEncryptionStream(ba);
-            os2.write(b);
-            os2.finish();
-            return ba.toByteArray();
-        } catch (IOException ex) {
-            throw new ExceptionConverter(ex);
+        if (isAes()) {
+            byte[] iv = IVGenerator.getIV();
+            byte[] out = new byte[calculateStreamSize(b.length)];
+            AESCipher cipher = new AESCipher(aesCipher(), true, aesKey(), iv);
+            // the same output as OutputStreamEncryption, which starts with the encrypted IV
+            int n = cipher.update(iv, 0, iv.length, out, 0);
+            n += cipher.update(b, 0, b.length, out, n);
+            cipher.doFinal(out, n);
+            return out;
         }
+        byte[] out = new byte[b.length];
+        arcfour.prepareARCFOURKey(key, 0, keySize);
+        arcfour.encryptARCFOUR(b, out);
+        return out;
     }
 
     public StandardDecryption getDecryptor() {
@@ -746,21 +772,38 @@ public class PdfEncryption {
     }
 
     public byte[] decryptByteArray(byte[] b) {
-        try {
-            ByteArrayOutputStream ba = new ByteArrayOutputStream();
-            StandardDecryption dec = getDecryptor();
-            byte[] b2 = dec.update(b, 0, b.length);
-            if (b2 != null) {
-                ba.write(b2);
+        if (isAes()) {
+            if (b.length <= 16) {
+                return new byte[0];
             }
-            b2 = dec.finish();
-            if (b2 != null) {
-                ba.write(b2);
-            }
-            return ba.toByteArray();
-        } catch (IOException ex) {
-            throw new ExceptionConverter(ex);
+            AESCipher cipher = new AESCipher(aesCipher(), false, aesKey(), Arrays.copyOf(b, 16));
+            byte[] out = new byte[b.length - 16];
+            int n = cipher.update(b, 16, out.length, out, 0);
+            n += cipher.doFinal(out, n);
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+        byte[] out = new byte[b.length];
+        arcfour.prepareARCFOURKey(key, 0, keySize);
+        arcfour.encryptARCFOUR(b, out);
+        return out;
+    }
+
+    private boolean isAes() {
+        return revision == AES_128 || revision == AES_256_V3;
+    }
+
+    private byte[] aesKey() {
+        return keySize == key.length ? key : Arrays.copyOf(key, keySize);
+    }
+
+    /**
+     * Gets the reused <CODE>AES/CBC/NoPadding</CODE> cipher. It's only used within a single call.
+     */
+    private Cipher aesCipher() {
+        if (aesCipher == null) {
+            aesCipher = AESCipher.newCipher();
         }
+        return aesCipher;
     }
 
     public void addRecipient(Certificate cert, int permission) {
@@ -800,7 +843,7 @@ public class PdfEncryption {
     public void setupByOwnerPassword(byte[] documentID, byte[] ownerPassword,
             byte[] uValue, byte[] ueValue, byte[] oValue, byte[] oeValue, int permissions)
             throws GeneralSecurityException {
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         byte[] hashAlg2B = hashAlg2B(ownerPassword, Arrays.copyOfRange(oValue, 40, 48), uValue);
         cipher.init(Cipher.DECRYPT_MODE,
@@ -821,7 +864,7 @@ public class PdfEncryption {
     public void setupByUserPassword(byte[] documentID, byte[] userPassword,
             byte[] uValue, byte[] ueValue, byte[] oValue, byte[] oeValue, int permissions)
             throws GeneralSecurityException {
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         byte[] hashAlg2B = hashAlg2B(userPassword, Arrays.copyOfRange(uValue, 40, 48), null);
         cipher.init(Cipher.DECRYPT_MODE,
@@ -840,7 +883,7 @@ public class PdfEncryption {
      * decrypt it (revision 6 and later) - ISO 32000-2 section 7.6.4.3.3
      */
     public boolean decryptAndCheckPerms(byte[] permsValue) throws GeneralSecurityException {
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         cipher.init(Cipher.DECRYPT_MODE,
                 new SecretKeySpec(key, "AES"),
@@ -861,7 +904,7 @@ public class PdfEncryption {
         final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
         final MessageDigest sha384 = MessageDigest.getInstance("SHA-384");
         final MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         if (userKey == null) {
             userKey = new byte[0];
@@ -909,7 +952,7 @@ public class PdfEncryption {
      * (Security handlers of revision 6) - ISO 32000-2 section 7.6.4.4.7
      */
     void computeUAndUeAlg8(byte[] userPassword) throws GeneralSecurityException {
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         if (userPassword == null) {
             userPassword = new byte[0];
@@ -936,7 +979,7 @@ public class PdfEncryption {
      * (Security handlers of revision 6) - ISO 32000-2 section 7.6.4.4.8
      */
     void computeOAndOeAlg9(byte[] ownerPassword) throws GeneralSecurityException {
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         if (ownerPassword == null) {
             ownerPassword = new byte[0];
@@ -963,7 +1006,7 @@ public class PdfEncryption {
      * revision 6) - ISO 32000-2 section 7.6.4.4.9
      */
     void computePermsAlg10(int permissions) throws GeneralSecurityException {
-        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        final Cipher cipher = aesCipher();
 
         byte[] rawPerms = new byte[16];
         rawPerms[0] = (byte) (permissions & 0xff);
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+
+package org.openpdf.text.pdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.openpdf.text.DocumentException;
+import org.openpdf.text.error_messages.MessageLocalization;
+
+/**
+ * A form that is filled many times with different values. The template is parsed once, in partial mode, and each fill
+ * works on a light view of it (see {@link PdfReader#createView()}), so the xref table and the file data are shared
+ * instead of read again. The field appearances built by one fill are cached and reused by the next ones, as
+ * {@link AcroFields#setFieldCacheMap(Map)} does, with one cache per concurrent fill.
+ * <p>
+ * A template is immutable and can be filled by several threads at the same time:
+ * <pre>
+ * PdfFormTemplate template = PdfFormTemplate.compile(Files.readAllBytes(path));
+ * template.fill(Map.of("name", "Jane Doe", "date", "2026-10-18"), out);
+ * </pre>
+ *
+ * @since 3.0.1
+ */
+public final class PdfFormTemplate implements Closeable {
+
+    private final PdfReader template;
+    private final Map<String, Integer> fieldTypes;
+    private final Queue<Map<String, BaseField>> appearanceCaches = new ConcurrentLinkedQueue<>();
+
+    private PdfFormTemplate(PdfReader template) {
+        this.template = template;
+        Map<String, Integer> types = new LinkedHashMap<>();
+        try (PdfReader view = template.createView()) {
+            AcroFields af = view.getAcroFields();
+            for (String name : af.getAllFields().keySet()) {
+                types.put(name, af.getFieldType(name));
+            }
+        }
+        fieldTypes = Collections.unmodifiableMap(types);
+    }
+
+    /**
+     * Compiles a template from a PDF in memory.
+     *
+     * @param pdf the PDF with the form
+     * @return the template
+     * @throws IOException on error
+     */
+    public static PdfFormTemplate compile(byte[] pdf) throws IOException {
+        return new PdfFormTemplate(new PdfReader(new RandomAccessFileOrArray(pdf), null));
+    }
+
+    /**
+     * Compiles a template from a PDF file. The file is memory mapped and must not change while the template is used.
+     *
+     * @param filename the PDF with the form
+     * @return the template
+     * @throws IOException on error
+     */
+    public static PdfFormTemplate compile(String filename) throws IOException {
+        return new PdfFormTemplate(new PdfReader(new RandomAccessFileOrArray(filename), null));
+    }
+
+    /**
+     * Gets the fully qualified names of the fields of the form.
+     *
+     * @return the field names, in the order of the form
+     */
+    public Set<String> getFieldNames() {
+        return fieldTypes.keySet();
+    }
+
+    /**
+     * Gets the type of a field.
+     *
+     * @param name the field name
+     * @return one of the <CODE>AcroFields.FIELD_TYPE_</CODE> constants
+     */
+    public int getFieldType(String name) {
+        Integer type = fieldTypes.get(name);
+        return type == null ? AcroFields.FIELD_TYPE_NONE : type;
+    }
+
+    /**
+     * Fills the form as an incremental update of the template. Only the changed fields and their appearances are
+     * written after the bytes of the template.
+     *
+     * @param values the values by field name
+     * @param os     the output stream, which is closed
+     * @throws IOException       on error
+     * @throws DocumentException on error
+     */
+    public void fill(Map<String, String> values, OutputStream os) throws IOException, DocumentException {
+        fill(values, os, true);
+    }
+
+    /**
+     * Fills the form.
+     *
+     * @param values the values by field name
+     * @param os     the output stream, which is closed
+     * @param append <CODE>true</CODE> to write an incremental update of the template, <CODE>false</CODE> to write the
+     *               whole document again
+     * @throws IOException       on error
+     * @throws DocumentException on error
+     */
+    public void fill(Map<String, String> values, OutputStream os, boolean append)
+            throws IOException, DocumentException {
+        for (String name : values.keySet()) {
+            if (!fieldTypes.containsKey(name)) {
+                throw new IllegalArgumentException(
+                        MessageLocalization.getComposedMessage("the.field.1.does.not.exist", name));
+            }
+        }
+        Map<String, BaseField> cache = appearanceCaches.poll();
+        if (cache == null) {
+            cache = new HashMap<>();
+        }
+        try (PdfReader reader = template.createView()) {
+            PdfStamper stamper = new PdfStamper(reader, os, null, append);
+            AcroFields af = stamper.getAcroFields();
+            af.setFieldCacheMap(cache);
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                af.setField(entry.getKey(), entry.getValue());
+            }
+            stamper.close();
+        } finally {
+            appearanceCaches.offer(cache);
+        }
+    }
+
+    /**
+     * Closes the template file.
+     */
+    @Override
+    public void close() {
+        template.close();
+    }
+}
@@ -82,6 +82,20 @@ public class PdfImage extends PdfStream {
      */
 
     public PdfImage(Image image, String name, PdfIndirectReference maskRef) throws BadPdfFormatException {
+        this(image, name, maskRef, false);
+    }
+
+    /**
+     * Constructs a <CODE>PdfImage</CODE>-object whose raw image data may be compressed later by the writer.
+     *
+     * @param image            the <CODE>Image</CODE>-object
+     * @param name             the <CODE>PdfName</CODE> for this image
+     * @param maskRef          the <CODE>PdfIndirectReference</CODE>
+     * @param deferCompression <CODE>true</CODE> to leave the compression of raw image data to the writer
+     * @throws BadPdfFormatException on error
+     */
+    PdfImage(Image image, String name, PdfIndirectReference maskRef, boolean deferCompression)
+            throws BadPdfFormatException {
         super();
         this.name = new PdfName(name);
         put(PdfName.TYPE, PdfName.XOBJECT);
@@ -182,6 +196,8 @@ public class PdfImage extends PdfStream {
                     put(PdfName.BITSPERCOMPONENT, new PdfNumber(image.getBpc()));
                     if (image.isDeflated()) {
                         put(PdfName.FILTER, PdfName.FLATEDECODE);
+                    } else if (deferCompression) {
+                        deferFlateCompress(image.getCompressionLevel());
                     } else {
                         flateCompress(image.getCompressionLevel());
                     }
@@ -52,7 +52,9 @@ package org.openpdf.text.pdf;
 import org.openpdf.text.error_messages.MessageLocalization;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -3216,6 +3218,13 @@ public class PdfName extends PdfObject implements Comparable<PdfName> {
      */
     private static final ArrayList<PdfName> formfieldNames;
 
+    /**
+     * The static names in an open addressing table keyed by the bytes of the decoded name, so the parser can find them
+     * without making a <CODE>String</CODE>.
+     */
+    private static final PdfName[] staticNameTable;
+    private static final byte[][] staticNameKeys;
+
     /*
      * Use reflection to cache all the static public final names so
      * future <code>PdfName</code> additions don't have to be "added twice".
@@ -3242,6 +3251,19 @@ public class PdfName extends PdfObject implements Comparable<PdfName> {
         widgetNames = new ArrayList<>();
         formfieldNames = new ArrayList<>();
         initLists();
+
+        int capacity = Integer.highestOneBit(staticNames.size() * 4);
+        staticNameTable = new PdfName[capacity];
+        staticNameKeys = new byte[capacity][];
+        for (Map.Entry<String, PdfName> entry : staticNames.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.ISO_8859_1);
+            int slot = hashName(key, key.length) & (capacity - 1);
+            while (staticNameKeys[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            staticNameKeys[slot] = key;
+            staticNameTable[slot] = entry.getValue();
+        }
     }
 
     private int hash = 0;
@@ -3276,6 +3298,34 @@ public class PdfName extends PdfObject implements Comparable<PdfName> {
 
     // CLASS VARIABLES
 
+    private static int hashName(byte[] name, int length) {
+        int h = 0;
+        for (int k = 0; k < length; ++k) {
+            h = 31 * h + (name[k] & 0xff);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds one of the names defined as constants in this class.
+     *
+     * @param name   the decoded name, one byte per character
+     * @param length the length of the name
+     * @return the constant or <CODE>null</CODE> if there is none
+     */
+    static PdfName staticName(byte[] name, int length) {
+        int mask = staticNameTable.length - 1;
+        int slot = hashName(name, length) & mask;
+        byte[] key;
+        while ((key = staticNameKeys[slot]) != null) {
+            if (Arrays.equals(key, 0, key.length, name, 0, length)) {
+                return staticNameTable[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
     /**
      * Constructs a PdfName.
      *
@@ -3367,12 +3417,26 @@ public class PdfName extends PdfObject implements Comparable<PdfName> {
      */
     public static byte[] encodeName(String name) {
         int length = name.length();
+        byte[] b = new byte[length];
+        for (int k = 0; k < length; k++) {
+            b[k] = (byte) name.charAt(k);
+        }
+        return encodeName(b, length);
+    }
+
+    /**
+     * Encodes a name given as one byte per character, escaping the characters that need it.
+     *
+     * @param name   the name to encode
+     * @param length the length of the name
+     * @return the encoded name
+     */
+    static byte[] encodeName(byte[] name, int length) {
         ByteBuffer buf = new ByteBuffer(length + 20);
         buf.append('/');
         char c;
-        char[] chars = name.toCharArray();
         for (int k = 0; k < length; k++) {
-            c = (char) (chars[k] & 0xff);
+            c = (char) (name[k] & 0xff);
             // Escape special characters
             switch (c) {
                 case ' ':
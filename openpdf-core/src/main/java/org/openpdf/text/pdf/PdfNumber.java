@@ -89,6 +89,18 @@ public class PdfNumber extends PdfObject implements Comparable<PdfNumber> {
         }
     }
 
+    /**
+     * Constructs a <CODE>PdfNumber</CODE>-object from a parsed number, keeping its original representation.
+     *
+     * @param content the bytes of the number as they were read
+     * @param value   the value of the number
+     */
+    PdfNumber(byte[] content, double value) {
+        super(NUMBER);
+        this.value = value;
+        this.bytes = content;
+    }
+
     /**
      * Constructs a new <CODE>PdfNumber</CODE>-object of type integer.
      *
@@ -142,6 +154,15 @@ public class PdfNumber extends PdfObject implements Comparable<PdfNumber> {
         return (int) value;
     }
 
+    /**
+     * Returns the primitive <CODE>long</CODE> value of this object.
+     *
+     * @return The value as <CODE>long</CODE>
+     */
+    public long longValue() {
+        return (long) value;
+    }
+
     /**
      * Returns the primitive <CODE>double</CODE> value of this object.
      *
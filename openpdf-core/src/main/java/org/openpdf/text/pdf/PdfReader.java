@@ -65,20 +65,24 @@ import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.security.Key;
 import java.security.MessageDigest;
 import java.security.cert.Certificate;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.Stack;
-import java.util.zip.InflaterInputStream;
 
 /**
  * Reads a PDF document.
@@ -100,9 +104,9 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     // type 0 -> -1, 0
     // type 1 -> offset, 0
     // type 2 -> index, obj num
-    protected int[] xref;
+    protected long[] xref;
     protected Map<Integer, IntHashtable> objStmMark;
-    protected IntHashtable objStmToOffset;
+    protected Map<Integer, Long> objStmToOffset;
     protected boolean newXrefType;
     protected PdfDictionary trailer;
     protected PdfDictionary catalog;
@@ -113,8 +117,8 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     protected boolean rebuilt = false;
     protected int freeXref;
     protected boolean tampered = false;
-    protected int lastXref;
-    protected int eofPos;
+    protected long lastXref;
+    protected long eofPos;
     protected String pdfVersion;
     protected PdfEncryption decrypt;
     protected byte[] password = null; // added by ujihara for decryption
@@ -138,10 +142,18 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     private boolean modificationAllowedWithoutOwnerPassword = true;
     private int objNum;
     private int objGen;
-    private int fileLength;
+    private long fileLength;
     private boolean hybridXref;
     private int lastXrefPartial = -1;
     private boolean partial;
+    /**
+     * The xref table is shared with a view and must be copied before it's changed.
+     */
+    private boolean xrefShared;
+    /**
+     * Decoded object streams, partial reading only, most recently used last.
+     */
+    private LinkedHashMap<Integer, ObjectStreamIndex> objStmCache;
     private PRIndirectReference cryptoRef;
     private boolean encryptionError;
 
@@ -154,6 +166,11 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     // reuse one of the static ones.
     private int readDepth = 0;
 
+    /**
+     * The number of decoded object streams kept in partial mode.
+     */
+    private static final int OBJSTM_CACHE_SIZE = 8;
+
     protected PdfReader() {
     }
 
@@ -268,6 +285,28 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         this(is, null);
     }
 
+    /**
+     * Reads a PDF document, optionally in partial mode.
+     *
+     * @param filename      the file name of the document
+     * @param ownerPassword the password to read the document
+     * @param partialRead   <CODE>true</CODE> to read only the xref up front and the pages and objects when they are
+     *                      used, see {@link #PdfReader(RandomAccessFileOrArray, byte[])}
+     * @throws IOException on error
+     */
+    public PdfReader(String filename, byte[] ownerPassword, boolean partialRead) throws IOException {
+        if (partialRead) {
+            password = ownerPassword;
+            partial = true;
+            tokens = new PRTokeniser(new RandomAccessFileOrArray(filename));
+            readPdfPartial();
+        } else {
+            password = ownerPassword;
+            tokens = new PRTokeniser(filename);
+            readPdf();
+        }
+    }
+
     /**
      * Reads and parses a pdf document. Contrary to the other constructors only the xref is read into memory. The reader
      * is said to be working in "partial" mode as only parts of the pdf are read as needed. The pdf is left open but may
@@ -308,7 +347,8 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         }
         this.pValue = reader.pValue;
         this.rValue = reader.rValue;
-        this.xrefObj = new ArrayList<>(reader.xrefObj);
+        this.xrefObj = reader.xrefObj instanceof PartialObjects objects
+                ? new PartialObjects(objects) : new ArrayList<>(reader.xrefObj);
         for (int k = 0; k < reader.xrefObj.size(); ++k) {
             this.xrefObj.set(k,
                     duplicatePdfObject(reader.xrefObj.get(k), this));
@@ -327,6 +367,48 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         this.ownerPasswordUsed = reader.ownerPasswordUsed;
     }
 
+    /**
+     * Creates a view of a reader in partial mode. The view shares the xref table and the file data, but reads and keeps
+     * its own objects.
+     */
+    private PdfReader(PdfReader reader, RandomAccessFileOrArray file) {
+        this.partial = true;
+        this.consolidateNamedDestinations = reader.consolidateNamedDestinations;
+        this.remoteToLocalNamedDestinations = reader.remoteToLocalNamedDestinations;
+        this.encrypted = reader.encrypted;
+        this.rebuilt = reader.rebuilt;
+        this.sharedStreams = reader.sharedStreams;
+        this.tampered = reader.tampered;
+        this.password = reader.password;
+        this.certificate = reader.certificate;
+        this.certificateKey = reader.certificateKey;
+        this.certificateKeyProvider = reader.certificateKeyProvider;
+        this.pdfVersion = reader.pdfVersion;
+        this.eofPos = reader.eofPos;
+        this.freeXref = reader.freeXref;
+        this.lastXref = reader.lastXref;
+        this.newXrefType = reader.newXrefType;
+        this.fileLength = reader.fileLength;
+        this.hybridXref = reader.hybridXref;
+        this.tokens = new PRTokeniser(file);
+        if (reader.decrypt != null) {
+            this.decrypt = new PdfEncryption(reader.decrypt);
+        }
+        this.pValue = reader.pValue;
+        this.rValue = reader.rValue;
+        this.ownerPasswordUsed = reader.ownerPasswordUsed;
+        this.modificationAllowedWithoutOwnerPassword = reader.modificationAllowedWithoutOwnerPassword;
+        this.xref = reader.xref;
+        this.xrefShared = true;
+        this.objStmToOffset = reader.objStmToOffset;
+        this.xrefObj = new PartialObjects(xref.length / 2);
+        this.trailer = (PdfDictionary) duplicatePdfObject(reader.trailer, this);
+        this.cryptoRef = (PRIndirectReference) duplicatePdfObject(reader.cryptoRef, this);
+        this.catalog = trailer.getAsDict(PdfName.ROOT);
+        this.rootPages = catalog.getAsDict(PdfName.PAGES);
+        this.pageRefs = new PageRefs(this);
+    }
+
     static int getPageRotation(PdfDictionary page) {
         if (page == null) {
             throw new NullPointerException("To get the rotation the page must not be null!");
@@ -501,7 +583,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         PdfReader reader = ref.getReader();
         if (reader.partial && reader.lastXrefPartial != -1
                 && reader.lastXrefPartial == ref.getNumber()) {
-            reader.xrefObj.set(reader.lastXrefPartial, null);
+            reader.releaseXrefObject(reader.lastXrefPartial);
         }
         reader.lastXrefPartial = -1;
     }
@@ -523,7 +605,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             int n = ref.getNumber();
             reader.xrefObj.set(n, null);
             if (reader.partial) {
-                reader.xref[n * 2] = -1;
+                reader.writableXref()[n * 2] = -1;
             }
         }
         return ret;
@@ -673,24 +755,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
      * @return the decoded data
      */
     public static byte[] FlateDecode(byte[] in, boolean strict) {
-        ByteArrayInputStream stream = new ByteArrayInputStream(in);
-        InflaterInputStream zip = new InflaterInputStream(stream);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        byte[] b = new byte[strict ? 4092 : 1];
-        try {
-            int n;
-            while ((n = zip.read(b)) >= 0) {
-                out.write(b, 0, n);
-            }
-            zip.close();
-            out.close();
-            return out.toByteArray();
-        } catch (Exception e) {
-            if (strict) {
-                return null;
-            }
-            return out.toByteArray();
-        }
+        return FlateCodec.inflate(in, strict);
     }
 
     /**
@@ -901,6 +966,32 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         }
     }
 
+    /**
+     * Gets the content of a stream applying the required filters, as a stream to be read once. A stream with only the
+     * FlateDecode filter and no decode parameters, the usual case for page content, is decompressed while it is read,
+     * so only the compressed bytes are held in memory; other streams are decoded at once as by
+     * {@link #getStreamBytes(PRStream)}.
+     *
+     * @param stream the stream
+     * @return the stream content
+     * @throws IOException on error
+     * @since 3.0.1
+     */
+    public static InputStream getStreamInputStream(PRStream stream) throws IOException {
+        List<PdfObject> filters = addFilters(new ArrayList<>(), getPdfObjectRelease(stream.get(PdfName.FILTER)));
+        boolean decodeParms = stream.get(PdfName.DECODEPARMS) != null || stream.get(PdfName.DP) != null;
+        if (filters.isEmpty()) {
+            return new ByteArrayInputStream(getStreamBytesRaw(stream));
+        }
+        if (filters.size() == 1 && !decodeParms) {
+            String name = getPdfObjectRelease(filters.get(0)).toString();
+            if ("/FlateDecode".equals(name) || "/Fl".equals(name)) {
+                return FlateCodec.inflateStream(getStreamBytesRaw(stream));
+            }
+        }
+        return new ByteArrayInputStream(getStreamBytes(stream));
+    }
+
     /**
      * Get the content from a stream as it is without applying any filter.
      *
@@ -913,11 +1004,11 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             RandomAccessFileOrArray file) throws IOException {
         PdfReader reader = stream.getReader();
         byte[] b;
-        if (stream.getOffset() < 0) {
+        if (stream.getLongOffset() < 0) {
             b = stream.getBytes();
         } else {
             b = new byte[stream.getLength()];
-            file.seek(stream.getOffset());
+            file.seek(stream.getLongOffset());
             file.readFully(b);
             PdfEncryption decrypt = reader.getDecrypt();
             if (decrypt != null) {
@@ -1323,7 +1414,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
 
     protected void readPdf() throws IOException {
         try {
-            fileLength = tokens.getFile().length();
+            fileLength = tokens.getFile().longLength();
             pdfVersion = tokens.checkPdfHeader();
             try {
                 readXref();
@@ -1369,7 +1460,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
 
     protected void readPdfPartial() throws IOException {
         try {
-            fileLength = tokens.getFile().length();
+            fileLength = tokens.getFile().longLength();
             pdfVersion = tokens.checkPdfHeader();
             try {
                 readXref();
@@ -1740,7 +1831,10 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             if (idx * 2 >= xref.length) {
                 return null;
             }
-            obj = readSingleObject(idx);
+            obj = ((PartialObjects) xrefObj).recall(idx);
+            if (obj == null) {
+                obj = readSingleObject(idx);
+            }
             lastXrefPartial = -1;
             if (obj != null) {
                 lastXrefPartial = idx;
@@ -1763,11 +1857,80 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
      */
     public void releaseLastXrefPartial() {
         if (partial && lastXrefPartial != -1) {
-            xrefObj.set(lastXrefPartial, null);
+            releaseXrefObject(lastXrefPartial);
             lastXrefPartial = -1;
         }
     }
 
+    /**
+     * Drops a partially read object from memory. It stays in the soft object cache if that is enabled.
+     */
+    private void releaseXrefObject(int idx) {
+        if (xrefObj instanceof PartialObjects objects) {
+            objects.release(idx);
+        } else {
+            xrefObj.set(idx, null);
+        }
+    }
+
+    /**
+     * Gets whether objects released in partial mode are kept in a soft reference cache.
+     *
+     * @return <CODE>true</CODE> if released objects are cached
+     */
+    public boolean isSoftObjectCache() {
+        return xrefObj instanceof PartialObjects objects && objects.isSoftCache();
+    }
+
+    /**
+     * Keeps the objects released in partial mode in a cache of soft references, so an object used again is not read
+     * and parsed again unless the memory was needed. Only has an effect on readers in partial mode. Objects taken from
+     * the cache are the instances returned before, with any changes made to them.
+     *
+     * @param softObjectCache <CODE>true</CODE> to cache released objects
+     */
+    public void setSoftObjectCache(boolean softObjectCache) {
+        if (xrefObj instanceof PartialObjects objects) {
+            objects.setSoftCache(softObjectCache);
+        }
+    }
+
+    /**
+     * Creates a reader over the same document that can be used by another thread. A reader is not thread-safe, but a
+     * view shares nothing mutable with this reader or with other views: it reads its own copies of the objects, has its
+     * own position in the file and its own encryption state. What is shared is the parsed xref table and the file data,
+     * which is an in-memory byte array or a memory mapped file, so each view costs little more than the objects it
+     * reads. Pages can be processed in parallel by giving each thread its own view.
+     * <p>
+     * Views are only light for readers in partial mode; for a reader that has read the whole document this returns an
+     * independent duplicate, as {@link #PdfReader(PdfReader)} does. A view reflects the document as it was read, not
+     * later changes made to this reader. Closing a view doesn't close this reader.
+     *
+     * @return a new reader over the same document
+     */
+    public synchronized PdfReader createView() {
+        if (!partial) {
+            return new PdfReader(this);
+        }
+        xrefShared = true;
+        try {
+            return new PdfReader(this, tokens.getFile().createView());
+        } catch (IOException e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    /**
+     * Gets the xref table to change it, copying it first if it's shared with a view.
+     */
+    private long[] writableXref() {
+        if (xrefShared) {
+            xref = xref.clone();
+            xrefShared = false;
+        }
+        return xref;
+    }
+
     private void setXrefPartialObject(int idx, PdfObject obj) {
         if (!partial || idx < 0) {
             return;
@@ -1791,13 +1954,12 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     }
 
     protected void readDocObjPartial() throws IOException {
-        xrefObj = new ArrayList<>(xref.length / 2);
-        xrefObj.addAll(Collections.nCopies(xref.length / 2, null));
+        xrefObj = new PartialObjects(xref.length / 2);
         readDecryptedDocObj();
         if (objStmToOffset != null) {
-            int[] keys = objStmToOffset.getKeys();
-            for (int n : keys) {
-                objStmToOffset.put(n, xref[n * 2]);
+            for (Map.Entry<Integer, Long> entry : objStmToOffset.entrySet()) {
+                int n = entry.getKey();
+                entry.setValue(xref[n * 2]);
                 xref[n * 2] = -1;
             }
         }
@@ -1806,16 +1968,24 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     protected PdfObject readSingleObject(int k) throws IOException {
         strings.clear();
         int k2 = k * 2;
-        int pos = xref[k2];
+        long pos = xref[k2];
         if (pos < 0) {
             return null;
         }
         if (xref[k2 + 1] > 0) {
-            pos = objStmToOffset.get(xref[k2 + 1]);
+            pos = objStmToOffset.getOrDefault((int) xref[k2 + 1], 0L);
         }
         if (pos == 0) {
             return null;
         }
+        if (xref[k2 + 1] > 0 && objStmCache != null) {
+            ObjectStreamIndex index = objStmCache.get((int) xref[k2 + 1]);
+            if (index != null) {
+                PdfObject obj = readObjStmObject(index, (int) xref[k2]);
+                xrefObj.set(k, obj);
+                return obj;
+            }
+        }
         tokens.seek(pos);
         tokens.nextValidToken();
         if (tokens.getTokenType() != PRTokeniser.TK_NUMBER) {
@@ -1848,7 +2018,15 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             obj = null;
         }
         if (xref[k2 + 1] > 0) {
-            obj = readOneObjStm((PRStream) obj, xref[k2]);
+            ObjectStreamIndex index = readObjStmIndex((PRStream) obj);
+            if (objStmCache == null) {
+                objStmCache = new LinkedHashMap<>(16, 0.75f, true);
+            }
+            objStmCache.put((int) xref[k2 + 1], index);
+            if (objStmCache.size() > OBJSTM_CACHE_SIZE) {
+                objStmCache.remove(objStmCache.keySet().iterator().next());
+            }
+            obj = readObjStmObject(index, (int) xref[k2]);
         }
         xrefObj.set(k, obj);
         return obj;
@@ -1856,38 +2034,47 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
 
     protected PdfObject readOneObjStm(PRStream stream, int idx)
             throws IOException {
+        return readObjStmObject(readObjStmIndex(stream), idx);
+    }
+
+    /**
+     * Decodes an object stream and reads the offsets of its objects.
+     */
+    private ObjectStreamIndex readObjStmIndex(PRStream stream) throws IOException {
         int first = stream.getAsNumber(PdfName.FIRST).intValue();
+        PdfNumber count = stream.getAsNumber(PdfName.N);
         byte[] b = getStreamBytes(stream, tokens.getFile());
         PRTokeniser saveTokens = tokens;
         tokens = new PRTokeniser(b);
         try {
-            int address = 0;
-            boolean ok = true;
-            ++idx;
-            for (int k = 0; k < idx; ++k) {
-                ok = tokens.nextToken();
-                if (!ok) {
-                    break;
-                }
-                if (tokens.getTokenType() != PRTokeniser.TK_NUMBER) {
-                    ok = false;
-                    break;
-                }
-                ok = tokens.nextToken();
-                if (!ok) {
-                    break;
-                }
-                if (tokens.getTokenType() != PRTokeniser.TK_NUMBER) {
-                    ok = false;
-                    break;
+            // every entry takes at least 4 bytes, don't trust a huge /N
+            int[] offsets = new int[count == null ? 16 : Math.max(0, Math.min(count.intValue(), b.length / 4 + 1))];
+            int n = 0;
+            while (tokens.nextToken() && tokens.getTokenType() == PRTokeniser.TK_NUMBER
+                    && tokens.nextToken() && tokens.getTokenType() == PRTokeniser.TK_NUMBER) {
+                if (n == offsets.length) {
+                    if (count != null) {
+                        break;
+                    }
+                    offsets = Arrays.copyOf(offsets, n * 2);
                 }
-                address = tokens.intValue() + first;
-            }
-            if (!ok) {
-                throw new InvalidPdfException(
-                        MessageLocalization.getComposedMessage("error.reading.objstm"));
+                offsets[n++] = tokens.intValue() + first;
             }
-            tokens.seek(address);
+            return new ObjectStreamIndex(b, n == offsets.length ? offsets : Arrays.copyOf(offsets, n));
+        } finally {
+            tokens = saveTokens;
+        }
+    }
+
+    private PdfObject readObjStmObject(ObjectStreamIndex index, int idx) throws IOException {
+        if (idx < 0 || idx >= index.offsets().length) {
+            throw new InvalidPdfException(
+                    MessageLocalization.getComposedMessage("error.reading.objstm"));
+        }
+        PRTokeniser saveTokens = tokens;
+        tokens = new PRTokeniser(index.data());
+        try {
+            tokens.seek(index.offsets()[idx]);
             return readPRObject();
         } finally {
             tokens = saveTokens;
@@ -1912,7 +2099,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         xrefObj = new ArrayList<>(xref.length / 2);
         xrefObj.addAll(Collections.nCopies(xref.length / 2, null));
         for (int k = 2; k < xref.length; k += 2) {
-            int pos = xref[k];
+            long pos = xref[k];
             if (pos <= 0 || ((xref.length > k + 1) && (xref[k + 1] > 0))) {
                 continue;
             }
@@ -1963,8 +2150,8 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
     }
 
     private void checkPRStreamLength(PRStream stream) throws IOException {
-        int fileLength = tokens.length();
-        int start = stream.getOffset();
+        long fileLength = tokens.longLength();
+        long start = stream.getLongOffset();
         boolean calc = false;
         int streamLength = 0;
         PdfObject obj = getPdfObjectRelease(stream.get(PdfName.LENGTH));
@@ -1988,12 +2175,12 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             byte[] tline = new byte[16];
             tokens.seek(start);
             while (true) {
-                int pos = tokens.getFilePointer();
+                long pos = tokens.getLongFilePointer();
                 if (!tokens.readLineSegment(tline)) {
                     break;
                 }
                 if (equalsn(tline, endstream)) {
-                    streamLength = pos - start;
+                    streamLength = (int) (pos - start);
                     break;
                 }
                 if (equalsn(tline, endobj)) {
@@ -2003,7 +2190,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                     if (index >= 0) {
                         pos = pos - 16 + index;
                     }
-                    streamLength = pos - start;
+                    streamLength = (int) (pos - start);
                     break;
                 }
             }
@@ -2063,10 +2250,10 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             return;
         }
         if (xref == null) {
-            xref = new int[size];
+            xref = new long[size];
         } else {
             if (xref.length < size) {
-                int[] xref2 = new int[size];
+                long[] xref2 = new long[size];
                 System.arraycopy(xref, 0, xref2, 0, xref.length);
                 xref = xref2;
             }
@@ -2088,9 +2275,9 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                     MessageLocalization
                             .getComposedMessage("startxref.is.not.followed.by.a.number"));
         }
-        int startxref = tokens.intValue();
+        long startxref = tokens.longValue();
         lastXref = startxref;
-        eofPos = tokens.getFilePointer();
+        eofPos = tokens.getLongFilePointer();
         try {
             if (readXRefStream(startxref)) {
                 newXrefType = true;
@@ -2107,12 +2294,12 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             if (prev == null) {
                 break;
             }
-            if (prev.intValue() == startxref) {
+            if (prev.longValue() == startxref) {
                 throw new InvalidPdfException(
                         MessageLocalization
                                 .getComposedMessage("xref.infinite.loop"));
             }
-            tokens.seek(prev.intValue());
+            tokens.seek(prev.longValue());
             trailer2 = readXrefSection();
         }
     }
@@ -2125,7 +2312,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         }
         int start;
         int end;
-        int pos;
+        long pos;
         int gen;
         while (true) {
             tokens.nextValidToken();
@@ -2147,9 +2334,9 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             }
             end = tokens.intValue() + start;
             if (start == 1) { // fix incorrect start number
-                int back = tokens.getFilePointer();
+                long back = tokens.getLongFilePointer();
                 tokens.nextValidToken();
-                pos = tokens.intValue();
+                pos = tokens.longValue();
                 tokens.nextValidToken();
                 gen = tokens.intValue();
                 if (pos == 0 && gen == PdfWriter.GENERATION_MAX) {
@@ -2161,7 +2348,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             ensureXrefSize(end * 2);
             for (int k = start; k < end; ++k) {
                 tokens.nextValidToken();
-                pos = tokens.intValue();
+                pos = tokens.longValue();
                 tokens.nextValidToken();
                 tokens.nextValidToken();
                 int p = k * 2;
@@ -2187,7 +2374,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         ensureXrefSize(xrefSize.intValue() * 2);
         PdfObject xrs = trailer.get(PdfName.XREFSTM);
         if (xrs != null && xrs.isNumber()) {
-            int loc = ((PdfNumber) xrs).intValue();
+            long loc = ((PdfNumber) xrs).longValue();
             try {
                 readXRefStream(loc);
                 newXrefType = true;
@@ -2200,7 +2387,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         return trailer;
     }
 
-    protected boolean readXRefStream(int ptr) throws IOException {
+    protected boolean readXRefStream(long ptr) throws IOException {
         tokens.seek(ptr);
         int thisStream;
         if (!tokens.nextToken()) {
@@ -2241,10 +2428,10 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             index = (PdfArray) obj;
         }
         PdfArray w = (PdfArray) stm.get(PdfName.W);
-        int prev = -1;
+        long prev = -1;
         obj = stm.get(PdfName.PREV);
         if (obj != null) {
-            prev = ((PdfNumber) obj).intValue();
+            prev = ((PdfNumber) obj).longValue();
         }
         // Each xref pair is a position
         // type 0 -> -1, 0
@@ -2255,7 +2442,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             objStmMark = new HashMap<>();
         }
         if (objStmToOffset == null && partial) {
-            objStmToOffset = new IntHashtable();
+            objStmToOffset = new HashMap<>();
         }
         byte[] b = getStreamBytes(stm, tokens.getFile());
         int bptr = 0;
@@ -2275,7 +2462,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                         type = (type << 8) + (b[bptr++] & 0xff);
                     }
                 }
-                int field2 = 0;
+                long field2 = 0;
                 for (int k = 0; k < wc[1]; ++k) {
                     field2 = (field2 << 8) + (b[bptr++] & 0xff);
                 }
@@ -2296,9 +2483,9 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                             xref[base] = field3;
                             xref[base + 1] = field2;
                             if (partial) {
-                                objStmToOffset.put(field2, 0);
+                                objStmToOffset.put((int) field2, 0L);
                             } else {
-                                Integer on = field2;
+                                Integer on = (int) field2;
                                 IntHashtable seq = objStmMark.get(on);
                                 if (seq == null) {
                                     seq = new IntHashtable();
@@ -2329,12 +2516,12 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         hybridXref = false;
         newXrefType = false;
         tokens.seek(0);
-        int[][] xr = new int[1024][];
+        long[][] xr = new long[1024][];
         int top = 0;
         trailer = null;
         byte[] line = new byte[64];
         for (; ; ) {
-            int pos = tokens.getFilePointer();
+            long pos = tokens.getLongFilePointer();
             if (!tokens.readLineSegment(line)) {
                 break;
             }
@@ -2344,7 +2531,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                 }
                 tokens.seek(pos);
                 tokens.nextToken();
-                pos = tokens.getFilePointer();
+                pos = tokens.getLongFilePointer();
                 try {
                     PdfDictionary dic = (PdfDictionary) readPRObject();
                     if (dic.get(PdfName.ROOT) != null) {
@@ -2364,7 +2551,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                 int gen = obj[1];
                 if (num >= xr.length) {
                     int newLength = num * 2;
-                    int[][] xr2 = new int[newLength][];
+                    long[][] xr2 = new long[newLength][];
                     System.arraycopy(xr, 0, xr2, 0, top);
                     xr = xr2;
                 }
@@ -2372,17 +2559,16 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                     top = num + 1;
                 }
                 if (xr[num] == null || gen >= xr[num][1]) {
-                    obj[0] = pos;
-                    xr[num] = obj;
+                    xr[num] = new long[]{pos, gen};
                 }
             }
         }
         if (trailer == null) {
             throw new InvalidPdfException(MessageLocalization.getComposedMessage("trailer.not.found"));
         }
-        xref = new int[top * 2];
+        xref = new long[top * 2];
         for (int k = 0; k < top; ++k) {
-            int[] obj = xr[k];
+            long[] obj = xr[k];
             if (obj != null) {
                 xref[k * 2] = obj[0];
             }
@@ -2400,7 +2586,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                 tokens.throwError(MessageLocalization
                         .getComposedMessage("dictionary.key.is.not.a.name"));
             }
-            PdfName name = new PdfName(tokens.getStringValue(), false);
+            PdfName name = tokens.nameValue(true);
             PdfObject obj = readPRObject();
             int type = obj.type();
             if (-type == PRTokeniser.TK_END_DIC) {
@@ -2430,6 +2616,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
             }
             array.add(obj);
         }
+        array.compactNumbers();
         return array;
     }
 
@@ -2441,7 +2628,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                 ++readDepth;
                 PdfDictionary dic = readDictionary();
                 --readDepth;
-                int pos = tokens.getFilePointer();
+                long pos = tokens.getLongFilePointer();
                 // be careful in the trailer. May not be a "next" token.
                 boolean hasNext;
                 do {
@@ -2460,7 +2647,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                     if (ch != '\n') {
                         tokens.backOnePosition(ch);
                     }
-                    PRStream stream = new PRStream(this, tokens.getFilePointer());
+                    PRStream stream = new PRStream(this, tokens.getLongFilePointer());
                     stream.putAll(dic);
                     // crypto handling
                     stream.setObjNum(objNum, objGen);
@@ -2478,7 +2665,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                 return arr;
             }
             case PRTokeniser.TK_NUMBER:
-                return new PdfNumber(tokens.getStringValue());
+                return tokens.numberValue();
             case PRTokeniser.TK_STRING:
                 PdfString str = new PdfString(tokens.getStringValue(), null)
                         .setHexWriting(tokens.isHexString());
@@ -2489,16 +2676,9 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                 }
 
                 return str;
-            case PRTokeniser.TK_NAME: {
-                PdfName cachedName = PdfName.staticNames.get(tokens
-                        .getStringValue());
-                if (readDepth > 0 && cachedName != null) {
-                    return cachedName;
-                } else {
-                    // an indirect name (how odd...), or a non-standard one
-                    return new PdfName(tokens.getStringValue(), false);
-                }
-            }
+            case PRTokeniser.TK_NAME:
+                // a name at depth 0 is an indirect name (how odd...), it gets its own instance
+                return tokens.nameValue(readDepth > 0);
             case PRTokeniser.TK_REF:
                 int num = tokens.getReference();
                 PRIndirectReference ref = new PRIndirectReference(this, num,
@@ -2825,8 +3005,21 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
      * Gets the byte address of the last xref table.
      *
      * @return the byte address of the last xref table
+     * @throws ArithmeticException if the address does not fit in an <CODE>int</CODE>
+     * @deprecated use {@link #getLongLastXref()}, which also works for files larger than 2 GB
      */
+    @Deprecated
     public int getLastXref() {
+        return Math.toIntExact(lastXref);
+    }
+
+    /**
+     * Gets the byte address of the last xref table.
+     *
+     * @return the byte address of the last xref table
+     * @since 3.0.1
+     */
+    public long getLongLastXref() {
         return lastXref;
     }
 
@@ -2843,8 +3036,21 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
      * Gets the byte address of the %%EOF marker.
      *
      * @return the byte address of the %%EOF marker
+     * @throws ArithmeticException if the address does not fit in an <CODE>int</CODE>
+     * @deprecated use {@link #getLongEofPos()}, which also works for files larger than 2 GB
      */
+    @Deprecated
     public int getEofPos() {
+        return Math.toIntExact(eofPos);
+    }
+
+    /**
+     * Gets the byte address of the %%EOF marker.
+     *
+     * @return the byte address of the %%EOF marker
+     * @since 3.0.1
+     */
+    public long getLongEofPos() {
         return eofPos;
     }
 
@@ -3511,6 +3717,7 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         removeUnusedNode(trailer, hits);
         int total = 0;
         if (partial) {
+            long[] xref = writableXref();
             for (int k = 1; k < hits.length; ++k) {
                 if (!hits[k]) {
                     xref[k * 2] = -1;
@@ -3703,8 +3910,21 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
      * Getter for property fileLength.
      *
      * @return Value of property fileLength.
+     * @throws ArithmeticException if the length does not fit in an <CODE>int</CODE>
+     * @deprecated use {@link #getLongFileLength()}, which also works for files larger than 2 GB
      */
+    @Deprecated
     public int getFileLength() {
+        return Math.toIntExact(fileLength);
+    }
+
+    /**
+     * Getter for property fileLength.
+     *
+     * @return Value of property fileLength.
+     * @since 3.0.1
+     */
+    public long getLongFileLength() {
         return fileLength;
     }
 
@@ -3859,6 +4079,107 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
         return org.openpdf.text.DocWriter.getISOBytes(o.toString());
     }
 
+    /**
+     * The decoded data of an object stream and the offsets of its objects.
+     */
+    private record ObjectStreamIndex(byte[] data, int[] offsets) {
+
+    }
+
+    /**
+     * The objects of a reader in partial mode. Only the objects read so far take memory, so opening a document with
+     * many objects doesn't allocate a slot per object. Released objects can be kept in soft references.
+     */
+    static final class PartialObjects extends AbstractList<PdfObject> implements RandomAccess {
+
+        private final HashMap<Integer, PdfObject> objects;
+        private HashMap<Integer, SoftReference<PdfObject>> released;
+        private int size;
+
+        PartialObjects(int size) {
+            this.objects = new HashMap<>();
+            this.size = size;
+        }
+
+        PartialObjects(PartialObjects other) {
+            this.objects = new HashMap<>(other.objects);
+            this.size = other.size;
+            if (other.released != null) {
+                this.released = new HashMap<>();
+            }
+        }
+
+        @Override
+        public PdfObject get(int index) {
+            Objects.checkIndex(index, size);
+            return objects.get(index);
+        }
+
+        @Override
+        public PdfObject set(int index, PdfObject element) {
+            Objects.checkIndex(index, size);
+            if (released != null) {
+                released.remove(index);
+            }
+            return element == null ? objects.remove(index) : objects.put(index, element);
+        }
+
+        @Override
+        public void add(int index, PdfObject element) {
+            if (index != size) {
+                throw new UnsupportedOperationException();
+            }
+            ++size;
+            if (element != null) {
+                objects.put(index, element);
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Drops an object from memory, keeping a soft reference to it if the soft cache is on.
+         */
+        void release(int index) {
+            PdfObject obj = objects.remove(index);
+            if (obj != null && released != null) {
+                released.put(index, new SoftReference<>(obj));
+            }
+        }
+
+        /**
+         * Gets a released object back from the soft cache.
+         *
+         * @return the object or <CODE>null</CODE> if it was not cached or was collected
+         */
+        PdfObject recall(int index) {
+            if (released == null) {
+                return null;
+            }
+            SoftReference<PdfObject> ref = released.remove(index);
+            PdfObject obj = ref == null ? null : ref.get();
+            if (obj != null) {
+                objects.put(index, obj);
+            }
+            return obj;
+        }
+
+        boolean isSoftCache() {
+            return released != null;
+        }
+
+        void setSoftCache(boolean softCache) {
+            if (!softCache) {
+                released = null;
+            } else if (released == null) {
+                released = new HashMap<>();
+            }
+        }
+    }
+
     static class PageRefs {
 
         private final PdfReader reader;
@@ -4255,8 +4576,9 @@ public class PdfReader implements PdfViewerPreferences, Closeable {
                     int nref = pref.getNumber();
                     reader.xrefObj.set(nref, null);
                     if (reader.partial) {
-                        reader.xref[nref * 2] = -1;
-                        reader.xref[nref * 2 + 1] = 0;
+                        long[] xref = reader.writableXref();
+                        xref[nref * 2] = -1;
+                        xref[nref * 2 + 1] = 0;
                     }
                 }
             }
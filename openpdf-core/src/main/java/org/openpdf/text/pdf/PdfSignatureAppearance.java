@@ -64,6 +64,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.cert.CRL;
 import java.security.cert.Certificate;
@@ -167,6 +169,9 @@ public class PdfSignatureAppearance {
     private byte[] externalRSAdata;
     private String digestEncryptionAlgorithm;
     private Map<PdfName, PdfLiteral> exclusionLocations;
+    private DigestOutputStream digestOut;
+    private long digestEnd = -1;
+    private byte[] rangeDigest;
 
     // ******************************************************************************
     private Certificate[] certChain;
@@ -992,6 +997,10 @@ public class PdfSignatureAppearance {
         this.originalout = originalout;
     }
 
+    void setDigestOut(DigestOutputStream digestOut) {
+        this.digestOut = digestOut;
+    }
+
     /**
      * Gets the temporary file.
      *
@@ -1168,12 +1177,12 @@ public class PdfSignatureAppearance {
             sigStandard.setSignInfo(getPrivKey(), certChain, crlList);
             // ******************************************************************************
             PdfString contents = (PdfString) sigStandard.get(PdfName.CONTENTS);
-            PdfLiteral lit = new PdfLiteral(
+            PdfLiteral lit = newExclusion(
                     (contents.toString().length() + (PdfName.ADOBE_PPKLITE
                             .equals(getFilter()) ? 0 : 64)) * 2 + 2);
             exclusionLocations.put(PdfName.CONTENTS, lit);
             sigStandard.put(PdfName.CONTENTS, lit);
-            lit = new PdfLiteral(80);
+            lit = newExclusion(80);
             exclusionLocations.put(PdfName.BYTERANGE, lit);
             sigStandard.put(PdfName.BYTERANGE, lit);
             if (this.certificationLevel >= 0) {
@@ -1201,14 +1210,14 @@ public class PdfSignatureAppearance {
                 this.cryptoDictionary.put(PdfName.M, new PdfDate(getSignDate()));
             }
 
-            PdfLiteral lit = new PdfLiteral(80);
+            PdfLiteral lit = newExclusion(80);
             exclusionLocations.put(PdfName.BYTERANGE, lit);
             cryptoDictionary.put(PdfName.BYTERANGE, lit);
             for (Object o : exclusionSizes.entrySet()) {
                 Map.Entry entry = (Map.Entry) o;
                 PdfName key = (PdfName) entry.getKey();
                 Integer v = (Integer) entry.getValue();
-                lit = new PdfLiteral(v);
+                lit = newExclusion(v);
                 exclusionLocations.put(key, lit);
                 cryptoDictionary.put(key, lit);
             }
@@ -1280,8 +1289,96 @@ public class PdfSignatureAppearance {
                 throw e;
             }
         }
+        if (digestOut != null) {
+            digestRemainingRanges();
+        }
+    }
+
+    /**
+     * Creates the literal that reserves space for an excluded key. When the byte ranges are digested while writing,
+     * the digest stops at the first of these literals, as the bytes from there on aren't final yet.
+     */
+    private PdfLiteral newExclusion(int size) {
+        return new PdfLiteral(size) {
+            @Override
+            public void toPdf(PdfWriter writer, OutputStream os) throws IOException {
+                if (digestOut != null && digestEnd < 0 && os instanceof OutputStreamCounter) {
+                    os.flush();
+                    digestOut.on(false);
+                    digestEnd = ((OutputStreamCounter) os).getCounter();
+                }
+                super.toPdf(writer, os);
+            }
+        };
+    }
+
+    /**
+     * Completes the digest of the byte ranges with the bytes from where it stopped while writing.
+     */
+    private void digestRemainingRanges() throws IOException {
+        MessageDigest digest = digestOut.getMessageDigest();
+        if (digestEnd < 0) {
+            digest.reset();
+            digestEnd = 0;
+        }
+        RangeStream rs = new RangeStream(raf, bout, range);
+        rs.rangePosition = digestEnd;
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = rs.read(buf, 0, buf.length)) > 0) {
+            digest.update(buf, 0, n);
+        }
+        rangeDigest = digest.digest();
     }
 
+    /**
+     * Gets the digest of the byte ranges to sign, computed while the document was written. It's only available after
+     * {@link #preClose(Map)} when the stamper was made with
+     * {@link PdfStamper#createSignature(PdfReader, OutputStream, String, File, boolean, String)}.
+     *
+     * @return the digest of the bytes returned by {@link #getRangeStream()} or <CODE>null</CODE>
+     * @since 3.0.1
+     */
+    public byte[] getRangeDigest() {
+        return rangeDigest == null ? null : rangeDigest.clone();
+    }
+
+    /**
+     * Ends the first phase of a deferred signature. The <CODE>/Contents</CODE> key reserved in
+     * {@link #preClose(Map)} is filled with zeros and the document is left in the temporary file, so nothing of it is
+     * kept in memory while the signature is made. The signature is written later with
+     * {@link PdfDeferredSignature#inject(byte[])}.
+     * <p>
+     * The stamper must have been made with a temporary file and a <CODE>null</CODE> output stream, and
+     * <CODE>/Contents</CODE> must be the only key reserved besides <CODE>/ByteRange</CODE>.
+     *
+     * @return what is needed to inject the signature
+     * @throws IOException       on error
+     * @throws DocumentException on error
+     * @since 3.0.1
+     */
+    public PdfDeferredSignature closeDeferred() throws IOException, DocumentException {
+        if (!preClosed) {
+            throw new DocumentException(
+                    MessageLocalization.getComposedMessage("preclose.must.be.called.first"));
+        }
+        if (tempFile == null || originalout != null) {
+            throw new IllegalStateException(MessageLocalization.getComposedMessage(
+                    "a.deferred.signature.needs.a.temporary.file.and.no.output.stream"));
+        }
+        PdfLiteral lit = exclusionLocations.get(PdfName.CONTENTS);
+        if (lit == null || exclusionLocations.size() != 1) {
+            throw new IllegalStateException(
+                    MessageLocalization.getComposedMessage("a.deferred.signature.must.only.reserve.contents"));
+        }
+        PdfString zeros = new PdfString(new byte[(lit.getPosLength() - 2) / 2]);
+        zeros.setHexWriting(true);
+        PdfDictionary update = new PdfDictionary();
+        update.put(PdfName.CONTENTS, zeros);
+        close(update);
+        return new PdfDeferredSignature(tempFile, lit.getPosition(), lit.getPosLength(), range.clone(),
+                getRangeDigest());
+    }
     /**
      * This is the last method to be called when using external signatures. The general sequence is: preClose(),
      * getDocumentBytes() and close().
@@ -52,10 +52,9 @@ package org.openpdf.text.pdf;
 
 import org.openpdf.text.Document;
 import org.openpdf.text.DocumentException;
-import org.openpdf.text.ExceptionConverter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.security.MessageDigest;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -65,6 +64,10 @@ import java.util.Map;
  * PdfSmartCopy has the same functionality as PdfCopy, but when resources (such as fonts, images,...) are encountered, a
  * reference to these resources is saved in a cache, so that they can be reused. This requires more memory, but reduces
  * the file size of the resulting PDF document.
+ * <p>
+ * Streams are identified by a 128 bit hash of their dictionary and raw data, so the cache takes a few dozen bytes per
+ * copied stream. For very large merges the cache can be kept out of the Java heap, see
+ * {@link #PdfSmartCopy(Document, OutputStream, boolean)}.
  */
 
 public class PdfSmartCopy extends PdfCopy {
@@ -72,7 +75,11 @@ public class PdfSmartCopy extends PdfCopy {
     /**
      * the cache with the streams and references.
      */
-    private Map<ByteStore, PdfIndirectReference> streamMap = null;
+    private final StreamIndex streamIndex;
+
+    private int streamsReused;
+
+    private long bytesSaved;
 
     /**
      * Creates a PdfSmartCopy instance.
@@ -82,8 +89,40 @@ public class PdfSmartCopy extends PdfCopy {
      * @throws DocumentException on error
      */
     public PdfSmartCopy(Document document, OutputStream os) throws DocumentException {
+        this(document, os, false);
+    }
+
+    /**
+     * Creates a PdfSmartCopy instance.
+     *
+     * @param os            the OutputStream
+     * @param document      the document
+     * @param offHeapIndex  <CODE>true</CODE> to keep the cache of copied streams in direct memory instead of the Java
+     *                      heap
+     * @throws DocumentException on error
+     */
+    public PdfSmartCopy(Document document, OutputStream os, boolean offHeapIndex) throws DocumentException {
         super(document, os);
-        this.streamMap = new HashMap<>();
+        this.streamIndex = offHeapIndex ? new OffHeapStreamIndex() : new HeapStreamIndex();
+    }
+
+    /**
+     * Gets the number of streams that were not copied because an identical stream was already copied.
+     *
+     * @return the number of reused streams
+     */
+    public int getStreamsReused() {
+        return streamsReused;
+    }
+
+    /**
+     * Gets the number of stream bytes that were not written because an identical stream was already copied. The
+     * length of the stream data is counted, as stored in the source documents.
+     *
+     * @return the number of bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
     }
 
     /**
@@ -106,8 +145,10 @@ public class PdfSmartCopy extends PdfCopy {
             try {
                 streamKey = new ByteStore((PRStream) srcObj);
                 validStream = true;
-                PdfIndirectReference streamRef = streamMap.get(streamKey);
+                PdfIndirectReference streamRef = streamIndex.get(streamKey);
                 if (streamRef != null) {
+                    ++streamsReused;
+                    bytesSaved += ((PRStream) srcObj).getLength();
                     return streamRef;
                 }
             } catch (IOException ioe) {
@@ -115,18 +156,17 @@ public class PdfSmartCopy extends PdfCopy {
             }
         }
 
-        PdfIndirectReference theRef;
-        RefKey key = new RefKey(in);
-        IndirectReferences iRef = indirects.get(key);
-        if (iRef != null) {
-            theRef = iRef.getRef();
-            if (iRef.getCopied()) {
+        int num = in.getNumber();
+        int gen = in.getGeneration();
+        IndirectReferenceTable indirects = getIndirects();
+        PdfIndirectReference theRef = indirects.get(num, gen);
+        if (theRef != null) {
+            if (indirects.isCopied(num, gen)) {
                 return theRef;
             }
         } else {
             theRef = body.getPdfIndirectReference();
-            iRef = new IndirectReferences(theRef);
-            indirects.put(key, iRef);
+            indirects.put(num, gen, theRef);
         }
         if (srcObj.isDictionary()) {
             PdfObject type = PdfReader.getPdfObjectRelease(((PdfDictionary) srcObj).get(PdfName.TYPE));
@@ -134,10 +174,10 @@ public class PdfSmartCopy extends PdfCopy {
                 return theRef;
             }
         }
-        iRef.setCopied();
+        indirects.setCopied(num, gen);
 
         if (validStream) {
-            streamMap.put(streamKey, theRef);
+            streamIndex.put(streamKey, theRef);
         }
 
         PdfObject obj = copyObject(srcObj);
@@ -145,94 +185,241 @@ public class PdfSmartCopy extends PdfCopy {
         return theRef;
     }
 
+    /**
+     * The key of a stream: a hash of the stream dictionary, the raw stream data and, recursively, the objects they
+     * refer to.
+     */
     static class ByteStore {
 
         private final int MAX_LEVELS = 100;
-        private byte[] b;
-        private int hash;
-        private MessageDigest md5;
+        private final long hash1;
+        private final long hash2;
+        private Murmur3Hash128 hasher;
+        private RandomAccessFileOrArray file;
+        private byte[] buffer;
 
         ByteStore(PRStream str) throws IOException {
+            hasher = new Murmur3Hash128();
             try {
-                md5 = MessageDigest.getInstance("MD5");
-            } catch (Exception e) {
-                throw new ExceptionConverter(e);
+                int level = MAX_LEVELS;
+                serObject(str, level);
+            } finally {
+                if (file != null) {
+                    try {
+                        file.close();
+                    } catch (IOException ignored) {
+                    }
+                }
             }
-            ByteBuffer bb = new ByteBuffer();
-            int level = MAX_LEVELS;
-            serObject(str, level, bb);
-            this.b = bb.toByteArray();
-            md5 = null;
+            long[] hash = hasher.digest();
+            hash1 = hash[0];
+            hash2 = hash[1];
+            hasher = null;
+            file = null;
+            buffer = null;
         }
 
-        private void serObject(PdfObject obj, int level, ByteBuffer bb) throws IOException {
+        ByteStore(long hash1, long hash2) {
+            this.hash1 = hash1;
+            this.hash2 = hash2;
+        }
+
+        private void serObject(PdfObject obj, int level) throws IOException {
             if (level <= 0) {
                 throw new IOException("Max level reached");
             }
             if (obj == null) {
-                bb.append("$Lnull");
+                hasher.update("$Lnull");
                 return;
             }
             obj = PdfReader.getPdfObject(obj);
             if (obj.isStream()) {
-                bb.append("$B");
-                serDic((PdfDictionary) obj, level - 1, bb);
-                md5.reset();
-                bb.append(md5.digest(PdfReader.getStreamBytesRaw((PRStream) obj)));
+                hasher.update("$B");
+                serDic((PdfDictionary) obj, level - 1);
+                serStreamBytes((PRStream) obj);
             } else if (obj.isDictionary()) {
-                serDic((PdfDictionary) obj, level - 1, bb);
+                serDic((PdfDictionary) obj, level - 1);
             } else if (obj.isArray()) {
-                serArray((PdfArray) obj, level - 1, bb);
+                serArray((PdfArray) obj, level - 1);
             } else if (obj.isString()) {
-                bb.append("$S").append(obj.toString());
+                hasher.update("$S");
+                hasher.update(obj.toString());
             } else if (obj.isName()) {
-                bb.append("$N").append(obj.toString());
+                hasher.update("$N");
+                hasher.update(obj.toString());
             } else {
-                bb.append("$L").append(obj.toString());
+                hasher.update("$L");
+                hasher.update(obj.toString());
+            }
+        }
+
+        /**
+         * Hashes the raw stream data. Unencrypted data is read from the file in blocks instead of as a whole.
+         */
+        private void serStreamBytes(PRStream stream) throws IOException {
+            if (stream.getLongOffset() < 0 || stream.getReader().getDecrypt() != null) {
+                byte[] b = PdfReader.getStreamBytesRaw(stream);
+                hasher.update(b, 0, b.length);
+                return;
+            }
+            if (file == null) {
+                file = stream.getReader().getSafeFile();
+                file.reOpen();
+                buffer = new byte[8192];
+            }
+            file.seek(stream.getLongOffset());
+            int remaining = stream.getLength();
+            while (remaining > 0) {
+                int n = file.read(buffer, 0, Math.min(remaining, buffer.length));
+                if (n < 0) {
+                    break;
+                }
+                hasher.update(buffer, 0, n);
+                remaining -= n;
             }
         }
 
-        private void serDic(PdfDictionary dic, int level, ByteBuffer bb) throws IOException {
-            bb.append("$D");
+        private void serDic(PdfDictionary dic, int level) throws IOException {
+            hasher.update("$D");
             if (level <= 0) {
                 throw new IOException("Max level reached");
             }
             Object[] keys = dic.getKeys().toArray();
             Arrays.sort(keys);
             for (Object key : keys) {
-                serObject((PdfObject) key, level, bb);
-                serObject(dic.get((PdfName) key), level, bb);
+                serObject((PdfObject) key, level);
+                serObject(dic.get((PdfName) key), level);
             }
         }
 
-        private void serArray(PdfArray array, int level, ByteBuffer bb) throws IOException {
-            bb.append("$A");
+        private void serArray(PdfArray array, int level) throws IOException {
+            hasher.update("$A");
             if (level <= 0) {
                 throw new IOException("Max level reached");
             }
             for (int k = 0; k < array.size(); ++k) {
-                serObject(array.getPdfObject(k), level, bb);
+                serObject(array.getPdfObject(k), level);
             }
         }
 
 
         public boolean equals(Object obj) {
-            if (!(obj instanceof ByteStore)) {
+            if (!(obj instanceof ByteStore other)) {
                 return false;
             }
-            if (hashCode() != obj.hashCode()) {
-                return false;
-            }
-            return Arrays.equals(b, ((ByteStore) obj).b);
+            return hash1 == other.hash1 && hash2 == other.hash2;
         }
 
         public int hashCode() {
-            if (hash == 0) {
-                for (byte b1 : b) {
-                    hash = hash * 31 + (b1 & 0xff);
+            return (int) (hash1 ^ (hash1 >>> 32));
+        }
+    }
+
+    /**
+     * Maps the keys of the copied streams to their references in the new document.
+     */
+    interface StreamIndex {
+
+        PdfIndirectReference get(ByteStore key);
+
+        void put(ByteStore key, PdfIndirectReference ref);
+    }
+
+    static class HeapStreamIndex implements StreamIndex {
+
+        private final Map<ByteStore, PdfIndirectReference> streamMap = new HashMap<>();
+
+        public PdfIndirectReference get(ByteStore key) {
+            return streamMap.get(key);
+        }
+
+        public void put(ByteStore key, PdfIndirectReference ref) {
+            streamMap.put(key, ref);
+        }
+    }
+
+    /**
+     * An open addressing hash table in direct memory. An entry takes 24 bytes: the two halves of the hash and the
+     * object number and generation of the reference.
+     */
+    static class OffHeapStreamIndex implements StreamIndex {
+
+        private static final int ENTRY_SIZE = 24;
+        private static final int MAX_CAPACITY = Integer.MAX_VALUE / ENTRY_SIZE;
+        private ByteBuffer table;
+        private int capacity;
+        private int size;
+
+        OffHeapStreamIndex() {
+            this(1024);
+        }
+
+        OffHeapStreamIndex(int capacity) {
+            this.capacity = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+            this.table = ByteBuffer.allocateDirect(this.capacity * ENTRY_SIZE);
+        }
+
+        public PdfIndirectReference get(ByteStore key) {
+            int slot = find(key.hash1, key.hash2);
+            int number = table.getInt(slot * ENTRY_SIZE + 16);
+            if (number == 0) {
+                return null;
+            }
+            return new PdfIndirectReference(0, number, table.getInt(slot * ENTRY_SIZE + 20));
+        }
+
+        public void put(ByteStore key, PdfIndirectReference ref) {
+            if (size >= capacity / 2 && capacity <= MAX_CAPACITY / 2) {
+                grow();
+            }
+            if (size >= capacity - 1) {
+                // full, the stream is copied again if it's met again
+                return;
+            }
+            int slot = find(key.hash1, key.hash2);
+            int pos = slot * ENTRY_SIZE;
+            if (table.getInt(pos + 16) == 0) {
+                ++size;
+            }
+            table.putLong(pos, key.hash1);
+            table.putLong(pos + 8, key.hash2);
+            table.putInt(pos + 16, ref.getNumber());
+            table.putInt(pos + 20, ref.getGeneration());
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Finds the slot of a key, or the empty slot where it would go. Object number 0 marks an empty slot.
+         */
+        private int find(long hash1, long hash2) {
+            int mask = capacity - 1;
+            int slot = (int) (hash1 ^ (hash1 >>> 32)) & mask;
+            while (true) {
+                int pos = slot * ENTRY_SIZE;
+                if (table.getInt(pos + 16) == 0
+                        || (table.getLong(pos) == hash1 && table.getLong(pos + 8) == hash2)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            ByteBuffer old = table;
+            int oldCapacity = capacity;
+            capacity *= 2;
+            table = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+            for (int k = 0; k < oldCapacity; ++k) {
+                int pos = k * ENTRY_SIZE;
+                int number = old.getInt(pos + 16);
+                if (number != 0) {
+                    int slot = find(old.getLong(pos), old.getLong(pos + 8));
+                    table.put(slot * ENTRY_SIZE, old, pos, ENTRY_SIZE);
                 }
             }
-            return hash;
         }
     }
-}
\ No newline at end of file
+}
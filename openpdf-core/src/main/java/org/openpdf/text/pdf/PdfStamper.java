@@ -63,6 +63,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.security.cert.Certificate;
 import java.util.Calendar;
@@ -172,21 +175,67 @@ public class PdfStamper
      */
     public static PdfStamper createSignature(PdfReader reader, OutputStream os, String pdfVersion, File tempFile,
             boolean append) throws DocumentException, IOException {
+        return createSignature(reader, os, pdfVersion, tempFile, append, null);
+    }
+
+    /**
+     * Applies a digital signature to a document, digesting the signed byte ranges while the document is written. The
+     * digest is available from {@link PdfSignatureAppearance#getRangeDigest()} after
+     * {@link PdfSignatureAppearance#preClose(Map)}, without reading the document again except for the few bytes
+     * written after the signature dictionary.
+     * <p>
+     * With <CODE>os</CODE> <CODE>null</CODE> the document is written straight to <CODE>tempFile</CODE>, and
+     * {@link PdfSignatureAppearance#closeDeferred()} leaves it there to be signed later with
+     * {@link PdfDeferredSignature#inject(byte[])}.
+     *
+     * @param reader          the original document
+     * @param os              the output stream or <CODE>null</CODE> to keep the document in the temporary file
+     * @param pdfVersion      the new pdf version or '\0' to keep the same version as the original document
+     * @param tempFile        location of the temporary file or <CODE>null</CODE> to use memory, as in
+     *                        {@link #createSignature(PdfReader, OutputStream, String, File, boolean)}
+     * @param append          if <CODE>true</CODE> the signature and all the other content will be added as a new
+     *                        revision thus not invalidating existing signatures
+     * @param digestAlgorithm the name of the <CODE>MessageDigest</CODE> for the byte ranges, like "SHA-256", or
+     *                        <CODE>null</CODE> to not digest while writing
+     * @return a <CODE>PdfStamper</CODE>
+     * @throws DocumentException on error
+     * @throws IOException       on error
+     * @since 3.0.1
+     */
+    public static PdfStamper createSignature(PdfReader reader, OutputStream os, String pdfVersion, File tempFile,
+            boolean append, String digestAlgorithm) throws DocumentException, IOException {
+        DigestOutputStream digestOut = null;
+        MessageDigest digest = null;
+        if (digestAlgorithm != null) {
+            try {
+                digest = MessageDigest.getInstance(digestAlgorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new DocumentException(e);
+            }
+        }
         PdfStamper stp;
         if (tempFile == null) {
             ByteBuffer bout = new ByteBuffer();
-            stp = new PdfStamper(reader, bout, pdfVersion, append);
+            OutputStream out = bout;
+            if (digest != null) {
+                out = digestOut = new DigestOutputStream(bout, digest);
+            }
+            stp = new PdfStamper(reader, out, pdfVersion, append);
             stp.sigApp = new PdfSignatureAppearance(stp.stamper);
             stp.sigApp.setSigout(bout);
         } else {
             if (tempFile.isDirectory()) {
                 tempFile = Files.createTempFile(tempFile.toPath(), "pdf", null).toFile();
             }
-            FileOutputStream fout = new FileOutputStream(tempFile);
-            stp = new PdfStamper(reader, fout, pdfVersion, append);
+            OutputStream out = new FileOutputStream(tempFile);
+            if (digest != null) {
+                out = digestOut = new DigestOutputStream(out, digest);
+            }
+            stp = new PdfStamper(reader, out, pdfVersion, append);
             stp.sigApp = new PdfSignatureAppearance(stp.stamper);
             stp.sigApp.setTempFile(tempFile);
         }
+        stp.sigApp.setDigestOut(digestOut);
         stp.sigApp.setOriginalout(os);
         stp.sigApp.setStamper(stp);
         stp.hasSignature = true;
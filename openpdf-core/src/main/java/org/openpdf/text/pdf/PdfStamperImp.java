@@ -148,7 +148,7 @@ class PdfStamperImp extends PdfWriter {
                 this.os.write(buf, 0, n);
             }
             file.close();
-            prevxref = reader.getLastXref();
+            prevxref = reader.getLongLastXref();
             reader.setAppendable(true);
         } else {
             if (pdfVersion == null || pdfVersion.isEmpty()) {
@@ -125,6 +125,11 @@ public class PdfStream extends PdfDictionary {
     protected long inputStreamLength = -1;
     protected PdfWriter writer;
     protected long rawLength;
+    /**
+     * The compression level of a compression deferred with {@link #deferFlateCompress(int)}.
+     */
+    private int deferredCompressionLevel = DEFAULT_COMPRESSION;
+    private boolean compressionDeferred = false;
 
     // constructors
 
@@ -249,16 +254,20 @@ public class PdfStream extends PdfDictionary {
         }
         try {
             // compress
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            Deflater deflater = new Deflater(compressionLevel);
-            DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
+            ByteArrayOutputStream stream;
             if (streamBytes != null) {
-                streamBytes.writeTo(zip);
+                stream = new ByteArrayOutputStream(streamBytes.size() / 2 + 64);
+                Deflater deflater = FlateCodec.acquireDeflater(compressionLevel);
+                try {
+                    DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
+                    streamBytes.writeTo(zip);
+                    zip.close();
+                } finally {
+                    FlateCodec.releaseDeflater(deflater);
+                }
             } else {
-                zip.write(bytes);
+                stream = FlateCodec.deflate(bytes, 0, bytes.length, compressionLevel);
             }
-            zip.close();
-            deflater.end();
             // update the object
             streamBytes = stream;
             bytes = null;
@@ -276,6 +285,53 @@ public class PdfStream extends PdfDictionary {
         }
     }
 
+    /**
+     * Requests compression of the stream without compressing it right away. The stream is compressed when it is
+     * added to the body of a <CODE>PdfWriter</CODE>, on a worker thread if the writer has a compression executor,
+     * or at the latest when it is written.
+     *
+     * @param compressionLevel the compression level (0 = best speed, 9 = best compression, -1 is default)
+     * @see PdfWriter#setCompressionExecutor(java.util.concurrent.Executor)
+     */
+    void deferFlateCompress(int compressionLevel) {
+        if (!Document.compress || compressed || inputStream != null) {
+            return;
+        }
+        deferredCompressionLevel = compressionLevel;
+        compressionDeferred = true;
+    }
+
+    /**
+     * Checks if a deferred compression is still pending.
+     *
+     * @return <CODE>true</CODE> if {@link #flateCompressDeferred()} has work to do
+     */
+    boolean isFlateCompressDeferred() {
+        return compressionDeferred;
+    }
+
+    /**
+     * Performs the compression requested with {@link #deferFlateCompress(int)}, if any.
+     */
+    void flateCompressDeferred() {
+        if (compressionDeferred) {
+            compressionDeferred = false;
+            flateCompress(deferredCompressionLevel);
+        }
+    }
+
+    /**
+     * Gets the number of bytes held by the stream before any pending compression.
+     *
+     * @return the size of the stream data
+     */
+    int getPendingSize() {
+        if (streamBytes != null) {
+            return streamBytes.size();
+        }
+        return bytes == null ? 0 : bytes.length;
+    }
+
 //    public int getStreamLength(PdfWriter writer) {
 //        if (dicBytes == null)
 //            toPdf(writer);
@@ -293,6 +349,7 @@ public class PdfStream extends PdfDictionary {
      * @see org.openpdf.text.pdf.PdfDictionary#toPdf(org.openpdf.text.pdf.PdfWriter, java.io.OutputStream)
      */
     public void toPdf(PdfWriter writer, OutputStream os) throws IOException {
+        flateCompressDeferred();
         if (inputStream != null && compressed) {
             put(PdfName.FILTER, PdfName.FLATEDECODE);
         }
@@ -334,7 +391,7 @@ public class PdfStream extends PdfDictionary {
             }
             Deflater deflater = null;
             if (compressed) {
-                deflater = new Deflater(compressionLevel);
+                deflater = FlateCodec.acquireDeflater(compressionLevel);
                 fout = def = new DeflaterOutputStream(fout, deflater, 0x8000);
             }
 
@@ -349,7 +406,7 @@ public class PdfStream extends PdfDictionary {
             }
             if (def != null) {
                 def.finish();
-                deflater.end();
+                FlateCodec.releaseDeflater(deflater);
             }
             if (ose != null) {
                 ose.finish();
@@ -357,13 +414,13 @@ public class PdfStream extends PdfDictionary {
             inputStreamLength = osc.getCounter();
         } else {
             if (crypto != null && !crypto.isEmbeddedFilesOnly()) {
-                byte[] b;
+                OutputStreamEncryption ose = crypto.getEncryptionStream(os);
                 if (streamBytes != null) {
-                    b = crypto.encryptByteArray(streamBytes.toByteArray());
+                    streamBytes.writeTo(ose);
                 } else {
-                    b = crypto.encryptByteArray(bytes);
+                    ose.write(bytes);
                 }
-                os.write(b);
+                ose.finish();
             } else {
                 if (streamBytes != null) {
                     streamBytes.writeTo(os);
@@ -382,6 +439,7 @@ public class PdfStream extends PdfDictionary {
      * @throws IOException on error
      */
     public void writeContent(OutputStream os) throws IOException {
+        flateCompressDeferred();
         if (streamBytes != null) {
             streamBytes.writeTo(os);
         } else if (bytes != null) {
@@ -77,21 +77,26 @@ import java.awt.Color;
 import java.awt.color.ICC_Profile;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.security.cert.Certificate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Formatter;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * A <CODE>DocWriter</CODE> class for PDF.
@@ -563,7 +568,7 @@ public class PdfWriter extends DocWriter implements
     /**
      * A number referring to the previous Cross-Reference Table.
      */
-    protected int prevxref = 0;
+    protected long prevxref = 0;
     protected List newBookmarks;
     /**
      * Stores the version information for the header and the catalog.
@@ -587,6 +592,22 @@ public class PdfWriter extends DocWriter implements
      * @since 2.1.3
      */
     protected int compressionLevel = PdfStream.DEFAULT_COMPRESSION;
+    /**
+     * The executor compressing large streams off the writing thread, <CODE>null</CODE> to compress in line.
+     */
+    protected Executor compressionExecutor = null;
+    /**
+     * The minimum size in bytes of a stream to be compressed by the compression executor.
+     */
+    protected int parallelCompressionThreshold = 16 * 1024;
+    /**
+     * Whether page contents are deflated straight into the output instead of into an intermediate array.
+     */
+    protected boolean streamPageContents = false;
+    /**
+     * The maximum number of objects in an object stream when full compression is on.
+     */
+    protected int objectStreamSize = 200;
     /**
      * The fonts of this document
      */
@@ -1171,6 +1192,9 @@ public class PdfWriter extends DocWriter implements
         PdfIndirectObject object;
         try {
             object = addToBody(contents);
+            if (contents.isStreamed()) {
+                contents.writeLength();
+            }
         } catch (IOException ioe) {
             throw new ExceptionConverter(ioe);
         }
@@ -1994,6 +2018,113 @@ public class PdfWriter extends DocWriter implements
         }
     }
 
+    /**
+     * Returns the executor used to compress large streams, see {@link #setCompressionExecutor(Executor)}.
+     *
+     * @return the executor or <CODE>null</CODE> if streams are compressed on the writing thread
+     */
+    public Executor getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
+    /**
+     * Sets an executor to compress page content streams and raw images on worker threads. The objects are still
+     * written in the order they were added, so object numbers and the cross-reference table are the same as with
+     * compression on the writing thread. Streams smaller than {@link #getParallelCompressionThreshold()} are
+     * compressed in line.
+     * <p>
+     * The executor is not shut down by the writer. It should be set before the document is opened.
+     *
+     * @param compressionExecutor the executor, for instance <CODE>ForkJoinPool.commonPool()</CODE>, or
+     *                            <CODE>null</CODE> to compress on the writing thread
+     */
+    public void setCompressionExecutor(Executor compressionExecutor) {
+        this.compressionExecutor = compressionExecutor;
+    }
+
+    /**
+     * Returns the minimum size of a stream to be compressed by the compression executor.
+     *
+     * @return the size in bytes
+     */
+    public int getParallelCompressionThreshold() {
+        return parallelCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of a stream to be compressed by the compression executor. Smaller streams are not worth
+     * the hand-off and are compressed on the writing thread.
+     *
+     * @param parallelCompressionThreshold the size in bytes
+     */
+    public void setParallelCompressionThreshold(int parallelCompressionThreshold) {
+        this.parallelCompressionThreshold = parallelCompressionThreshold;
+    }
+
+    /**
+     * Checks if page contents are deflated straight into the output.
+     *
+     * @return <CODE>true</CODE> if page contents are streamed
+     * @since 3.0.1
+     */
+    public boolean isStreamPageContents() {
+        return streamPageContents;
+    }
+
+    /**
+     * Deflates the content of each finished page straight into the output, without first compressing it into an
+     * intermediate array. The length of each content stream is then written as a separate indirect object after the
+     * stream. This has no effect when a compression executor is set, since the executor compresses pages in memory.
+     *
+     * @param streamPageContents <CODE>true</CODE> to stream page contents
+     * @since 3.0.1
+     */
+    public void setStreamPageContents(boolean streamPageContents) {
+        this.streamPageContents = streamPageContents;
+    }
+
+    /**
+     * Returns the maximum number of objects written to one object stream when full compression is on.
+     *
+     * @return the number of objects per object stream
+     */
+    public int getObjectStreamSize() {
+        return objectStreamSize;
+    }
+
+    /**
+     * Sets the maximum number of objects written to one object stream when full compression is on. Larger object
+     * streams compress better, smaller ones need less memory while they are built. The default is 200.
+     *
+     * @param objectStreamSize the number of objects per object stream, between 1 and 65535
+     */
+    public void setObjectStreamSize(int objectStreamSize) {
+        if (objectStreamSize < 1 || objectStreamSize > GENERATION_MAX) {
+            throw new IllegalArgumentException(
+                    MessageLocalization.getComposedMessage("object.stream.size.must.be.between.1.and.65535"));
+        }
+        this.objectStreamSize = objectStreamSize;
+    }
+
+    /**
+     * Returns the number of entries in the cross-reference table built so far, including the reserved object numbers
+     * whose object is not written yet.
+     *
+     * @return the number of cross-reference entries
+     */
+    public int getCrossReferenceCount() {
+        return body.crossReferenceCount();
+    }
+
+    /**
+     * Returns the heap used by the cross-reference table built so far.
+     *
+     * @return the size of the cross-reference table in bytes
+     */
+    public long getCrossReferenceMemoryUsage() {
+        return body.crossReferenceMemoryUsage();
+    }
+
     /**
      * Adds a <CODE>BaseFont</CODE> to the document but not to the page resources. It is used for templates.
      *
@@ -2770,7 +2901,7 @@ public class PdfWriter extends DocWriter implements
                     PdfName mname = images.get(maskImage.getMySerialId());
                     maskRef = getImageReference(mname);
                 }
-                PdfImage i = new PdfImage(image, "img" + images.size(), maskRef);
+                PdfImage i = new PdfImage(image, "img" + images.size(), maskRef, compressionExecutor != null);
                 if (image instanceof ImgJBIG2) {
                     byte[] globals = ((ImgJBIG2) image).getGlobalBytes();
                     if (globals != null) {
@@ -2968,14 +3099,17 @@ public class PdfWriter extends DocWriter implements
      */
     public static class PdfBody {
 
-        private static final int OBJSINSTREAM = 200;
+        /**
+         * The maximum number of objects waiting for a stream compression before the writer blocks.
+         */
+        static final int MAX_PENDING_OBJECTS = 64;
 
         // membervariables
 
         /**
-         * array containing the cross-reference table of the normal objects.
+         * the cross-reference table of the objects, indexed by object number.
          */
-        private final TreeSet<PdfCrossReference> xrefs;
+        private final CrossReferenceTable xrefs = new CrossReferenceTable();
         private final PdfWriter writer;
         private int refnum;
         /**
@@ -2986,6 +3120,10 @@ public class PdfWriter extends DocWriter implements
         private ByteBuffer streamObjects;
         private int currentObjNum;
         private int numObj = 0;
+        /**
+         * Objects added while a stream compression was running, in the order they have to be written.
+         */
+        private final ArrayDeque<PendingObject> pending = new ArrayDeque<>();
 
         // constructors
 
@@ -2995,8 +3133,7 @@ public class PdfWriter extends DocWriter implements
          * @param writer
          */
         PdfBody(PdfWriter writer) {
-            xrefs = new TreeSet<>();
-            xrefs.add(new PdfCrossReference(0, 0, GENERATION_MAX));
+            xrefs.reserve(0);
             position = writer.getOs().getCounter();
             refnum = 1;
             this.writer = writer;
@@ -3008,8 +3145,8 @@ public class PdfWriter extends DocWriter implements
             this.refnum = refnum;
         }
 
-        private PdfWriter.PdfBody.PdfCrossReference addToObjStm(PdfObject obj, int nObj) throws IOException {
-            if (numObj >= OBJSINSTREAM) {
+        private void addToObjStm(PdfObject obj, int nObj) throws IOException {
+            if (numObj >= writer.getObjectStreamSize()) {
                 flushObjStm();
             }
             if (index == null) {
@@ -3026,7 +3163,7 @@ public class PdfWriter extends DocWriter implements
             writer.crypto = enc;
             streamObjects.append(' ');
             index.append(nObj).append(' ').append(p).append(' ');
-            return new PdfWriter.PdfBody.PdfCrossReference(2, nObj, currentObjNum, idx);
+            xrefs.put(nObj, CrossReferenceTable.COMPRESSED, currentObjNum, idx);
         }
 
         private void flushObjStm() throws IOException {
@@ -3076,7 +3213,7 @@ public class PdfWriter extends DocWriter implements
 
         int getIndirectReferenceNumber() {
             int n = refnum++;
-            xrefs.add(new PdfCrossReference(n, 0, GENERATION_MAX));
+            xrefs.reserve(n);
             return n;
         }
 
@@ -3107,23 +3244,112 @@ public class PdfWriter extends DocWriter implements
 
         PdfIndirectObject add(PdfObject object, int refNumber, boolean inObjStm) throws IOException {
             if (inObjStm && object.canBeInObjStm() && writer.isFullCompression()) {
-                PdfCrossReference pxref = addToObjStm(object, refNumber);
-                PdfIndirectObject indirect = new PdfIndirectObject(refNumber, object, writer);
-                if (!xrefs.add(pxref)) {
-                    xrefs.remove(pxref);
-                    xrefs.add(pxref);
+                addToObjStm(object, refNumber);
+                return new PdfIndirectObject(refNumber, object, writer);
+            } else if (object instanceof PdfStream stream && stream.isFlateCompressDeferred()) {
+                Executor executor = writer.getCompressionExecutor();
+                if (executor == null || stream.getPendingSize() < writer.getParallelCompressionThreshold()) {
+                    stream.flateCompressDeferred();
+                } else {
+                    PdfIndirectObject indirect = new PdfIndirectObject(refNumber, object, writer);
+                    enqueue(new PendingObject(refNumber, object,
+                            CompletableFuture.runAsync(stream::flateCompressDeferred, executor)));
+                    return indirect;
                 }
-                return indirect;
-            } else {
-                PdfIndirectObject indirect = new PdfIndirectObject(refNumber, object, writer);
-                PdfCrossReference pxref = new PdfCrossReference(refNumber, position);
-                if (!xrefs.add(pxref)) {
-                    xrefs.remove(pxref);
-                    xrefs.add(pxref);
+            }
+            if (pending.isEmpty()) {
+                return write(object, refNumber);
+            }
+            // keep the order: serialize now, write once the compressions ahead of it are done
+            PdfIndirectObject indirect = new PdfIndirectObject(refNumber, object, writer);
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            indirect.writeTo(serialized);
+            enqueue(new PendingObject(refNumber, serialized));
+            return indirect;
+        }
+
+        /**
+         * Queues an object behind the running compressions and writes what is ready. When more than
+         * {@link #MAX_PENDING_OBJECTS} objects are waiting, blocks on the oldest compression so the queue, and the
+         * serialized objects it holds, stay bounded.
+         *
+         * @param object the object to queue
+         * @throws IOException on error
+         */
+        private void enqueue(PendingObject object) throws IOException {
+            pending.add(object);
+            writePending(false);
+            while (pending.size() > MAX_PENDING_OBJECTS) {
+                writePending(true);
+            }
+        }
+
+        /**
+         * Gets the number of objects waiting for a stream compression.
+         *
+         * @return the number of queued objects
+         */
+        int getPendingCount() {
+            return pending.size();
+        }
+
+        private PdfIndirectObject write(PdfObject object, int refNumber) throws IOException {
+            PdfIndirectObject indirect = new PdfIndirectObject(refNumber, object, writer);
+            addCrossReference(refNumber);
+            indirect.writeTo(writer.getOs());
+            position = writer.getOs().getCounter();
+            return indirect;
+        }
+
+        private void addCrossReference(int refNumber) {
+            xrefs.put(refNumber, CrossReferenceTable.IN_USE, position, 0);
+        }
+
+        /**
+         * Writes the pending objects in order, as far as their compression has completed.
+         *
+         * @param wait <CODE>true</CODE> to wait for the first pending compression, <CODE>false</CODE> to only write
+         *             what is ready
+         * @throws IOException on error
+         */
+        private void writePending(boolean wait) throws IOException {
+            while (!pending.isEmpty()) {
+                PendingObject next = pending.peek();
+                if (next.compression != null) {
+                    if (!wait && !next.compression.isDone()) {
+                        return;
+                    }
+                    try {
+                        next.compression.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(e.getMessage());
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof RuntimeException re) {
+                            throw re;
+                        }
+                        throw new ExceptionConverter(e);
+                    }
+                    pending.poll();
+                    write(next.object, next.refNumber);
+                } else {
+                    pending.poll();
+                    addCrossReference(next.refNumber);
+                    next.serialized.writeTo(writer.getOs());
+                    position = writer.getOs().getCounter();
                 }
-                indirect.writeTo(writer.getOs());
-                position = writer.getOs().getCounter();
-                return indirect;
+                wait = false;
+            }
+        }
+
+        /**
+         * Waits for all pending stream compressions and writes the remaining objects.
+         *
+         * @throws IOException on error
+         */
+        void flushPending() throws IOException {
+            while (!pending.isEmpty()) {
+                writePending(true);
             }
         }
 
@@ -3133,6 +3359,11 @@ public class PdfWriter extends DocWriter implements
          * @return an offset
          */
         long offset() {
+            try {
+                flushPending();
+            } catch (IOException e) {
+                throw new ExceptionConverter(e);
+            }
             return position;
         }
 
@@ -3142,7 +3373,25 @@ public class PdfWriter extends DocWriter implements
          * @return a number of objects
          */
         int size() {
-            return Math.max((xrefs.last()).getRefnum() + 1, refnum);
+            return Math.max(xrefs.size(), refnum);
+        }
+
+        /**
+         * Returns the number of entries in the cross-reference table.
+         *
+         * @return the number of entries
+         */
+        int crossReferenceCount() {
+            return xrefs.count();
+        }
+
+        /**
+         * Returns the heap used by the cross-reference table.
+         *
+         * @return the size in bytes
+         */
+        long crossReferenceMemoryUsage() {
+            return xrefs.memoryUsage();
         }
 
         /**
@@ -3158,50 +3407,25 @@ public class PdfWriter extends DocWriter implements
          */
 
         void writeCrossReferenceTable(OutputStream os, PdfIndirectReference root, PdfIndirectReference info,
-                PdfIndirectReference encryption, PdfObject fileID, int prevxref) throws IOException {
+                PdfIndirectReference encryption, PdfObject fileID, long prevxref) throws IOException {
             int refNumber = 0;
+            flushPending();
             // Old-style xref tables limit object offsets to 10 digits
             boolean useNewXrefFormat = writer.isFullCompression() || position > 9_999_999_999L;
             if (useNewXrefFormat) {
                 flushObjStm();
+                flushPending();
                 refNumber = getIndirectReferenceNumber();
-                xrefs.add(new PdfCrossReference(refNumber, position));
-            }
-            PdfCrossReference entry = xrefs.first();
-            int first = entry.getRefnum();
-            int len = 0;
-            ArrayList<Integer> sections = new ArrayList<>();
-            for (PdfCrossReference xref1 : xrefs) {
-                entry = xref1;
-                if (first + len == entry.getRefnum()) {
-                    ++len;
-                } else {
-                    sections.add(first);
-                    sections.add(len);
-                    first = entry.getRefnum();
-                    len = 1;
-                }
+                addCrossReference(refNumber);
             }
-            sections.add(first);
-            sections.add(len);
             PdfTrailer trailer = new PdfTrailer(size(), root, info, encryption, fileID, prevxref);
             if (useNewXrefFormat) {
                 int mid = 8 - (Long.numberOfLeadingZeros(position) >> 3);
-                ByteBuffer buf = new ByteBuffer();
-
-                for (PdfCrossReference xref : xrefs) {
-                    entry = xref;
-                    entry.toPdf(mid, buf);
-                }
-                PdfStream xr = new PdfStream(buf.toByteArray());
-                xr.flateCompress(writer.getCompressionLevel());
+                PdfArray idx = new PdfArray();
+                PdfStream xr = xrefs.toXrefStream(mid, idx, writer.getCompressionLevel());
                 xr.putAll(trailer);
                 xr.put(PdfName.W, new PdfArray(new int[]{1, mid, 2}));
                 xr.put(PdfName.TYPE, PdfName.XREF);
-                PdfArray idx = new PdfArray();
-                for (Integer section : sections) {
-                    idx.add(new PdfNumber(section));
-                }
                 xr.put(PdfName.INDEX, idx);
                 PdfEncryption enc = writer.crypto;
                 writer.crypto = null;
@@ -3210,19 +3434,7 @@ public class PdfWriter extends DocWriter implements
                 writer.crypto = enc;
             } else {
                 os.write(getISOBytes("xref\n"));
-                Iterator<PdfCrossReference> i = xrefs.iterator();
-                for (int k = 0; k < sections.size(); k += 2) {
-                    first = sections.get(k);
-                    len = sections.get(k + 1);
-                    os.write(getISOBytes(String.valueOf(first)));
-                    os.write(getISOBytes(" "));
-                    os.write(getISOBytes(String.valueOf(len)));
-                    os.write('\n');
-                    while (len-- > 0) {
-                        entry = i.next();
-                        entry.toPdf(os);
-                    }
-                }
+                xrefs.writeTable(os);
                 // make the trailer
                 trailer.toPdf(writer, os);
             }
@@ -3230,6 +3442,220 @@ public class PdfWriter extends DocWriter implements
 
         // inner classes
 
+        /**
+         * An object that was added to the body but is not written yet, because a stream compression ahead of it is
+         * still running. Either the object waits for its own compression or it has already been serialized.
+         */
+        private static final class PendingObject {
+
+            private final int refNumber;
+            private final PdfObject object;
+            private final CompletableFuture<Void> compression;
+            private final ByteArrayOutputStream serialized;
+
+            PendingObject(int refNumber, PdfObject object, CompletableFuture<Void> compression) {
+                this.refNumber = refNumber;
+                this.object = object;
+                this.compression = compression;
+                this.serialized = null;
+            }
+
+            PendingObject(int refNumber, ByteArrayOutputStream serialized) {
+                this.refNumber = refNumber;
+                this.object = null;
+                this.compression = null;
+                this.serialized = serialized;
+            }
+        }
+
+        /**
+         * The cross-reference table of the body, kept in primitive arrays indexed by object number. An entry takes 11
+         * bytes, so documents with millions of objects don't need an object per entry.
+         */
+        static final class CrossReferenceTable {
+
+            static final byte ABSENT = 0;
+            static final byte FREE = 1;
+            static final byte IN_USE = 2;
+            static final byte COMPRESSED = 3;
+
+            private static final int INITIAL_CAPACITY = 256;
+            private static final int TABLE_BUFFER_ENTRIES = 512;
+
+            /**
+             * the entry type plus one, <CODE>ABSENT</CODE> for object numbers not in the table.
+             */
+            private byte[] types = new byte[INITIAL_CAPACITY];
+            /**
+             * the byte offset of the object, or the number of the object stream that contains it.
+             */
+            private long[] offsets = new long[INITIAL_CAPACITY];
+            /**
+             * the generation of the object, or its index in the object stream.
+             */
+            private char[] generations = new char[INITIAL_CAPACITY];
+            private int size;
+            private int count;
+
+            /**
+             * Reserves an object number as a free entry, unless the number already has an entry.
+             *
+             * @param refnum the object number
+             */
+            void reserve(int refnum) {
+                if (refnum >= size || types[refnum] == ABSENT) {
+                    put(refnum, FREE, 0, GENERATION_MAX);
+                }
+            }
+
+            /**
+             * Sets the entry of an object number, replacing the existing one.
+             *
+             * @param refnum     the object number
+             * @param type       <CODE>FREE</CODE>, <CODE>IN_USE</CODE> or <CODE>COMPRESSED</CODE>
+             * @param offset     the byte offset or the object stream number
+             * @param generation the generation or the index in the object stream
+             */
+            void put(int refnum, byte type, long offset, int generation) {
+                if (refnum >= types.length) {
+                    int capacity = (int) Math.min(Math.max((long) types.length * 2, refnum + 1L), Integer.MAX_VALUE - 8);
+                    types = Arrays.copyOf(types, capacity);
+                    offsets = Arrays.copyOf(offsets, capacity);
+                    generations = Arrays.copyOf(generations, capacity);
+                }
+                if (refnum >= size || types[refnum] == ABSENT) {
+                    ++count;
+                }
+                types[refnum] = type;
+                offsets[refnum] = offset;
+                generations[refnum] = (char) generation;
+                size = Math.max(size, refnum + 1);
+            }
+
+            /**
+             * Returns the highest object number in the table plus one.
+             *
+             * @return the size of the table
+             */
+            int size() {
+                return size;
+            }
+
+            int count() {
+                return count;
+            }
+
+            long memoryUsage() {
+                return (long) types.length * (Byte.BYTES + Long.BYTES + Character.BYTES);
+            }
+
+            /**
+             * Returns the end of the section of consecutive entries starting at <CODE>start</CODE>.
+             */
+            private int sectionEnd(int start) {
+                int end = start;
+                while (end < size && types[end] != ABSENT) {
+                    ++end;
+                }
+                return end;
+            }
+
+            /**
+             * Writes the classic cross-reference table, sections and 20 byte entries.
+             *
+             * @param os the output stream
+             * @throws IOException on error
+             */
+            void writeTable(OutputStream os) throws IOException {
+                byte[] buf = new byte[20 * TABLE_BUFFER_ENTRIES];
+                for (int first = 0; first < size; ++first) {
+                    if (types[first] == ABSENT) {
+                        continue;
+                    }
+                    int end = sectionEnd(first);
+                    os.write(getISOBytes(first + " " + (end - first) + "\n"));
+                    int p = 0;
+                    for (int k = first; k < end; ++k) {
+                        if (p == buf.length) {
+                            os.write(buf, 0, p);
+                            p = 0;
+                        }
+                        writeDigits(buf, p, 10, offsets[k]);
+                        buf[p + 10] = ' ';
+                        writeDigits(buf, p + 11, 5, generations[k]);
+                        buf[p + 16] = ' ';
+                        buf[p + 17] = (byte) (generations[k] == GENERATION_MAX ? 'f' : 'n');
+                        buf[p + 18] = ' ';
+                        buf[p + 19] = '\n';
+                        p += 20;
+                    }
+                    os.write(buf, 0, p);
+                    first = end;
+                }
+            }
+
+            private static void writeDigits(byte[] buf, int off, int digits, long value) {
+                for (int k = off + digits - 1; k >= off; --k) {
+                    buf[k] = (byte) ('0' + value % 10);
+                    value /= 10;
+                }
+            }
+
+            /**
+             * Builds the content of a cross-reference stream. The entries are compressed while they are generated,
+             * so only the compressed table is held in memory.
+             *
+             * @param midSize          the number of bytes of the offset field
+             * @param index            receives the sections of the table
+             * @param compressionLevel the compression level
+             * @return the stream, without its dictionary entries
+             * @throws IOException on error
+             */
+            PdfStream toXrefStream(int midSize, PdfArray index, int compressionLevel) throws IOException {
+                boolean compress = Document.compress;
+                ByteArrayOutputStream out = new ByteArrayOutputStream(compress ? 1024 : count * (midSize + 3));
+                Deflater deflater = compress ? FlateCodec.acquireDeflater(compressionLevel) : null;
+                try {
+                    OutputStream entries = compress ? new DeflaterOutputStream(out, deflater, 8192) : out;
+                    byte[] entry = new byte[midSize + 3];
+                    for (int first = 0; first < size; ++first) {
+                        if (types[first] == ABSENT) {
+                            continue;
+                        }
+                        int end = sectionEnd(first);
+                        index.add(new PdfNumber(first));
+                        index.add(new PdfNumber(end - first));
+                        for (int k = first; k < end; ++k) {
+                            entry[0] = (byte) (types[k] - 1);
+                            long offset = offsets[k];
+                            for (int m = midSize; m > 0; --m) {
+                                entry[m] = (byte) offset;
+                                offset >>>= 8;
+                            }
+                            entry[midSize + 1] = (byte) (generations[k] >>> 8);
+                            entry[midSize + 2] = (byte) generations[k];
+                            entries.write(entry);
+                        }
+                        first = end;
+                    }
+                    entries.close();
+                } finally {
+                    if (deflater != null) {
+                        FlateCodec.releaseDeflater(deflater);
+                    }
+                }
+                PdfStream stream = new PdfStream();
+                stream.streamBytes = out;
+                if (compress) {
+                    stream.compressed = true;
+                    stream.compressionLevel = compressionLevel;
+                    stream.put(PdfName.FILTER, PdfName.FLATEDECODE);
+                }
+                stream.put(PdfName.LENGTH, new PdfNumber(out.size()));
+                return stream;
+            }
+        }
+
         /**
          * <CODE>PdfCrossReference</CODE> is an entry in the PDF Cross-Reference table.
          */
@@ -3379,7 +3805,7 @@ public class PdfWriter extends DocWriter implements
          */
 
         PdfTrailer(int size, PdfIndirectReference root, PdfIndirectReference info, PdfIndirectReference encryption,
-                PdfObject fileID, int prevxref) {
+                PdfObject fileID, long prevxref) {
             put(PdfName.SIZE, new PdfNumber(size));
             put(PdfName.ROOT, root);
             if (info != null) {
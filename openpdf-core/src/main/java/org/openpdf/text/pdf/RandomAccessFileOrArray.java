@@ -161,6 +161,22 @@ public class RandomAccessFileOrArray implements DataInput, Closeable {
         plainRandomAccess = file.plainRandomAccess;
     }
 
+    /**
+     * Creates an independent reader over the same data source. An open memory mapped file is shared instead of being
+     * mapped again. The new reader has its own position, so it can be used by another thread.
+     *
+     * @return a new reader over the same data
+     * @throws IOException if the data source can't be shared, as a stream read once from start to end
+     */
+    public RandomAccessFileOrArray createView() throws IOException {
+        RandomAccessFileOrArray view = new RandomAccessFileOrArray(this);
+        MappedRandomAccessFile mapped = rf;
+        if (mapped != null) {
+            view.rf = mapped.duplicate();
+        }
+        return view;
+    }
+
     public static byte[] InputStreamToArray(InputStream is) throws IOException {
         byte[] b = new byte[8192];
         ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -263,12 +279,12 @@ public class RandomAccessFileOrArray implements DataInput, Closeable {
                 adj = 1;
             }
         }
-        int pos;
-        int len;
-        int newpos;
+        long pos;
+        long len;
+        long newpos;
 
-        pos = getFilePointer();
-        len = length();
+        pos = getLongFilePointer();
+        len = longLength();
         newpos = pos + n;
         if (newpos > len) {
             newpos = len;
@@ -276,7 +292,7 @@ public class RandomAccessFileOrArray implements DataInput, Closeable {
         seek(newpos);
 
         /* return the actual number of bytes skipped */
-        return newpos - pos + adj;
+        return (int) (newpos - pos) + adj;
     }
 
     public void reOpen() throws IOException {
@@ -315,16 +331,37 @@ public class RandomAccessFileOrArray implements DataInput, Closeable {
         }
     }
 
+    /**
+     * Returns the length of the data source as an <CODE>int</CODE>. Sources larger than 2 GB are truncated, use
+     * {@link #longLength()} for those.
+     *
+     * @return the length of the data source
+     * @throws IOException on error
+     */
     public int length() throws IOException {
+        return (int) longLength();
+    }
+
+    /**
+     * Returns the length of the data source. Unlike {@link #length()} this is valid for files larger than 2 GB.
+     *
+     * @return the length of the data source
+     * @throws IOException on error
+     */
+    public long longLength() throws IOException {
         if (arrayIn == null) {
             insureOpen();
-            return (int) (plainRandomAccess ? trf.length() : rf.length()) - startOffset;
+            return (plainRandomAccess ? trf.length() : rf.length()) - startOffset;
         } else {
             return arrayIn.length - startOffset;
         }
     }
 
     public void seek(int pos) throws IOException {
+        seek((long) pos);
+    }
+
+    public void seek(long pos) throws IOException {
         pos += startOffset;
         isBack = false;
         if (arrayIn == null) {
@@ -335,19 +372,32 @@ public class RandomAccessFileOrArray implements DataInput, Closeable {
                 rf.seek(pos);
             }
         } else {
-            arrayInPtr = pos;
+            arrayInPtr = (int) Math.min(pos, Integer.MAX_VALUE);
         }
     }
 
-    public void seek(long pos) throws IOException {
-        seek((int) pos);
+    /**
+     * Returns the current position as an <CODE>int</CODE>. Positions past 2 GB are truncated, use
+     * {@link #getLongFilePointer()} for those.
+     *
+     * @return the current position
+     * @throws IOException on error
+     */
+    public int getFilePointer() throws IOException {
+        return (int) getLongFilePointer();
     }
 
-    public int getFilePointer() throws IOException {
+    /**
+     * Returns the current position. Unlike {@link #getFilePointer()} this is valid for files larger than 2 GB.
+     *
+     * @return the current position
+     * @throws IOException on error
+     */
+    public long getLongFilePointer() throws IOException {
         insureOpen();
         int n = isBack ? 1 : 0;
         if (arrayIn == null) {
-            return (int) (plainRandomAccess ? trf.getFilePointer() : rf.getFilePointer()) - n - startOffset;
+            return (plainRandomAccess ? trf.getFilePointer() : rf.getFilePointer()) - n - startOffset;
         } else {
             return arrayInPtr - n - startOffset;
         }
@@ -595,7 +645,7 @@ public class RandomAccessFileOrArray implements DataInput, Closeable {
                     break;
                 case '\r':
                     eol = true;
-                    int cur = getFilePointer();
+                    long cur = getLongFilePointer();
                     if ((read()) != '\n') {
                         seek(cur);
                     }
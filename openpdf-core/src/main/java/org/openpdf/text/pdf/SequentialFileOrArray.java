@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+
+package org.openpdf.text.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.openpdf.text.error_messages.MessageLocalization;
+
+/**
+ * A <CODE>RandomAccessFileOrArray</CODE> that reads an <CODE>InputStream</CODE> from start to end, for a tokeniser
+ * that doesn't need to seek, such as the one of a content stream. Only as much of the stream as fits in a small buffer
+ * is held in memory. Seeking backwards isn't supported.
+ */
+final class SequentialFileOrArray extends RandomAccessFileOrArray {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream is;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLength;
+    /**
+     * The position of the start of the buffer in the stream.
+     */
+    private long bufferStart;
+
+    SequentialFileOrArray(InputStream is) {
+        super(new byte[0]);
+        this.is = is;
+    }
+
+    private boolean fill() throws IOException {
+        bufferStart += bufferLength;
+        bufferPos = 0;
+        bufferLength = 0;
+        int n = is.read(buffer, 0, BUFFER_SIZE);
+        if (n <= 0) {
+            return false;
+        }
+        bufferLength = n;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (isBack) {
+            isBack = false;
+            return back & 0xff;
+        }
+        if (bufferPos == bufferLength && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        if (isBack) {
+            isBack = false;
+            b[off++] = back;
+            --len;
+            n = 1;
+        }
+        while (len > 0) {
+            if (bufferPos == bufferLength && !fill()) {
+                break;
+            }
+            int count = Math.min(len, bufferLength - bufferPos);
+            System.arraycopy(buffer, bufferPos, b, off, count);
+            bufferPos += count;
+            off += count;
+            len -= count;
+            n += count;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        int skipped = 0;
+        while (skipped < n && read() >= 0) {
+            ++skipped;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void reOpen() {
+        // the stream can only be read once
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        isBack = false;
+        is.close();
+    }
+
+    /**
+     * Returns -1, the length of a stream isn't known before the stream is read.
+     *
+     * @return -1
+     */
+    @Override
+    public long longLength() {
+        return -1;
+    }
+
+    /**
+     * Moves forward to a position. Seeking backwards isn't supported.
+     *
+     * @param pos the position
+     * @throws IOException on error, or if the position is before the current position
+     */
+    @Override
+    public void seek(long pos) throws IOException {
+        long current = getLongFilePointer();
+        if (pos < current) {
+            throw new IOException(MessageLocalization.getComposedMessage("a.sequential.input.can.t.seek.backwards"));
+        }
+        skipBytes((int) Math.min(Integer.MAX_VALUE, pos - current));
+    }
+
+    @Override
+    public long getLongFilePointer() {
+        return bufferStart + bufferPos - (isBack ? 1 : 0);
+    }
+
+    /**
+     * Always throws, a stream can only be read once.
+     *
+     * @throws IOException always
+     */
+    @Override
+    public RandomAccessFileOrArray createView() throws IOException {
+        throw new IOException(MessageLocalization.getComposedMessage("a.sequential.input.can.t.be.shared"));
+    }
+
+    /**
+     * Always throws, a stream has no buffer to expose.
+     *
+     * @throws IOException always
+     */
+    @Override
+    public java.nio.ByteBuffer getNioByteBuffer() throws IOException {
+        throw new IOException(MessageLocalization.getComposedMessage("a.sequential.input.can.t.be.shared"));
+    }
+}
@@ -4,8 +4,7 @@ import org.openpdf.text.ExceptionConverter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import org.openpdf.text.DocumentException;
 import org.apache.fop.fonts.apps.TTFReader;
 import org.apache.fop.fonts.truetype.FontFileReader;
 import org.apache.fop.fonts.truetype.TTFFile;
@@ -15,20 +14,29 @@ import org.apache.fop.fonts.truetype.TTFFile;
  */
 public class TTFCache {
 
-    private static Map<String, TTFFile> ttfFileMap = new ConcurrentHashMap<>();
+    /**
+     * Rough heap size of the parsed data of one glyph: metrics, bounding box, cmap and layout table entries.
+     */
+    private static final long BYTES_PER_GLYPH = 200;
 
-    public static TTFFile getTTFFile(String fileName, TrueTypeFontUnicode ttu) {
+    private static final FontRegistry<String, TTFFile> ttfFileMap = new FontRegistry<>(
+            Long.getLong("org.openpdf.ttfCacheBytes", 64L * 1024 * 1024),
+            ttf -> 4096 + BYTES_PER_GLYPH * ttf.getMtx().size());
 
-        if (ttfFileMap.containsKey(fileName)) {
-            return ttfFileMap.get(fileName);
-        }
-        TTFReader app = new TTFReader();
-        TTFFile ttf = null;
+    /**
+     * Returns the registry of the parsed FOP fonts, to read its counters or change its limit. The limit defaults to
+     * 64 MB and can be set with the system property <CODE>org.openpdf.ttfCacheBytes</CODE>.
+     *
+     * @return the registry
+     */
+    public static FontRegistry<String, TTFFile> getCache() {
+        return ttfFileMap;
+    }
+
+    public static TTFFile getTTFFile(String fileName, TrueTypeFontUnicode ttu) {
         try {
-            ttf = loadTTF(app, fileName, ttu);
-            ttfFileMap.put(fileName, ttf);
-            return ttf;
-        } catch (IOException e) {
+            return ttfFileMap.get(fileName, () -> loadTTF(new TTFReader(), fileName, ttu));
+        } catch (IOException | DocumentException e) {
             throw new ExceptionConverter(e);
         }
     }
@@ -206,6 +206,14 @@ class TrueTypeFont extends BaseFont {
 
     protected HashMap<Integer, int[]> cmapExt;
 
+    /**
+     * Primitive lookup tables for <CODE>cmap10</CODE>, <CODE>cmap31</CODE> and <CODE>cmapExt</CODE>, built on first
+     * use.
+     */
+    private GlyphMetricsTable glyphs10;
+    private GlyphMetricsTable glyphs31;
+    private GlyphMetricsTable glyphsExt;
+
     /**
      * The map containing the kerning information. It represents the content of table 'kern'. The key is an
      * <CODE>Integer</CODE> where the top 16 bits are the glyph number for the first character and the lower 16 bits
@@ -598,7 +606,9 @@ class TrueTypeFont extends BaseFont {
         tables = new HashMap<>();
 
         try {
-            if (ttfAfm == null) {
+            if (ttfAfm == null && preload && isShareFontBytes()) {
+                rf = new RandomAccessFileOrArray(fontBytesCache.get(fileName, () -> readFontFile(fileName)));
+            } else if (ttfAfm == null) {
                 rf = new RandomAccessFileOrArray(fileName, preload, Document.plainRandomAccess);
             } else {
                 rf = new RandomAccessFileOrArray(ttfAfm);
@@ -1170,6 +1180,16 @@ class TrueTypeFont extends BaseFont {
         return dic;
     }
 
+    private static byte[] readFontFile(String fileName) throws IOException {
+        // forceRead leaves the whole file in arrayIn; keep that array instead of copying it
+        RandomAccessFileOrArray file = new RandomAccessFileOrArray(fileName, true, Document.plainRandomAccess);
+        try {
+            return file.arrayIn;
+        } finally {
+            file.close();
+        }
+    }
+
     protected byte[] getFullFont() throws IOException {
         RandomAccessFileOrArray rf2 = null;
         try {
@@ -1405,23 +1425,56 @@ class TrueTypeFont extends BaseFont {
      */
     public int[] getMetricsTT(int c) {
         if (cmapExt != null) {
-            return cmapExt.get(c);
+            return getGlyphsExt().get(c);
         }
         if (!fontSpecific && cmap31 != null) {
-            return cmap31.get(c);
+            return getGlyphs31().get(c);
         }
         if (fontSpecific && cmap10 != null) {
-            return cmap10.get(c);
+            return getGlyphs10().get(c);
         }
         if (cmap31 != null) {
-            return cmap31.get(c);
+            return getGlyphs31().get(c);
         }
         if (cmap10 != null) {
-            return cmap10.get(c);
+            return getGlyphs10().get(c);
         }
         return null;
     }
 
+    /**
+     * Gets the lookup table for <CODE>cmap10</CODE>.
+     *
+     * @return the table or <CODE>null</CODE> if there is no such cmap
+     */
+    GlyphMetricsTable getGlyphs10() {
+        GlyphMetricsTable table = GlyphMetricsTable.of(glyphs10, cmap10);
+        glyphs10 = table;
+        return table;
+    }
+
+    /**
+     * Gets the lookup table for <CODE>cmap31</CODE>.
+     *
+     * @return the table or <CODE>null</CODE> if there is no such cmap
+     */
+    GlyphMetricsTable getGlyphs31() {
+        GlyphMetricsTable table = GlyphMetricsTable.of(glyphs31, cmap31);
+        glyphs31 = table;
+        return table;
+    }
+
+    /**
+     * Gets the lookup table for <CODE>cmapExt</CODE>.
+     *
+     * @return the table or <CODE>null</CODE> if there is no such cmap
+     */
+    GlyphMetricsTable getGlyphsExt() {
+        GlyphMetricsTable table = GlyphMetricsTable.of(glyphsExt, cmapExt);
+        glyphsExt = table;
+        return table;
+    }
+
     /**
      * Gets the postscript font name.
      *
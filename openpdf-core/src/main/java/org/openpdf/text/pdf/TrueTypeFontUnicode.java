@@ -52,7 +52,6 @@ package org.openpdf.text.pdf;
 import org.openpdf.text.DocumentException;
 import org.openpdf.text.Utilities;
 import org.openpdf.text.error_messages.MessageLocalization;
-import java.awt.font.GlyphVector;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -213,6 +212,18 @@ class TrueTypeFontUnicode extends TrueTypeFont implements Comparator<int[]> {
         if (vertical) {
             return text.length() * 1000;
         }
+        // the common cases sum straight from the cmap tables without going through getMetricsTT per character
+        if (cmapExt != null) {
+            if (!fontSpecific) {
+                return getGlyphsExt().getWidth(text);
+            }
+        } else if (fontSpecific) {
+            if (cmap10 != null) {
+                return getGlyphs10().getSymbolWidth(text);
+            }
+        } else if (cmap31 != null) {
+            return getGlyphs31().getWidth(text);
+        }
         int total = 0;
         if (fontSpecific) {
             char[] cc = text.toCharArray();
@@ -235,14 +246,12 @@ class TrueTypeFontUnicode extends TrueTypeFont implements Comparator<int[]> {
         return total;
     }
 
-    int[][] getSentenceMissingCmap(String text, GlyphVector glyphVector) {
+    int[][] getSentenceMissingCmap(String text, int[] glyphCodes, int[] charIndices) {
         char[] chars = text.toCharArray();
-        int[] glyphCodes = glyphVector.getGlyphCodes(0, glyphVector.getNumGlyphs(),
-                new int[glyphVector.getNumGlyphs()]);
 
         List<int[]> missingCmapList = new ArrayList<>();
         for (int i = 0; i < glyphCodes.length; i++) {
-            int charIndex = glyphVector.getGlyphCharIndex(i);
+            int charIndex = charIndices[i];
             int glyphCode = glyphCodes[i];
             Integer cmapCharactherCode = getCharacterCode(glyphCode);
             if (cmapCharactherCode == null) {
@@ -561,25 +570,25 @@ class TrueTypeFontUnicode extends TrueTypeFont implements Comparator<int[]> {
     @Override
     public int[] getMetricsTT(int c) {
         if (cmapExt != null) {
-            return cmapExt.get(c);
+            return getGlyphsExt().get(c);
         }
-        Map<Integer, int[]> map;
+        GlyphMetricsTable table;
         if (fontSpecific) {
-            map = cmap10;
+            table = getGlyphs10();
         } else {
-            map = cmap31;
+            table = getGlyphs31();
         }
-        if (map == null) {
+        if (table == null) {
             return null;
         }
         if (fontSpecific) {
             if ((c & 0xffffff00) == 0 || (c & 0xffffff00) == 0xf000) {
-                return map.get(c & 0xff);
+                return table.get(c & 0xff);
             } else {
                 return null;
             }
         } else {
-            return map.get(c);
+            return table.get(c);
         }
     }
 
@@ -48,21 +48,32 @@
  */
 package org.openpdf.text.pdf.crypto;
 
-import org.bouncycastle.crypto.BlockCipher;
-import org.bouncycastle.crypto.engines.AESEngine;
-import org.bouncycastle.crypto.modes.CBCBlockCipher;
-import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
-import org.bouncycastle.crypto.params.KeyParameter;
-import org.bouncycastle.crypto.params.ParametersWithIV;
+import java.security.GeneralSecurityException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.openpdf.text.ExceptionConverter;
 
 /**
  * Creates an AES Cipher with CBC and padding PKCS5/7.
+ * <p>
+ * The work is done by the JCE <CODE>AES/CBC/NoPadding</CODE> cipher, which the JVM runs with the AES instructions of
+ * the processor when it has them. The padding is done here, so that a bad padding when decrypting keeps the data
+ * instead of failing.
  *
  * @author Paulo Soares (psoares@consiste.pt)
  */
 public class AESCipher {
 
-    private final PaddedBufferedBlockCipher bp;
+    private static final int BLOCK_SIZE = 16;
+
+    private final Cipher cipher;
+    private final boolean forEncryption;
+    /**
+     * The input that isn't given to the cipher yet: a partial block when encrypting, the last block when decrypting.
+     */
+    private final byte[] pending = new byte[BLOCK_SIZE];
+    private int pendingLength;
 
     /**
      * Creates a new instance of AESCipher
@@ -72,39 +83,156 @@ public class AESCipher {
      * @param key           Bytes for key
      */
     public AESCipher(boolean forEncryption, byte[] key, byte[] iv) {
-        BlockCipher aes = new AESEngine();
-        BlockCipher cbc = new CBCBlockCipher(aes);
-        bp = new PaddedBufferedBlockCipher(cbc);
-        KeyParameter kp = new KeyParameter(key);
-        ParametersWithIV piv = new ParametersWithIV(kp, iv);
-        bp.init(forEncryption, piv);
+        this(newCipher(), forEncryption, key, iv);
+    }
+
+    /**
+     * Creates a new instance of AESCipher that reuses a JCE cipher made by {@link #newCipher()}. The JCE cipher keeps
+     * the expanded key between uses with the same key. It must not be used by another AESCipher until this one is
+     * done.
+     *
+     * @param cipher        the JCE cipher
+     * @param forEncryption If it is for encryption
+     * @param key           Bytes for key
+     * @param iv            An initialization vector
+     */
+    public AESCipher(Cipher cipher, boolean forEncryption, byte[] key, byte[] iv) {
+        this.cipher = cipher;
+        this.forEncryption = forEncryption;
+        try {
+            cipher.init(forEncryption ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"),
+                    new IvParameterSpec(iv));
+        } catch (GeneralSecurityException e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    /**
+     * Creates the JCE cipher used by an AESCipher.
+     *
+     * @return an <CODE>AES/CBC/NoPadding</CODE> cipher
+     */
+    public static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/CBC/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    /**
+     * Gets the most bytes that {@link #update(byte[], int, int, byte[], int)} writes for <CODE>inpLen</CODE> bytes.
+     *
+     * @param inpLen the number of bytes to process
+     * @return the size of the output buffer needed
+     */
+    public int getUpdateOutputSize(int inpLen) {
+        return (pendingLength + inpLen) / BLOCK_SIZE * BLOCK_SIZE;
     }
 
     public byte[] update(byte[] inp, int inpOff, int inpLen) {
-        int neededLen = bp.getUpdateOutputSize(inpLen);
-        byte[] outp = null;
-        if (neededLen > 0) {
-            outp = new byte[neededLen];
+        byte[] outp = new byte[getUpdateOutputSize(inpLen)];
+        int n = update(inp, inpOff, inpLen, outp, 0);
+        if (n == 0) {
+            return null;
+        }
+        if (n != outp.length) {
+            byte[] outp2 = new byte[n];
+            System.arraycopy(outp, 0, outp2, 0, n);
+            return outp2;
         }
-        bp.processBytes(inp, inpOff, inpLen, outp, 0);
         return outp;
     }
 
-    public byte[] doFinal() {
-        int neededLen = bp.getOutputSize(0);
-        byte[] outp = new byte[neededLen];
-        int n;
+    /**
+     * Processes bytes into a buffer given by the caller, which can be reused between calls.
+     *
+     * @param inp    the input
+     * @param inpOff the offset of the input
+     * @param inpLen the number of bytes to process
+     * @param outp   the output buffer, at least {@link #getUpdateOutputSize(int)} bytes from <CODE>outOff</CODE>
+     * @param outOff the offset in the output buffer
+     * @return the number of bytes written to <CODE>outp</CODE>
+     */
+    public int update(byte[] inp, int inpOff, int inpLen, byte[] outp, int outOff) {
+        int total = pendingLength + inpLen;
+        // when decrypting the last block is kept back until doFinal, it holds the padding
+        int keep = forEncryption || total % BLOCK_SIZE != 0 ? total % BLOCK_SIZE : Math.min(total, BLOCK_SIZE);
+        int process = total - keep;
+        if (process == 0) {
+            System.arraycopy(inp, inpOff, pending, pendingLength, inpLen);
+            pendingLength = total;
+            return 0;
+        }
         try {
-            n = bp.doFinal(outp, 0);
-        } catch (Exception ex) {
-            return outp;
+            int n = 0;
+            int fromInp = process - pendingLength;
+            if (pendingLength > 0) {
+                int head = BLOCK_SIZE - pendingLength;
+                System.arraycopy(inp, inpOff, pending, pendingLength, head);
+                n = cipher.update(pending, 0, BLOCK_SIZE, outp, outOff);
+                inpOff += head;
+                inpLen -= head;
+                fromInp -= head;
+            }
+            if (fromInp > 0) {
+                n += cipher.update(inp, inpOff, fromInp, outp, outOff + n);
+            }
+            pendingLength = inpLen - fromInp;
+            System.arraycopy(inp, inpOff + fromInp, pending, 0, pendingLength);
+            return n;
+        } catch (GeneralSecurityException e) {
+            throw new ExceptionConverter(e);
         }
+    }
+
+    public byte[] doFinal() {
+        byte[] outp = new byte[BLOCK_SIZE];
+        int n = doFinal(outp, 0);
         if (n != outp.length) {
             byte[] outp2 = new byte[n];
             System.arraycopy(outp, 0, outp2, 0, n);
             return outp2;
-        } else {
-            return outp;
+        }
+        return outp;
+    }
+
+    /**
+     * Processes the last block into a buffer given by the caller. When decrypting, a padding that isn't valid is kept
+     * in the output.
+     *
+     * @param outp   the output buffer, at least 16 bytes from <CODE>outOff</CODE>
+     * @param outOff the offset in the output buffer
+     * @return the number of bytes written to <CODE>outp</CODE>
+     */
+    public int doFinal(byte[] outp, int outOff) {
+        try {
+            if (forEncryption) {
+                byte pad = (byte) (BLOCK_SIZE - pendingLength);
+                for (int k = pendingLength; k < BLOCK_SIZE; ++k) {
+                    pending[k] = pad;
+                }
+                pendingLength = 0;
+                return cipher.doFinal(pending, 0, BLOCK_SIZE, outp, outOff);
+            }
+            if (pendingLength != BLOCK_SIZE) {
+                pendingLength = 0;
+                return 0;
+            }
+            pendingLength = 0;
+            int n = cipher.doFinal(pending, 0, BLOCK_SIZE, outp, outOff);
+            int pad = outp[outOff + n - 1] & 0xff;
+            if (pad == 0 || pad > n) {
+                return n;
+            }
+            for (int k = n - pad; k < n; ++k) {
+                if ((outp[outOff + k] & 0xff) != pad) {
+                    return n;
+                }
+            }
+            return n - pad;
+        } catch (GeneralSecurityException e) {
+            throw new ExceptionConverter(e);
         }
     }
 
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 OpenPDF
+ *
+ * The contents of this file are subject to the Mozilla Public License Version 1.1
+ * (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the License.
+ *
+ * The Original Code is 'iText, a free JAVA-PDF library'.
+ *
+ * The Initial Developer of the Original Code is Bruno Lowagie. Portions created by
+ * the Initial Developer are Copyright (C) 1999, 2000, 2001, 2002 by Bruno Lowagie.
+ * All Rights Reserved.
+ * Co-Developer of the code is Paulo Soares. Portions created by the Co-Developer
+ * are Copyright (C) 2000, 2001, 2002 by Paulo Soares. All Rights Reserved.
+ *
+ * Contributor(s): all the names of the contributors are added in the source code
+ * where applicable.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the
+ * LGPL license (the "GNU LIBRARY GENERAL PUBLIC LICENSE"), in which case the
+ * provisions of LGPL are applicable instead of those above.  If you wish to
+ * allow use of your version of this file only under the terms of the LGPL
+ * License and not to allow others to use your version of this file under
+ * the MPL, indicate your decision by deleting the provisions above and
+ * replace them with the notice and other provisions required by the LGPL.
+ * If you do not delete the provisions above, a recipient may use your version
+ * of this file under either the MPL or the GNU LIBRARY GENERAL PUBLIC LICENSE.
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the MPL as stated above or under the terms of the GNU
+ * Library General Public License as published by the Free Software Foundation;
+ * either version 2 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Library general Public License for more
+ * details.
+ *
+ * If you didn't download this code from the following link, you should check if
+ * you aren't using an obsolete version:
+ * https://github.com/LibrePDF/OpenPDF
+ */
+
+
+package org.openpdf.text.pdf.hyphenation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compiles XML hyphenation patterns into the binary form loaded by {@link Hyphenator}. A compiled file has the name of
+ * the pattern file with the extension <CODE>.hyb</CODE> and is found in the same places, as a resource or in the
+ * hyphenation directory, where it is used instead of the XML file. Run it at build time over the pattern files shipped
+ * with an application:
+ * <pre>
+ * java org.openpdf.text.pdf.hyphenation.HyphenationCompiler &lt;output directory&gt; &lt;pattern file&gt;...
+ * </pre>
+ *
+ * @since 3.0.1
+ */
+public final class HyphenationCompiler {
+
+    /**
+     * The extension of compiled pattern files.
+     */
+    public static final String COMPILED_EXTENSION = ".hyb";
+
+    private HyphenationCompiler() {
+    }
+
+    /**
+     * Compiles XML hyphenation patterns.
+     *
+     * @param patterns the XML patterns, closed when read
+     * @param out      the stream to write the compiled patterns to, not closed
+     * @throws IOException on error
+     */
+    public static void compile(InputStream patterns, OutputStream out) throws IOException {
+        HyphenationTree tree = new HyphenationTree();
+        tree.loadSimplePatterns(patterns);
+        tree.writeCompiled(out);
+    }
+
+    /**
+     * Compiles XML pattern files into a directory. Exits with status 1 when the arguments are wrong or a file can't be
+     * compiled.
+     *
+     * @param args the output directory followed by the pattern files
+     */
+    public static void main(String[] args) {
+        int status = run(args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Compiles XML pattern files into a directory, stopping at the first file that can't be compiled. No partial
+     * compiled file is left behind for that file.
+     *
+     * @param args the output directory followed by the pattern files
+     * @return the exit status, 0 when all files were compiled
+     */
+    static int run(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage:  HyphenationCompiler <output directory> <pattern file>...");
+            return 1;
+        }
+        File dir = new File(args[0]);
+        for (int k = 1; k < args.length; ++k) {
+            File xml = new File(args[k]);
+            String name = xml.getName();
+            int dot = name.lastIndexOf('.');
+            File compiled = new File(dir, (dot > 0 ? name.substring(0, dot) : name) + COMPILED_EXTENSION);
+            try (InputStream in = new FileInputStream(xml)) {
+                try (OutputStream out = new FileOutputStream(compiled)) {
+                    compile(in, out);
+                } catch (IOException | RuntimeException e) {
+                    compiled.delete();
+                    throw e;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not compile " + xml + " to " + compiled);
+                e.printStackTrace(System.err);
+                return 1;
+            }
+            System.out.println("Compiled " + xml + " to " + compiled);
+        }
+        return 0;
+    }
+}
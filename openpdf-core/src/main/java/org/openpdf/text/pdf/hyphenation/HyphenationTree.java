@@ -18,11 +18,19 @@
 
 package org.openpdf.text.pdf.hyphenation;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This tree structure stores the hyphenation patterns in an efficient way for fast lookup. It provides the provides the
@@ -35,6 +43,23 @@ public class HyphenationTree extends TernaryTree
 
     private static final long serialVersionUID = -7763254239309429432L;
 
+    /**
+     * "OPHY", the start of a compiled tree.
+     */
+    private static final int COMPILED_MAGIC = 0x4f504859;
+
+    private static final int COMPILED_VERSION = 1;
+
+    /**
+     * The number of words whose hyphenation is remembered; the cache is emptied when it grows larger.
+     */
+    private static final int MAX_CACHED_WORDS = 8192;
+
+    /**
+     * Stands for a word that can't be hyphenated in the cache, which can't hold <CODE>null</CODE>.
+     */
+    private static final Hyphenation NO_HYPHENATION = new Hyphenation("", new int[0]);
+
     /**
      * value space: stores the interletter values
      */
@@ -55,6 +80,11 @@ public class HyphenationTree extends TernaryTree
      */
     private transient TernaryTree ivalues;
 
+    /**
+     * The hyphenation of recently hyphenated words, keyed by the minimum character counts and the word.
+     */
+    private transient volatile Map<String, Hyphenation> words;
+
     public HyphenationTree() {
         stoplist = new HashMap<>(23);    // usually a small table
         classmap = new TernaryTree();
@@ -118,6 +148,7 @@ public class HyphenationTree extends TernaryTree
 
         // get rid of the auxiliary map
         ivalues = null;
+        words = null;
     }
 
 
@@ -306,6 +337,29 @@ public class HyphenationTree extends TernaryTree
      */
     public Hyphenation hyphenate(char[] w, int offset, int len,
             int remainCharCount, int pushCharCount) {
+        Map<String, Hyphenation> cache = words;
+        if (cache == null) {
+            cache = new ConcurrentHashMap<>();
+            words = cache;
+        }
+        String key = new StringBuilder(len + 2).append((char) remainCharCount).append((char) pushCharCount)
+                .append(w, offset, len).toString();
+        Hyphenation hyphenation = cache.get(key);
+        if (hyphenation == null) {
+            hyphenation = hyphenateWord(w, offset, len, remainCharCount, pushCharCount);
+            if (hyphenation == null) {
+                hyphenation = NO_HYPHENATION;
+            }
+            if (cache.size() >= MAX_CACHED_WORDS) {
+                cache.clear();
+            }
+            cache.put(key, hyphenation);
+        }
+        return hyphenation == NO_HYPHENATION ? null : hyphenation;
+    }
+
+    private Hyphenation hyphenateWord(char[] w, int offset, int len,
+            int remainCharCount, int pushCharCount) {
         int i;
         char[] word = new char[len + 3];
 
@@ -391,6 +445,135 @@ public class HyphenationTree extends TernaryTree
         }
     }
 
+    /**
+     * Writes this tree in a compact binary form, which {@link #readCompiled(ByteBuffer)} loads much faster than the
+     * XML patterns can be parsed. Patterns can so be compiled at build time, see {@link HyphenationCompiler}.
+     *
+     * @param out the stream to write to, not closed
+     * @throws IOException on error
+     * @since 3.0.1
+     */
+    public void writeCompiled(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(COMPILED_MAGIC);
+        data.writeInt(COMPILED_VERSION);
+        writeTree(data, this);
+        writeTree(data, classmap);
+        data.writeInt(vspace.length());
+        data.write(vspace.getArray(), 0, vspace.length());
+        data.writeInt(stoplist.size());
+        for (Map.Entry<String, List> exception : stoplist.entrySet()) {
+            writeString(data, exception.getKey());
+            data.writeInt(exception.getValue().size());
+            for (Object part : exception.getValue()) {
+                if (part instanceof Hyphen hyphen) {
+                    data.writeByte(1);
+                    writeString(data, hyphen.preBreak);
+                    writeString(data, hyphen.noBreak);
+                    writeString(data, hyphen.postBreak);
+                } else {
+                    data.writeByte(0);
+                    writeString(data, (String) part);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Loads a tree written by {@link #writeCompiled(OutputStream)}. The buffer may be a memory mapped file; the node
+     * arrays are copied out of it in bulk, no pattern is parsed.
+     *
+     * @param buffer the compiled tree, from its current position
+     * @return the tree
+     * @throws IOException if the buffer doesn't hold a compiled tree
+     * @since 3.0.1
+     */
+    public static HyphenationTree readCompiled(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != COMPILED_MAGIC || in.getInt() != COMPILED_VERSION) {
+                throw new IOException("Not a compiled hyphenation tree.");
+            }
+            HyphenationTree tree = new HyphenationTree();
+            readTree(in, tree);
+            readTree(in, tree.classmap);
+            int size = in.getInt();
+            tree.vspace = new ByteVector(size);
+            tree.vspace.alloc(size);
+            in.get(tree.vspace.getArray(), 0, size);
+            tree.vspace.trimToSize();
+            for (int exceptions = in.getInt(); exceptions > 0; --exceptions) {
+                String word = readString(in);
+                int parts = in.getInt();
+                ArrayList<Object> hyphenated = new ArrayList<>(parts);
+                for (int k = 0; k < parts; ++k) {
+                    if (in.get() == 1) {
+                        hyphenated.add(new Hyphen(readString(in), readString(in), readString(in)));
+                    } else {
+                        hyphenated.add(readString(in));
+                    }
+                }
+                tree.stoplist.put(word, hyphenated);
+            }
+            return tree;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated compiled hyphenation tree.", e);
+        }
+    }
+
+    private static void writeTree(DataOutputStream data, TernaryTree tree) throws IOException {
+        data.writeChar(tree.root);
+        data.writeChar(tree.freenode);
+        data.writeInt(tree.length);
+        writeChars(data, tree.lo, tree.lo.length);
+        writeChars(data, tree.hi, tree.hi.length);
+        writeChars(data, tree.eq, tree.eq.length);
+        writeChars(data, tree.sc, tree.sc.length);
+        writeChars(data, tree.kv.getArray(), tree.kv.length());
+    }
+
+    private static void readTree(ByteBuffer in, TernaryTree tree) {
+        tree.root = in.getChar();
+        tree.freenode = in.getChar();
+        tree.length = in.getInt();
+        tree.lo = readChars(in);
+        tree.hi = readChars(in);
+        tree.eq = readChars(in);
+        tree.sc = readChars(in);
+        tree.kv = new CharVector(readChars(in));
+    }
+
+    private static void writeChars(DataOutputStream data, char[] chars, int length) throws IOException {
+        data.writeInt(length);
+        for (int k = 0; k < length; ++k) {
+            data.writeChar(chars[k]);
+        }
+    }
+
+    private static char[] readChars(ByteBuffer in) {
+        char[] chars = new char[in.getInt()];
+        in.asCharBuffer().get(chars);
+        in.position(in.position() + chars.length * 2);
+        return chars;
+    }
+
+    private static void writeString(DataOutputStream data, String s) throws IOException {
+        if (s == null) {
+            data.writeInt(-1);
+        } else {
+            writeChars(data, s.toCharArray(), s.length());
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        if (in.getInt(in.position()) < 0) {
+            in.getInt();
+            return null;
+        }
+        return new String(readChars(in));
+    }
+
     /**
      * Add a character class to the tree. It is used by {@link SimplePatternParser SimplePatternParser} as callback to
      * add character classes. Character classes define the valid word characters for hyphenation. If a word contains a
@@ -400,6 +583,7 @@ public class HyphenationTree extends TernaryTree
      * being the normalization char.
      */
     public void addClass(String chargroup) {
+        words = null;
         if (chargroup.length() > 0) {
             char equivChar = chargroup.charAt(0);
             char[] key = new char[2];
@@ -419,6 +603,7 @@ public class HyphenationTree extends TernaryTree
      * @param hyphenatedword a vector of alternating strings and {@link Hyphen hyphen} objects.
      */
     public void addException(String word, ArrayList hyphenatedword) {
+        words = null;
         stoplist.put(word, hyphenatedword);
     }
 
@@ -431,6 +616,7 @@ public class HyphenationTree extends TernaryTree
      *                within the pattern. It should contain only digit characters. (i.e. '0' to '9').
      */
     public void addPattern(String pattern, String ivalue) {
+        words = null;
         int k = ivalues.find(ivalue);
         if (k <= 0) {
             k = packValues(ivalue);
@@ -20,8 +20,11 @@ import org.openpdf.text.pdf.BaseFont;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.util.Hashtable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is the main entry point to the hyphenation package. You can use only the static methods or create an
@@ -35,7 +38,7 @@ public class Hyphenator {
     /**
      * TODO: Don't use statics
      */
-    private static Map<String, HyphenationTree> hyphenTrees = new Hashtable<>();
+    private static Map<String, HyphenationTree> hyphenTrees = new ConcurrentHashMap<>();
     /**
      * Holds value of property hyphenDir.
      */
@@ -70,34 +73,50 @@ public class Hyphenator {
             key += "_" + country;
         }
         // first try to find it in the cache
-        if (hyphenTrees.containsKey(key)) {
-            return hyphenTrees.get(key);
+        HyphenationTree hTree = hyphenTrees.get(key);
+        if (hTree == null) {
+            hTree = hyphenTrees.get(lang);
         }
-        if (hyphenTrees.containsKey(lang)) {
-            return hyphenTrees.get(lang);
+        if (hTree != null) {
+            return hTree;
         }
 
-        HyphenationTree hTree = getResourceHyphenationTree(key);
+        hTree = getResourceHyphenationTree(key);
         if (hTree == null) {
             hTree = getFileHyphenationTree(key);
         }
-        // put it into the pattern cache
+        // put it into the pattern cache, keeping the tree another thread may have loaded meanwhile
         if (hTree != null) {
-            hyphenTrees.put(key, hTree);
+            HyphenationTree loaded = hyphenTrees.putIfAbsent(key, hTree);
+            if (loaded != null) {
+                hTree = loaded;
+            }
         }
         return hTree;
     }
 
+    /**
+     * Drops a tree from the pattern cache, so the next lookup loads it again.
+     *
+     * @param key the cache key, the language optionally followed by '_' and the country
+     */
+    static void removeHyphenationTree(String key) {
+        hyphenTrees.remove(key);
+    }
+
     /**
      * @param key A String of the key of the hyphenation tree
      * @return a hyphenation tree
      */
     public static HyphenationTree getResourceHyphenationTree(String key) {
         try {
-            InputStream stream = BaseFont.getResourceStream(defaultHyphLocation + key + ".xml");
-            if (stream == null && key.length() > 2) {
-                stream = BaseFont.getResourceStream(defaultHyphLocation + key.substring(0, 2) + ".xml");
+            InputStream stream = getResourceStream(key, HyphenationCompiler.COMPILED_EXTENSION);
+            if (stream != null) {
+                try (InputStream compiled = stream) {
+                    return HyphenationTree.readCompiled(ByteBuffer.wrap(compiled.readAllBytes()));
+                }
             }
+            stream = getResourceStream(key, ".xml");
             if (stream == null) {
                 return null;
             }
@@ -118,28 +137,40 @@ public class Hyphenator {
             if (hyphenDir == null) {
                 return null;
             }
-            InputStream stream = null;
-            File hyphenFile = new File(hyphenDir, key + ".xml");
-            if (hyphenFile.canRead()) {
-                stream = new FileInputStream(hyphenFile);
-            }
-            if (stream == null && key.length() > 2) {
-                hyphenFile = new File(hyphenDir, key.substring(0, 2) + ".xml");
-                if (hyphenFile.canRead()) {
-                    stream = new FileInputStream(hyphenFile);
+            File hyphenFile = getHyphenFile(key, HyphenationCompiler.COMPILED_EXTENSION);
+            if (hyphenFile != null) {
+                try (FileChannel channel = FileChannel.open(hyphenFile.toPath(), StandardOpenOption.READ)) {
+                    return HyphenationTree.readCompiled(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
                 }
             }
-            if (stream == null) {
+            hyphenFile = getHyphenFile(key, ".xml");
+            if (hyphenFile == null) {
                 return null;
             }
             HyphenationTree hTree = new HyphenationTree();
-            hTree.loadSimplePatterns(stream);
+            hTree.loadSimplePatterns(new FileInputStream(hyphenFile));
             return hTree;
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static InputStream getResourceStream(String key, String extension) {
+        InputStream stream = BaseFont.getResourceStream(defaultHyphLocation + key + extension);
+        if (stream == null && key.length() > 2) {
+            stream = BaseFont.getResourceStream(defaultHyphLocation + key.substring(0, 2) + extension);
+        }
+        return stream;
+    }
+
+    private static File getHyphenFile(String key, String extension) {
+        File hyphenFile = new File(hyphenDir, key + extension);
+        if (!hyphenFile.canRead() && key.length() > 2) {
+            hyphenFile = new File(hyphenDir, key.substring(0, 2) + extension);
+        }
+        return hyphenFile.canRead() ? hyphenFile : null;
+    }
+
     /**
      * @param lang     The language
      * @param country  The country
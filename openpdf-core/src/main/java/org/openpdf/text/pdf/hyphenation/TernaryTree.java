@@ -189,7 +189,7 @@ public class TernaryTree implements Cloneable, Serializable {
     }
 
     public void insert(char[] key, int start, char val) {
-        int len = strlen(key) + 1;
+        int len = strlen(key, start) + 1;
         if (freenode + len > eq.length) {
             redimNodeArrays(eq.length + BLOCK_SIZE);
         }
@@ -45,21 +45,18 @@ import org.openpdf.text.ExceptionConverter;
 import org.openpdf.text.error_messages.MessageLocalization;
 import org.openpdf.text.pdf.CMapAwareDocumentFont;
 import org.openpdf.text.pdf.PRIndirectReference;
-import org.openpdf.text.pdf.PRStream;
 import org.openpdf.text.pdf.PRTokeniser;
 import org.openpdf.text.pdf.PdfArray;
 import org.openpdf.text.pdf.PdfContentParser;
 import org.openpdf.text.pdf.PdfDictionary;
+import org.openpdf.text.pdf.PdfEncodings;
 import org.openpdf.text.pdf.PdfIndirectReference;
 import org.openpdf.text.pdf.PdfLiteral;
 import org.openpdf.text.pdf.PdfName;
 import org.openpdf.text.pdf.PdfNumber;
 import org.openpdf.text.pdf.PdfObject;
-import org.openpdf.text.pdf.PdfReader;
 import org.openpdf.text.pdf.PdfStream;
 import org.openpdf.text.pdf.PdfString;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -84,6 +81,12 @@ public class PdfContentStreamHandler {
      * A map with all supported operators operators (PDF syntax).
      */
     private Map<String, ContentOperator> operators;
+    /**
+     * The operators by {@link PdfContentParser#getOperatorCode(byte[], int)}, in an open addressing table, to find the
+     * operator of a command without making a String of its name.
+     */
+    private int[] operatorCodes;
+    private ContentOperator[] operatorTable;
     /**
      * Stack keeping track of the graphics state.
      */
@@ -97,14 +100,46 @@ public class PdfContentStreamHandler {
      */
     private Matrix textLineMatrix;
     private List<TextAssemblyBuffer> textFragments = new ArrayList<>();
+    /**
+     * The fonts decoded so far, keyed by object number and generation of their indirect reference.
+     */
+    private final Map<Long, CMapAwareDocumentFont> fonts;
 
 
     public PdfContentStreamHandler(TextAssembler renderListener) {
+        this(renderListener, new HashMap<>());
+    }
+
+    /**
+     * Creates a handler that takes the fonts it has already decoded from a cache. The cache may be shared by handlers
+     * of different pages, and by handlers running in different threads if it is a concurrent map, as long as all of
+     * them read the same document.
+     *
+     * @param renderListener the text assembler
+     * @param fonts          the fonts already decoded, keyed by {@link #fontKey(PRIndirectReference)}
+     */
+    PdfContentStreamHandler(TextAssembler renderListener, Map<Long, CMapAwareDocumentFont> fonts) {
         this.renderListener = renderListener;
+        this.fonts = fonts;
         installDefaultOperators();
         reset();
     }
 
+    static long fontKey(PRIndirectReference ref) {
+        return (long) ref.getNumber() << 32 | ref.getGeneration();
+    }
+
+    /**
+     * Gets the font an indirect reference points to, decoding its widths and ToUnicode map only the first time the font
+     * is used.
+     *
+     * @param ref the indirect reference to a font dictionary
+     * @return the font
+     */
+    CMapAwareDocumentFont getFont(PRIndirectReference ref) {
+        return fonts.computeIfAbsent(fontKey(ref), key -> new CMapAwareDocumentFont(ref));
+    }
+
     private static Matrix getMatrix(List<PdfObject> operands) {
         float a = ((PdfNumber) operands.get(0)).floatValue();
         float b = ((PdfNumber) operands.get(1)).floatValue();
@@ -130,6 +165,42 @@ public class PdfContentStreamHandler {
                     "operator.1.already.registered", operatorString));
         }
         operators.put(operatorString, operator);
+        byte[] name = PdfEncodings.convertToBytes(operatorString, null);
+        int code = PdfContentParser.getOperatorCode(name, name.length);
+        if (code >= 0) {
+            if (operators.size() * 2 > operatorTable.length) {
+                int[] codes = operatorCodes;
+                ContentOperator[] table = operatorTable;
+                operatorCodes = new int[table.length * 2];
+                operatorTable = new ContentOperator[table.length * 2];
+                for (int k = 0; k < table.length; ++k) {
+                    if (table[k] != null) {
+                        putOperator(codes[k], table[k]);
+                    }
+                }
+            }
+            putOperator(code, operator);
+        }
+    }
+
+    private void putOperator(int code, ContentOperator operator) {
+        int mask = operatorTable.length - 1;
+        int slot = code & mask;
+        while (operatorTable[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        operatorCodes[slot] = code;
+        operatorTable[slot] = operator;
+    }
+
+    private ContentOperator lookupOperator(int code) {
+        int mask = operatorTable.length - 1;
+        for (int slot = code & mask; operatorTable[slot] != null; slot = (slot + 1) & mask) {
+            if (operatorCodes[slot] == code) {
+                return operatorTable[slot];
+            }
+        }
+        return null;
     }
 
     /**
@@ -137,6 +208,8 @@ public class PdfContentStreamHandler {
      */
     protected void installDefaultOperators() {
         operators = new HashMap<>();
+        operatorCodes = new int[64];
+        operatorTable = new ContentOperator[64];
 
         registerContentOperator(new PdfContentStreamHandler.PushGraphicsState());
         registerContentOperator(new PdfContentStreamHandler.PopGraphicsState());
@@ -199,9 +272,12 @@ public class PdfContentStreamHandler {
      * @param resources Pdf Resources found in the file containing the stream.
      */
     public void invokeOperator(PdfLiteral operator, List<PdfObject> operands, PdfDictionary resources) {
-        String operatorName = operator.toString();
-        lookupOperator(operatorName)
-                .ifPresent(contentOperator -> contentOperator.invoke(operands, this, resources));
+        byte[] name = operator.getBytes();
+        int code = PdfContentParser.getOperatorCode(name, name.length);
+        ContentOperator contentOperator = code >= 0 ? lookupOperator(code) : operators.get(operator.toString());
+        if (contentOperator != null) {
+            contentOperator.invoke(operands, this, resources);
+        }
     }
 
     void popContext() {
@@ -528,7 +604,7 @@ public class PdfContentStreamHandler {
             PdfArray fontParameter = gsDic.getAsArray(PdfName.FONT);
             if (fontParameter != null) {
                 PdfObject pdfObject = fontParameter.getPdfObject(0);
-                CMapAwareDocumentFont font = new CMapAwareDocumentFont((PRIndirectReference) pdfObject);
+                CMapAwareDocumentFont font = handler.getFont((PRIndirectReference) pdfObject);
                 float size = fontParameter.getAsNumber(1).floatValue();
 
                 handler.graphicsState().setFont(font);
@@ -598,7 +674,7 @@ public class PdfContentStreamHandler {
 
             PdfDictionary fontsDictionary = resources.getAsDict(PdfName.FONT);
             PdfObject pdfObject = fontsDictionary.get(fontResourceName);
-            CMapAwareDocumentFont font = new CMapAwareDocumentFont((PRIndirectReference) pdfObject);
+            CMapAwareDocumentFont font = handler.getFont((PRIndirectReference) pdfObject);
 
             handler.graphicsState().setFont(font);
             handler.graphicsState().setFontSize(size);
@@ -970,23 +1046,17 @@ public class PdfContentStreamHandler {
                         resources2 = resources;
                     }
 
-                    byte[] data;
-                    try {
-                        data = getContentBytesFromPdfObject(stream);
-                    } catch (IOException ex) {
-                        throw new ExceptionConverter(ex);
-                    }
                     new PushGraphicsState().invoke(operands, handler, resources);
-                    processContent(data, resources2);
+                    processContent(stream, resources2);
                     new PopGraphicsState().invoke(operands, handler, resources);
                 }
             }
 
         }
 
-        private void processContent(byte[] contentBytes, PdfDictionary resources) {
-            try {
-                PdfContentParser pdfContentParser = new PdfContentParser(new PRTokeniser(contentBytes));
+        private void processContent(PdfObject content, PdfDictionary resources) {
+            try (PRTokeniser tokeniser = new PRTokeniser(PdfTextExtractor.openContent(content))) {
+                PdfContentParser pdfContentParser = new PdfContentParser(tokeniser);
                 List<PdfObject> operands = new ArrayList<>();
                 while (!pdfContentParser.parse(operands).isEmpty()) {
                     PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
@@ -996,23 +1066,5 @@ public class PdfContentStreamHandler {
                 throw new ExceptionConverter(e);
             }
         }
-
-
-        private byte[] getContentBytesFromPdfObject(PdfObject object) throws IOException {
-            switch (object.type()) {
-                case PdfObject.INDIRECT:
-                    return getContentBytesFromPdfObject(PdfReader.getPdfObject(object));
-                case PdfObject.STREAM:
-                    return PdfReader.getStreamBytes((PRStream) PdfReader.getPdfObject(object));
-                case PdfObject.ARRAY:
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    for (PdfObject element : ((PdfArray) object).getElements()) {
-                        baos.write(getContentBytesFromPdfObject(element));
-                    }
-                    return baos.toByteArray();
-                default:
-                    throw new IllegalStateException("Unsupported type: " + object.getClass().getCanonicalName());
-            }
-        }
     }
 }
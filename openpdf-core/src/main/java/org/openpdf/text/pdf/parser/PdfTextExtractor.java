@@ -50,7 +50,7 @@ package org.openpdf.text.pdf.parser;
 
 
 import org.openpdf.text.ExceptionConverter;
-import org.openpdf.text.pdf.PRIndirectReference;
+import org.openpdf.text.pdf.CMapAwareDocumentFont;
 import org.openpdf.text.pdf.PRStream;
 import org.openpdf.text.pdf.PRTokeniser;
 import org.openpdf.text.pdf.PdfArray;
@@ -60,11 +60,23 @@ import org.openpdf.text.pdf.PdfLiteral;
 import org.openpdf.text.pdf.PdfName;
 import org.openpdf.text.pdf.PdfObject;
 import org.openpdf.text.pdf.PdfReader;
-import org.openpdf.text.pdf.RandomAccessFileOrArray;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Extracts text from a PDF file.
@@ -84,13 +96,24 @@ public class PdfTextExtractor {
      */
     private final TextAssembler renderListener;
 
+    /**
+     * Should the text assemblers of {@link #getTextFromPages(Executor, ObjIntConsumer)} use higher level tags for PDF
+     * markup entities?
+     */
+    private final boolean usePdfMarkupElements;
+
+    /**
+     * The fonts decoded for all pages read by this extractor, keyed by their indirect reference.
+     */
+    private final Map<Long, CMapAwareDocumentFont> fonts = new ConcurrentHashMap<>();
+
     /**
      * Creates a new Text Extractor object, using a {@link TextAssembler} as the render listener
      *
      * @param reader the reader with the PDF
      */
     public PdfTextExtractor(PdfReader reader) {
-        this(reader, new MarkedUpTextAssembler(reader));
+        this(reader, false);
     }
 
     /**
@@ -100,7 +123,7 @@ public class PdfTextExtractor {
      * @param usePdfMarkupElements should we use higher level tags for PDF markup entities?
      */
     public PdfTextExtractor(PdfReader reader, boolean usePdfMarkupElements) {
-        this(reader, new MarkedUpTextAssembler(reader, usePdfMarkupElements));
+        this(reader, new MarkedUpTextAssembler(reader, usePdfMarkupElements), usePdfMarkupElements);
     }
 
     /**
@@ -111,59 +134,51 @@ public class PdfTextExtractor {
      *                       resultant text
      */
     public PdfTextExtractor(PdfReader reader, TextAssembler renderListener) {
-        this.reader = reader;
-        this.renderListener = renderListener;
+        this(reader, renderListener, false);
     }
 
-    /**
-     * Gets the content bytes of a page.
-     *
-     * @param pageNum the 1-based page number of page you want get the content stream from
-     * @return a byte array with the effective content stream of a page
-     * @throws IOException
-     */
-    private byte[] getContentBytesForPage(int pageNum) throws IOException {
-        try (RandomAccessFileOrArray ignored = reader.getSafeFile()) {
-            PdfDictionary pageDictionary = reader.getPageN(pageNum);
-            PdfObject contentObject = pageDictionary.get(PdfName.CONTENTS);
-            return getContentBytesFromContentObject(contentObject);
-        }
+    private PdfTextExtractor(PdfReader reader, TextAssembler renderListener, boolean usePdfMarkupElements) {
+        this.reader = reader;
+        this.renderListener = renderListener;
+        this.usePdfMarkupElements = usePdfMarkupElements;
     }
 
     /**
-     * Gets the content bytes from a content object, which may be a reference a stream or an array.
+     * Opens the content of a page, a form XObject or any content object, which may be a reference, a stream or an
+     * array of streams. The streams of an array are read one after the other as a single content, each one only when
+     * the previous one has been read, and FlateDecode streams are decompressed while they are read, so the decoded
+     * content is never all in memory.
      *
-     * @param contentObject the object to read bytes from
-     * @return the content bytes
-     * @throws IOException
+     * @param contentObject the object to read the content from
+     * @return the content
+     * @throws IOException on error
      */
-    private byte[] getContentBytesFromContentObject(PdfObject contentObject) throws IOException {
-        final byte[] result;
+    static InputStream openContent(PdfObject contentObject) throws IOException {
         switch (contentObject.type()) {
             case PdfObject.INDIRECT:
-                PRIndirectReference ref = (PRIndirectReference) contentObject;
-                PdfObject directObject = PdfReader.getPdfObject(ref);
-                result = getContentBytesFromContentObject(directObject);
-                break;
+                return openContent(PdfReader.getPdfObject(contentObject));
             case PdfObject.STREAM:
-                PRStream stream = (PRStream) PdfReader.getPdfObject(contentObject);
-                result = PdfReader.getStreamBytes(stream);
-                break;
+                return PdfReader.getStreamInputStream((PRStream) PdfReader.getPdfObject(contentObject));
             case PdfObject.ARRAY:
-                // Stitch together all content before calling processContent(),
-                // because
-                // processContent() resets state.
-                ByteArrayOutputStream allBytes = new ByteArrayOutputStream();
-                PdfArray contentArray = (PdfArray) contentObject;
-                for (PdfObject pdfObject : contentArray.getElements()) {
-                    allBytes.write(getContentBytesFromContentObject(pdfObject));
-                }
-                result = allBytes.toByteArray();
-                break;
+                Iterator<PdfObject> elements = ((PdfArray) contentObject).getElements().iterator();
+                return new SequenceInputStream(new Enumeration<InputStream>() {
+                    @Override
+                    public boolean hasMoreElements() {
+                        return elements.hasNext();
+                    }
+
+                    @Override
+                    public InputStream nextElement() {
+                        try {
+                            return openContent(elements.next());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
             default:
                 throw new IllegalStateException("Unable to handle Content of type " + contentObject.getClass());
         }
-        return result;
     }
 
     /**
@@ -187,6 +202,10 @@ public class PdfTextExtractor {
      * @throws IOException on error
      */
     public String getTextFromPage(int page, boolean useContainerMarkup) throws IOException {
+        return getTextFromPage(reader, renderListener, page);
+    }
+
+    private String getTextFromPage(PdfReader reader, TextAssembler renderListener, int page) throws IOException {
         PdfDictionary pageDict = reader.getPageN(page);
         if (pageDict == null) {
             return "";
@@ -195,11 +214,111 @@ public class PdfTextExtractor {
 
         renderListener.reset();
         renderListener.setPage(page);
-        PdfContentStreamHandler handler = new PdfContentStreamHandler(renderListener);
-        processContent(getContentBytesForPage(page), resources, handler);
+        PdfContentStreamHandler handler = new PdfContentStreamHandler(renderListener, fonts);
+        PdfObject contents = pageDict.get(PdfName.CONTENTS);
+        if (contents == null) {
+            processContent(new byte[0], resources, handler);
+        } else {
+            try (PRTokeniser tokeniser = new PRTokeniser(openContent(contents))) {
+                processContent(tokeniser, resources, handler);
+            }
+        }
         return handler.getResultantText();
     }
 
+    /**
+     * Gets the text from all pages, extracting pages in parallel. See
+     * {@link #getTextFromPages(int, int, Executor, ObjIntConsumer)}.
+     *
+     * @param executor the executor that extracts the pages, or <CODE>null</CODE> to extract them in this thread
+     * @param consumer receives the text and the 1-based number of each page, in page order
+     * @throws IOException on error
+     * @since 3.0.1
+     */
+    public void getTextFromPages(Executor executor, ObjIntConsumer<String> consumer) throws IOException {
+        getTextFromPages(1, reader.getNumberOfPages(), executor, consumer);
+    }
+
+    /**
+     * Gets the text from a range of pages, extracting pages in parallel. Each page is extracted by a task run on the
+     * executor, with a view of the reader (see {@link PdfReader#createView()}) and a text assembler of its own, but the
+     * fonts and their ToUnicode maps are decoded once and shared by all pages that use them. The text of each page is
+     * passed to the consumer in this thread and in page order, as soon as that page and all pages before it are done; no
+     * more than a few pages per processor are extracted ahead of the consumer.
+     * <p>
+     * Pages extracted on the executor use a {@link MarkedUpTextAssembler} as this extractor was created for, not a
+     * {@link TextAssembler} given to the constructor; only without an executor is that assembler used. Views are light only for readers in partial mode, so open the
+     * reader in partial mode for the best throughput. The reader must not be used by other threads meanwhile.
+     *
+     * @param firstPage the first 1-based page number
+     * @param lastPage  the last 1-based page number
+     * @param executor  the executor that extracts the pages, or <CODE>null</CODE> to extract them in this thread
+     * @param consumer  receives the text and the 1-based number of each page, in page order
+     * @throws IOException on error
+     * @since 3.0.1
+     */
+    public void getTextFromPages(int firstPage, int lastPage, Executor executor, ObjIntConsumer<String> consumer)
+            throws IOException {
+        if (executor == null) {
+            for (int page = firstPage; page <= lastPage; ++page) {
+                consumer.accept(getTextFromPage(page), page);
+            }
+            return;
+        }
+        int maxPending = 4 * Runtime.getRuntime().availableProcessors();
+        Queue<PdfReader> views = new ConcurrentLinkedQueue<>();
+        ArrayDeque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        try {
+            int next = firstPage;
+            for (int page = firstPage; page <= lastPage; ++page) {
+                while (next <= lastPage && pending.size() < maxPending) {
+                    int pageNum = next++;
+                    pending.add(CompletableFuture.supplyAsync(() -> extractPage(views, pageNum), executor));
+                }
+                consumer.accept(join(pending.poll()), page);
+            }
+        } finally {
+            // after a failure, let the pages already started finish before their views are closed
+            for (CompletableFuture<String> future : pending) {
+                future.handle((text, e) -> null).join();
+            }
+            for (PdfReader view : views) {
+                view.close();
+            }
+        }
+    }
+
+    private String extractPage(Queue<PdfReader> views, int page) {
+        PdfReader view = views.poll();
+        if (view == null) {
+            view = reader.createView();
+        }
+        try {
+            return getTextFromPage(view, new MarkedUpTextAssembler(view, usePdfMarkupElements), page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            views.add(view);
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Processes PDF syntax
      *
@@ -209,9 +328,13 @@ public class PdfTextExtractor {
      */
     public void processContent(byte[] contentBytes, PdfDictionary resources,
             PdfContentStreamHandler handler) {
+        processContent(new PRTokeniser(contentBytes), resources, handler);
+    }
+
+    private void processContent(PRTokeniser tokeniser, PdfDictionary resources, PdfContentStreamHandler handler) {
         handler.pushContext("div class='t-extracted-page'");
         try {
-            PdfContentParser ps = new PdfContentParser(new PRTokeniser(contentBytes));
+            PdfContentParser ps = new PdfContentParser(tokeniser);
             List<PdfObject> operands = new ArrayList<>();
             while (ps.parse(operands).size() > 0) {
                 PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
@@ -85,6 +85,20 @@ public class LongMappedByteBuffer {
         }
     }
 
+    private LongMappedByteBuffer(MappedByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Creates a buffer that shares the mapped content of this one and has its own position, starting at 0.
+     *
+     * @return the new buffer
+     */
+    public LongMappedByteBuffer duplicate() {
+        return new LongMappedByteBuffer(chunks, size);
+    }
+
     public byte get() {
         byte b = get(position);
         position++;
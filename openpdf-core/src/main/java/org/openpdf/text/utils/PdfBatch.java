@@ -1,15 +1,27 @@
 package org.openpdf.text.utils;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *  Utility class for executing collections of tasks concurrently using Java 21 virtual threads.
@@ -28,6 +40,50 @@ public final class PdfBatch {
                     ", total=" + total() +
                     '}';
         } }
+
+    /**
+     * Limits of a bounded batch, see {@link #stream(Iterable, BatchOptions)}.
+     *
+     * @param maxConcurrency the maximum number of tasks running or waiting to be consumed at the same time
+     * @param taskTimeout    the maximum run time of a task, or <CODE>null</CODE> for no limit
+     */
+    public record BatchOptions(int maxConcurrency, Duration taskTimeout) {
+        public BatchOptions {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+            }
+            if (taskTimeout != null && (taskTimeout.isZero() || taskTimeout.isNegative())) {
+                throw new IllegalArgumentException("taskTimeout must be positive: " + taskTimeout);
+            }
+        }
+
+        /** One task per available processor and no timeout. */
+        public static BatchOptions defaults() {
+            return new BatchOptions(Runtime.getRuntime().availableProcessors(), null);
+        }
+
+        public BatchOptions withMaxConcurrency(int maxConcurrency) {
+            return new BatchOptions(maxConcurrency, taskTimeout);
+        }
+
+        public BatchOptions withTaskTimeout(Duration taskTimeout) {
+            return new BatchOptions(maxConcurrency, taskTimeout);
+        }
+    }
+
+    /**
+     * The outcome of one task of a bounded batch.
+     *
+     * @param index   the position of the task in the batch, starting at 0
+     * @param value   the value returned by the task, <CODE>null</CODE> if it failed
+     * @param failure the exception thrown by the task, a <CODE>TimeoutException</CODE> if it ran too long, or
+     *                <CODE>null</CODE> on success
+     * @param elapsed the run time of the task
+     */
+    public record TaskResult<T>(int index, T value, Throwable failure, Duration elapsed) {
+        public boolean isSuccess() { return failure == null; }
+    }
+
     public static <T> BatchResult<T> run(Collection<? extends Callable<T>> tasks,
             Consumer<T> onSuccess,
             Consumer<Throwable> onFailure) {
@@ -56,4 +112,194 @@ public final class PdfBatch {
         return result;
 
     }
+
+    /**
+     * Runs the tasks with bounded concurrency and collects the results. Unlike {@link #run(Collection, Consumer,
+     * Consumer)} the successes are in completion order.
+     */
+    public static <T> BatchResult<T> run(Collection<? extends Callable<T>> tasks, BatchOptions options,
+            Consumer<T> onSuccess,
+            Consumer<Throwable> onFailure) {
+        var result = new BatchResult<T>();
+        try (BatchStream<T> stream = stream(tasks, options)) {
+            while (stream.hasNext()) {
+                TaskResult<T> r = stream.next();
+                if (r.isSuccess()) {
+                    result.successes.add(r.value());
+                    if (onSuccess != null) onSuccess.accept(r.value());
+                } else {
+                    result.failures.add(r.failure());
+                    if (onFailure != null) onFailure.accept(r.failure());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the tasks on virtual threads, at most <CODE>options.maxConcurrency()</CODE> at a time, and returns their
+     * results in completion order. The tasks are taken from the iterable lazily: a new task is started only when the
+     * result of a previous one has been consumed, so neither the tasks nor the results of a large batch are held in
+     * memory. Tasks running longer than the timeout are interrupted and reported with a
+     * <CODE>TimeoutException</CODE>.
+     * <p>
+     * The returned stream must be consumed by one thread. Closing it cancels the remaining tasks.
+     *
+     * @param tasks   the tasks
+     * @param options the concurrency limit and timeout
+     * @return the results as they complete
+     */
+    public static <T> BatchStream<T> stream(Iterable<? extends Callable<T>> tasks, BatchOptions options) {
+        return new BatchStream<>(Objects.requireNonNull(tasks, "tasks").iterator(),
+                Objects.requireNonNull(options, "options"));
+    }
+
+    /**
+     * The results of a bounded batch, consumed as an <CODE>Iterator</CODE> or a <CODE>Stream</CODE>. The counters
+     * may be read from any thread to report progress.
+     */
+    public static final class BatchStream<T> implements Iterator<TaskResult<T>>, AutoCloseable {
+
+        private final Iterator<? extends Callable<T>> tasks;
+        private final BatchOptions options;
+        private final ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor();
+        private final BlockingQueue<TaskResult<T>> done = new LinkedBlockingQueue<>();
+        /** Tasks whose result was not consumed yet, in start order, which is also deadline order. */
+        private final LinkedHashMap<Integer, Running> running = new LinkedHashMap<>();
+        private final TaskResult<T> cancelMarker = new TaskResult<>(-1, null, null, Duration.ZERO);
+        private volatile int submitted;
+        private volatile int completed;
+        private volatile int failed;
+        private volatile boolean cancelled;
+        private TaskResult<T> next;
+
+        private record Running(int index, Future<?> future, long deadline) {}
+
+        private BatchStream(Iterator<? extends Callable<T>> tasks, BatchOptions options) {
+            this.tasks = tasks;
+            this.options = options;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            while (!cancelled) {
+                fill();
+                if (running.isEmpty()) {
+                    return false;
+                }
+                TaskResult<T> r;
+                try {
+                    r = poll();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    return false;
+                }
+                // a timed out task may still report, ignore it
+                if (r == null || r == cancelMarker || running.remove(r.index()) == null) {
+                    continue;
+                }
+                if (!r.isSuccess()) {
+                    failed++;
+                }
+                completed++;
+                next = r;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public TaskResult<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TaskResult<T> r = next;
+            next = null;
+            return r;
+        }
+
+        private void fill() {
+            while (running.size() < options.maxConcurrency() && tasks.hasNext()) {
+                Callable<T> task = tasks.next();
+                int index = submitted;
+                Future<?> future = exec.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        T value = task.call();
+                        done.add(new TaskResult<>(index, value, null, Duration.ofNanos(System.nanoTime() - start)));
+                    } catch (Throwable t) {
+                        done.add(new TaskResult<>(index, null, t, Duration.ofNanos(System.nanoTime() - start)));
+                    }
+                });
+                long deadline = options.taskTimeout() == null ? 0 : System.nanoTime() + options.taskTimeout().toNanos();
+                running.put(index, new Running(index, future, deadline));
+                submitted++;
+            }
+        }
+
+        private TaskResult<T> poll() throws InterruptedException {
+            if (options.taskTimeout() == null) {
+                return done.take();
+            }
+            Running first = running.values().iterator().next();
+            long wait = first.deadline() - System.nanoTime();
+            TaskResult<T> r = wait > 0 ? done.poll(wait, TimeUnit.NANOSECONDS) : done.poll();
+            if (r == null && first.deadline() - System.nanoTime() <= 0) {
+                first.future().cancel(true);
+                return new TaskResult<>(first.index(), null,
+                        new TimeoutException("Task " + first.index() + " timed out after " + options.taskTimeout()),
+                        options.taskTimeout());
+            }
+            return r;
+        }
+
+        /** Returns the results as a sequential stream; closing the stream closes this batch. */
+        public Stream<TaskResult<T>> stream() {
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(this::close);
+        }
+
+        /**
+         * Stops starting new tasks and interrupts the running ones. May be called from any thread; iteration ends
+         * with the results consumed so far.
+         */
+        public void cancel() {
+            cancelled = true;
+            exec.shutdownNow();
+            done.add(cancelMarker);
+        }
+
+        public boolean isCancelled() { return cancelled; }
+
+        /** The number of tasks started so far. */
+        public int submitted() { return submitted; }
+
+        /** The number of results consumed so far, including failures and timeouts. */
+        public int completed() { return completed; }
+
+        /** The number of failed or timed out tasks consumed so far. */
+        public int failed() { return failed; }
+
+        /** The number of tasks started whose result was not consumed yet. */
+        public int inFlight() { return submitted - completed; }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+
+        @Override public String toString() {
+            return "BatchStream{" +
+                    "submitted=" + submitted +
+                    ", completed=" + completed +
+                    ", failed=" + failed +
+                    ", cancelled=" + cancelled +
+                    '}';
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openpdf.text.Utilities;
+import org.openpdf.text.pdf.AcroFields.SignatureVerification;
+
+class AcroFieldsVerifySignaturesTest {
+
+    private static byte[] signed;
+
+    @BeforeAll
+    static void signThreeTimes() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keys = generator.generateKeyPair();
+        X500Name subject = new X500Name("CN=Test, C=NO");
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(subject, BigInteger.ONE, new Date(0),
+                        new Date(System.currentTimeMillis() + 86_400_000L), subject, keys.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keys.getPrivate())));
+        try (InputStream is = AcroFieldsVerifySignaturesTest.class.getResourceAsStream("/EmptyPage.pdf")) {
+            signed = Utilities.toByteArray(is);
+        }
+        for (int k = 0; k < 3; ++k) {
+            try (PdfReader reader = new PdfReader(signed); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                PdfStamper stp = PdfStamper.createSignature(reader, out, null, null, true);
+                PdfSignatureAppearance sap = stp.getSignatureAppearance();
+                sap.setCrypto(keys.getPrivate(), certificate, null, PdfSignatureAppearance.WINCER_SIGNED);
+                sap.setReason("Approval " + k);
+                stp.close();
+                signed = out.toByteArray();
+            }
+        }
+    }
+
+    @Test
+    void verifiesAllSignaturesInOnePass() throws Exception {
+        try (PdfReader reader = new PdfReader(signed)) {
+            AcroFields af = reader.getAcroFields();
+            List<SignatureVerification> results = af.verifySignatures(null, ForkJoinPool.commonPool());
+            assertThat(results).hasSize(3);
+            for (SignatureVerification result : results) {
+                assertThat(result.failure()).isNull();
+                assertThat(result.verified()).isTrue();
+                assertThat(result.pkcs7().getReason()).startsWith("Approval");
+                assertThat(result.digestTime()).isPositive();
+                assertThat(af.verifySignature(result.name()).verify()).isTrue();
+            }
+            assertThat(af.verifySignatures(null, null)).extracting(SignatureVerification::verified)
+                    .containsOnly(true);
+        }
+    }
+
+    @Test
+    void detectsChangedBytes() throws Exception {
+        byte[] changed = signed.clone();
+        int pos = new String(changed, StandardCharsets.ISO_8859_1).indexOf("/MediaBox");
+        changed[pos + 1] = 'm';
+        try (PdfReader reader = new PdfReader(changed)) {
+            List<SignatureVerification> results = reader.getAcroFields().verifySignatures(null,
+                    ForkJoinPool.commonPool());
+            assertThat(results).hasSize(3).extracting(SignatureVerification::verified).containsOnly(false);
+        }
+    }
+
+    @Test
+    void byteRangesBeyond2GbKeepTheirOffsets() {
+        PdfArray byteRange = new PdfArray();
+        for (long value : new long[]{0, 3_000_000_000L, 3_000_008_194L, 2_500_000_000L}) {
+            byteRange.add(new PdfNumber(value));
+        }
+        assertThat(AcroFields.byteRange(byteRange))
+                .containsExactly(0, 3_000_000_000L, 3_000_008_194L, 5_500_008_194L);
+    }
+}
@@ -0,0 +1,94 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ByteBufferTest {
+
+    @AfterEach
+    void resetPrecision() {
+        ByteBuffer.HIGH_PRECISION = false;
+        ByteBuffer.setHighPrecisionDecimals(6);
+    }
+
+    private static String append(double d) {
+        return new ByteBuffer(1).append(d).toString();
+    }
+
+    @Test
+    void shouldFormatDoublesWithDefaultPrecision() {
+        assertThat(append(0)).isEqualTo("0");
+        assertThat(append(0.00001)).isEqualTo("0");
+        assertThat(append(0.000015)).isEqualTo("0.00002");
+        assertThat(append(0.5)).isEqualTo("0.5");
+        assertThat(append(0.05)).isEqualTo("0.05");
+        assertThat(append(-0.123456)).isEqualTo("-0.12346");
+        assertThat(append(0.999996)).isEqualTo("1");
+        assertThat(append(-0.999996)).isEqualTo("-1");
+        assertThat(append(1)).isEqualTo("1");
+        assertThat(append(12.5)).isEqualTo("12.5");
+        assertThat(append(-12.345)).isEqualTo("-12.35");
+        assertThat(append(32767.006)).isEqualTo("32767");
+        assertThat(append(123456.5)).isEqualTo("123457");
+        assertThat(append(-98765.4)).isEqualTo("-98765");
+        assertThat(append(1e18)).isEqualTo("1000000000000000000");
+        assertThat(append(Double.NaN)).isEqualTo("0");
+        assertThat(append(Double.NEGATIVE_INFINITY)).isEqualTo("-9223372036854775807");
+    }
+
+    @Test
+    void shouldReturnTheSameTextAsTheBuffer() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            double d = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8) - 2);
+            assertThat(ByteBuffer.formatDouble(d)).isEqualTo(append(d));
+        }
+    }
+
+    @Test
+    void shouldRoundLikeDecimalFormatWithHighPrecision() {
+        ByteBuffer.HIGH_PRECISION = true;
+        assertThat(append(0.0078125)).isEqualTo("0.007812");
+        assertThat(append(0.0234375)).isEqualTo("0.023438");
+        assertThat(append(2.5e-6)).isEqualTo("0.000003");
+        assertThat(append(1.0000005)).isEqualTo("1.000001");
+        assertThat(append(-5.5e-7)).isEqualTo("-0.000001");
+        assertThat(append(-0.0)).isEqualTo("-0");
+        assertThat(append(1e20)).isEqualTo("100000000000000000000");
+
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
+        Random random = new Random(11);
+        for (int decimals : new int[]{0, 2, 6, 9}) {
+            ByteBuffer.setHighPrecisionDecimals(decimals);
+            DecimalFormat format = new DecimalFormat(decimals == 0 ? "0" : "0." + "#".repeat(decimals), symbols);
+            for (int i = 0; i < 10000; i++) {
+                double d = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+                assertThat(append(d)).as("%s with %d decimals", d, decimals).isEqualTo(format.format(d));
+                assertThat(ByteBuffer.formatDouble(d)).isEqualTo(format.format(d));
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectUnsupportedPrecision() {
+        assertThatThrownBy(() -> ByteBuffer.setHighPrecisionDecimals(10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteBuffer.setHighPrecisionDecimals(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldAppendIntegers() {
+        ByteBuffer buf = new ByteBuffer(1);
+        buf.append(0).append(' ').append(-123).append(' ').append(Integer.MIN_VALUE).append(' ')
+                .append(Long.MAX_VALUE).append(' ').append(Long.MIN_VALUE);
+        assertThat(buf.toString()).isEqualTo("0 -123 -2147483648 9223372036854775807 -9223372036854775808");
+    }
+}
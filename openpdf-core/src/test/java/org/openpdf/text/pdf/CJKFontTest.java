@@ -0,0 +1,36 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CJKFontTest {
+
+    @Test
+    void shouldReadPrecompiledCMap() {
+        char[] cmap = CJKFont.readCMap("UniGB-UCS2-H");
+        assertThat(cmap).hasSize(0x10000);
+        assertThat((int) cmap['A']).isEqualTo(34);
+        assertThat((int) cmap[0x4e00]).isEqualTo(4162);
+    }
+
+    @Test
+    void shouldReturnNullForMissingCMap() {
+        assertThat(CJKFont.readCMap("No-Such-CMap")).isNull();
+    }
+
+    @Test
+    void shouldTranslateWithCachedCMap() throws Exception {
+        BaseFont first = BaseFont.createFont("STSong-Light", "UniGB-UCS2-H", BaseFont.NOT_EMBEDDED, false);
+        BaseFont second = BaseFont.createFont("STSong-Light", "UniGB-UCS2-H", BaseFont.NOT_EMBEDDED, false);
+        assertThat(first.getCidCode(0x4e00)).isEqualTo(4162);
+        assertThat(second.getCidCode(0x4e00)).isEqualTo(4162);
+    }
+
+    @Test
+    void shouldFallBackToHorizontalCMapForVerticalEncoding() throws Exception {
+        BaseFont font = BaseFont.createFont("STSong-Light", "UniGB-UCS2-V", BaseFont.NOT_EMBEDDED, false);
+        assertThat(font.getCidCode(0x4e00)).isEqualTo(4162);
+        assertThat(font.charExists('A')).isTrue();
+    }
+}
@@ -0,0 +1,75 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CompactMapTest {
+
+    @Test
+    void keepsInsertionOrderWhileSmall() {
+        Map<String, Integer> map = new CompactMap<>();
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.put("a", 4);
+        assertThat(map).hasSize(3);
+        assertThat(map.keySet()).containsExactly("c", "a", "b");
+        assertThat(map.get("a")).isEqualTo(4);
+        assertThat(map.remove("c")).isEqualTo(1);
+        assertThat(map.keySet()).containsExactly("a", "b");
+        assertThat(map.containsKey("c")).isFalse();
+    }
+
+    @Test
+    void behavesLikeHashMapPastArraySize() {
+        Map<String, Integer> map = new CompactMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int k = 0; k < CompactMap.MAX_ARRAY_SIZE * 3; ++k) {
+            map.put("k" + k, k);
+            expected.put("k" + k, k);
+            assertThat(map).isEqualTo(expected);
+        }
+        for (int k = 0; k < CompactMap.MAX_ARRAY_SIZE * 3; k += 2) {
+            assertThat(map.remove("k" + k)).isEqualTo(expected.remove("k" + k));
+        }
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        map.clear();
+        assertThat(map).isEmpty();
+    }
+
+    @Test
+    void iteratorRemovesAndWritesThrough() {
+        Map<String, Integer> map = new CompactMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            if (entry.getKey().equals("b")) {
+                it.remove();
+            } else {
+                entry.setValue(entry.getValue() * 10);
+            }
+        }
+        assertThat(map).containsExactly(Map.entry("a", 10), Map.entry("c", 30));
+    }
+
+    @Test
+    void iteratorFailsOnConcurrentChange() {
+        Map<String, Integer> map = new CompactMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        Iterator<String> it = map.keySet().iterator();
+        it.next();
+        map.put("c", 3);
+        assertThatThrownBy(it::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+}
@@ -0,0 +1,91 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Test;
+
+class FlateCodecTest {
+
+    private static byte[] sampleContent() {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < 2000; ++k) {
+            sb.append("BT /F1 12 Tf ").append(k).append(" 700 Td (Hello OpenPDF) Tj ET\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    void deflateAndInflateRoundTrip() {
+        byte[] data = sampleContent();
+        for (int level = -1; level <= 9; ++level) {
+            byte[] compressed = FlateCodec.deflate(data, level);
+            assertThat(FlateCodec.inflate(compressed, true)).isEqualTo(data);
+            assertThat(PdfReader.FlateDecode(compressed)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void releasedDeflaterIsReusedWithNewLevel() {
+        byte[] data = sampleContent();
+        Deflater deflater = FlateCodec.acquireDeflater(Deflater.BEST_COMPRESSION);
+        FlateCodec.releaseDeflater(deflater);
+        byte[] stored = FlateCodec.deflate(data, Deflater.NO_COMPRESSION);
+        assertThat(stored.length).isGreaterThan(data.length);
+        assertThat(FlateCodec.inflate(stored, true)).isEqualTo(data);
+    }
+
+    @Test
+    void truncatedDataIsRejectedInStrictModeAndRecoveredOtherwise() {
+        byte[] data = sampleContent();
+        byte[] compressed = FlateCodec.deflate(data, Deflater.DEFAULT_COMPRESSION);
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+
+        assertThat(FlateCodec.inflate(truncated, true)).isNull();
+        byte[] recovered = FlateCodec.inflate(truncated, false);
+        assertThat(recovered).isNotEmpty();
+        assertThat(Arrays.copyOf(data, recovered.length)).isEqualTo(recovered);
+    }
+
+    @Test
+    void compressedStreamDecodesToOriginalContent() {
+        byte[] data = sampleContent();
+        PdfStream stream = new PdfStream(data);
+        stream.flateCompress();
+        assertThat(stream.get(PdfName.FILTER)).isEqualTo(PdfName.FLATEDECODE);
+        assertThat(PdfReader.FlateDecode(stream.getBytes() != null ? stream.getBytes()
+                : stream.streamBytes.toByteArray())).isEqualTo(data);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    void inflateStreamDecodesAsInflate() throws IOException {
+        byte[] data = sampleContent();
+        byte[] compressed = FlateCodec.deflate(data, Deflater.DEFAULT_COMPRESSION);
+        assertThat(readAll(FlateCodec.inflateStream(compressed))).isEqualTo(data);
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThat(readAll(FlateCodec.inflateStream(truncated))).isEqualTo(PdfReader.FlateDecode(truncated));
+
+        byte[] corrupt = compressed.clone();
+        for (int k = corrupt.length / 2; k < corrupt.length / 2 + 16; ++k) {
+            corrupt[k] = (byte) ~corrupt[k];
+        }
+        assertThat(readAll(FlateCodec.inflateStream(corrupt))).isEqualTo(PdfReader.FlateDecode(corrupt));
+    }
+}
@@ -0,0 +1,132 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class FontRegistryTest {
+
+    private static final String FONT = "src/test/resources/fonts/liberation/LiberationSerif-Regular.ttf";
+
+    @Test
+    void concurrentRequestsLoadOnce() throws Exception {
+        FontRegistry<String, byte[]> registry = new FontRegistry<>(1024, b -> b.length);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int k = 0; k < 8; ++k) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return registry.get("font", () -> {
+                        loads.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new byte[10];
+                    });
+                }));
+            }
+            start.countDown();
+            byte[] first = results.get(0).get();
+            for (Future<byte[]> result : results) {
+                assertThat(result.get()).isSameAs(first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(registry.getLoads()).isEqualTo(1);
+        assertThat(registry.getHits() + registry.getMisses()).isEqualTo(8);
+        assertThat(registry.getBytes()).isEqualTo(10);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedBySize() throws Exception {
+        FontRegistry<String, byte[]> registry = new FontRegistry<>(100, b -> b.length);
+        registry.put("a", new byte[40]);
+        registry.put("b", new byte[40]);
+        assertThat(registry.get("a")).isNotNull();
+        registry.put("c", new byte[40]);
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.getBytes()).isEqualTo(80);
+        assertThat(registry.getEvictions()).isEqualTo(1);
+        assertThat(registry.get("a")).isNotNull();
+        assertThat(registry.get("c")).isNotNull();
+
+        registry.setMaxBytes(10);
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.get("c")).isNotNull();
+    }
+
+    @Test
+    void evictedValuesStillInUseAreNotLoadedAgain() throws Exception {
+        FontRegistry<String, byte[]> registry = new FontRegistry<>(100, b -> b.length);
+        byte[] inUse = registry.get("a", () -> new byte[60]);
+        registry.put("b", new byte[60]);
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.getEvictions()).isEqualTo(1);
+
+        assertThat(registry.get("a", () -> new byte[60])).isSameAs(inUse);
+        assertThat(registry.getLoads()).isEqualTo(1);
+        assertThat(registry.size()).isEqualTo(1);
+
+        registry.remove("a");
+        assertThat(registry.get("a")).isNull();
+    }
+
+    @Test
+    void hitRateCountsLookups() {
+        FontRegistry<String, byte[]> registry = new FontRegistry<>(100, b -> b.length);
+        assertThat(registry.getHitRate()).isZero();
+        registry.put("a", new byte[1]);
+        registry.get("a");
+        registry.get("a");
+        registry.get("a");
+        registry.get("b");
+        assertThat(registry.getHitRate()).isEqualTo(0.75);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        FontRegistry<String, byte[]> registry = new FontRegistry<>(100, b -> b.length);
+        assertThatThrownBy(() -> registry.get("x", () -> {
+            throw new IOException("broken");
+        })).isInstanceOf(IOException.class);
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void cachedFontsShareOneInstanceAndFontBytes() throws Exception {
+        BaseFont.getFontCache().remove(FONT + "\n" + BaseFont.CP1252 + "\n" + BaseFont.EMBEDDED);
+        long loads = BaseFont.getFontCache().getLoads();
+        BaseFont font = BaseFont.createFont(FONT, BaseFont.CP1252, BaseFont.EMBEDDED);
+        assertThat(BaseFont.createFont(FONT, BaseFont.CP1252, BaseFont.EMBEDDED)).isSameAs(font);
+        assertThat(BaseFont.getFontCache().getLoads()).isEqualTo(loads + 1);
+
+        BaseFont.setShareFontBytes(true);
+        try {
+            BaseFont.getFontBytesCache().remove(FONT);
+            BaseFont winAnsi = BaseFont.createFont(FONT, BaseFont.CP1252, true, false, null, null, false, true);
+            BaseFont identity = BaseFont.createFont(FONT, BaseFont.IDENTITY_H, true, false, null, null, false, true);
+            assertThat(((TrueTypeFont) winAnsi).getFullFont()).isEqualTo(((TrueTypeFont) identity).getFullFont());
+            assertThat(BaseFont.getFontBytesCache().get(FONT)).isNotNull();
+        } finally {
+            BaseFont.setShareFontBytes(false);
+            BaseFont.getFontBytesCache().clear();
+        }
+    }
+}
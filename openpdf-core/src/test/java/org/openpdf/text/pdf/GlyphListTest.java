@@ -1,6 +1,7 @@
 package org.openpdf.text.pdf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import org.junit.jupiter.api.Test;
 
@@ -30,4 +31,12 @@ class GlyphListTest {
         }
 
     }
+
+    @Test
+    void shouldKeepLastNameForSharedCodePoint() {
+        assertEquals("afii10017", GlyphList.unicodeToName(0x410));
+        assertEquals("Dcroat", GlyphList.unicodeToName(0x110));
+        assertEquals(0x410, GlyphList.nameToUnicode("Acyrillic")[0]);
+        assertNull(GlyphList.unicodeToName(0x10ffff));
+    }
 }
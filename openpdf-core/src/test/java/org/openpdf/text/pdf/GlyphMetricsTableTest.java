@@ -0,0 +1,57 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import org.junit.jupiter.api.Test;
+
+class GlyphMetricsTableTest {
+
+    private static HashMap<Integer, int[]> cmap() {
+        HashMap<Integer, int[]> cmap = new HashMap<>();
+        cmap.put((int) 'A', new int[]{36, 600});
+        cmap.put((int) 'B', new int[]{37, 550});
+        cmap.put(0x4e00, new int[]{900, 1000});
+        cmap.put(0x1f600, new int[]{1200, 1100});
+        cmap.put(-5, new int[]{1, 1});
+        return cmap;
+    }
+
+    @Test
+    void shouldLookUpMappedCodePoints() {
+        HashMap<Integer, int[]> cmap = cmap();
+        GlyphMetricsTable table = GlyphMetricsTable.of(cmap);
+        assertThat(table.get('A')).isSameAs(cmap.get((int) 'A'));
+        assertThat(table.get(0x4e00)).containsExactly(900, 1000);
+        assertThat(table.get(0x1f600)).containsExactly(1200, 1100);
+        assertThat(table.get('C')).isNull();
+        assertThat(table.get(0x1f601)).isNull();
+        assertThat(table.get(0x10ffff)).isNull();
+        assertThat(table.get(-5)).isNull();
+    }
+
+    @Test
+    void shouldSumWidthsIncludingSurrogatePairs() {
+        GlyphMetricsTable table = GlyphMetricsTable.of(cmap());
+        assertThat(table.getWidth("AB\u4e00C")).isEqualTo(600 + 550 + 1000);
+        assertThat(table.getWidth("A" + new String(Character.toChars(0x1f600)))).isEqualTo(600 + 1100);
+        assertThat(table.getWidth("")).isZero();
+    }
+
+    @Test
+    void shouldSumSymbolWidthsFromLowByte() {
+        GlyphMetricsTable table = GlyphMetricsTable.of(cmap());
+        assertThat(table.getSymbolWidth("A\uf041\u0141B")).isEqualTo(600 + 600 + 550);
+    }
+
+    @Test
+    void shouldSeeAdvanceChangesAndRebuildForAnotherCmap() {
+        HashMap<Integer, int[]> cmap = cmap();
+        GlyphMetricsTable table = GlyphMetricsTable.of(cmap);
+        cmap.get((int) 'A')[1] = 700;
+        assertThat(table.getWidth("A")).isEqualTo(700);
+        assertThat(GlyphMetricsTable.of(table, cmap)).isSameAs(table);
+        assertThat(GlyphMetricsTable.of(table, new HashMap<>())).isNotSameAs(table);
+        assertThat(GlyphMetricsTable.of(table, null)).isNull();
+    }
+}
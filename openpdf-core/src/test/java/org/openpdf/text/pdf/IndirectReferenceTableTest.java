@@ -0,0 +1,50 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class IndirectReferenceTableTest {
+
+    @Test
+    void shouldMapReferencesByNumberAndGeneration() {
+        IndirectReferenceTable table = new IndirectReferenceTable();
+        PdfIndirectReference first = new PdfIndirectReference(PdfObject.DICTIONARY, 10);
+        PdfIndirectReference second = new PdfIndirectReference(PdfObject.DICTIONARY, 11);
+        table.put(5, 0, first);
+        table.put(5, 1, second);
+        assertThat(table.get(5, 0)).isSameAs(first);
+        assertThat(table.get(5, 1)).isSameAs(second);
+        assertThat(table.get(6, 0)).isNull();
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTrackCopiedEntries() {
+        IndirectReferenceTable table = new IndirectReferenceTable();
+        table.put(1, 0, new PdfIndirectReference(PdfObject.DICTIONARY, 1));
+        assertThat(table.isCopied(1, 0)).isFalse();
+        table.setCopied(1, 0);
+        table.setCopied(2, 0);
+        assertThat(table.isCopied(1, 0)).isTrue();
+        assertThat(table.isCopied(2, 0)).isFalse();
+        assertThat(table.get(2, 0)).isNull();
+    }
+
+    @Test
+    void shouldKeepEntriesWhenGrowing() {
+        IndirectReferenceTable table = new IndirectReferenceTable();
+        for (int num = 0; num < 100000; ++num) {
+            table.put(num, num & 3, new PdfIndirectReference(PdfObject.DICTIONARY, num + 1));
+            if (num % 3 == 0) {
+                table.setCopied(num, num & 3);
+            }
+        }
+        assertThat(table.size()).isEqualTo(100000);
+        for (int num = 0; num < 100000; ++num) {
+            assertThat(table.get(num, num & 3).getNumber()).isEqualTo(num + 1);
+            assertThat(table.isCopied(num, num & 3)).isEqualTo(num % 3 == 0);
+            assertThat(table.get(num, (num & 3) + 1)).isNull();
+        }
+    }
+}
@@ -1,23 +1,30 @@
 package org.openpdf.text.pdf;
 
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import org.openpdf.text.Document;
 import org.openpdf.text.Image;
 import org.openpdf.text.Paragraph;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 /**
  * This will create a file which is > 2 GB, then attempt to read it.
  */
 class LargePdfTest {
 
+    private static final long BASE = 3L * 1024 * 1024 * 1024;
+
+    private static final byte[] HEADER = "%PDF-1.4\n".getBytes(StandardCharsets.ISO_8859_1);
+
     private File largeFile;
 
     @BeforeEach
@@ -53,8 +60,145 @@ class LargePdfTest {
 
         String canonicalPath = largeFile.getCanonicalPath();
 
-        assertThatThrownBy(() -> new PdfReader(canonicalPath))
-                .isInstanceOf(PdfException.class);
+        PdfReader reader = new PdfReader(new RandomAccessFileOrArray(canonicalPath), null);
+        assertThat(reader.getNumberOfPages()).isPositive();
+        reader.close();
+    }
+
+    /**
+     * Writes the objects of a one page document behind a sparse 3 GB gap, so every xref offset is beyond 2 GB. Needs a
+     * file system with sparse files and room for 3 GB, so it only runs with
+     * <CODE>-Dopenpdf.largeFileTests=true</CODE>.
+     */
+    @EnabledIfSystemProperty(named = "openpdf.largeFileTests", matches = "true")
+    @Test
+    void readObjectsBeyond2GbInPartialMode() throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(largeFile, "rw")) {
+            raf.write(HEADER);
+            raf.seek(BASE);
+            raf.write(objectsAt(BASE));
+        }
+
+        assertReadsOnePage(new PdfReader(new RandomAccessFileOrArray(largeFile.getCanonicalPath()), null));
+    }
+
+    /**
+     * Reads the same document as {@link #readObjectsBeyond2GbInPartialMode()} from memory, so the offsets beyond 2 GB
+     * are parsed in every build.
+     */
+    @Test
+    void readObjectsBeyond2GbFromASparseSource() throws Exception {
+        assertReadsOnePage(new PdfReader(new SparseFileOrArray(HEADER, BASE, objectsAt(BASE)), null));
     }
 
+    /**
+     * Returns the objects, xref table and trailer of a one page document, with offsets as if they start at
+     * <CODE>base</CODE>.
+     */
+    private static byte[] objectsAt(long base) {
+        String[] objects = {
+                "1 0 obj\n<</Type/Catalog/Pages 2 0 R>>\nendobj\n",
+                "2 0 obj\n<</Type/Pages/Kids[3 0 R]/Count 1>>\nendobj\n",
+                "3 0 obj\n<</Type/Page/Parent 2 0 R/MediaBox[0 0 200 300]>>\nendobj\n"
+        };
+        StringBuilder body = new StringBuilder();
+        StringBuilder xref = new StringBuilder("xref\n0 4\n0000000000 65535 f \n");
+        for (String object : objects) {
+            xref.append(String.format("%010d 00000 n \n", base + body.length()));
+            body.append(object);
+        }
+        long startxref = base + body.length();
+        xref.append("trailer\n<</Size 4/Root 1 0 R>>\nstartxref\n").append(startxref).append("\n%%EOF\n");
+        return body.append(xref).toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void assertReadsOnePage(PdfReader reader) throws IOException {
+        try {
+            assertThat(reader.isRebuilt()).isFalse();
+            assertThat(reader.getLongLastXref()).isGreaterThan(Integer.MAX_VALUE);
+            assertThat(reader.getLongFileLength()).isGreaterThan(BASE);
+            assertThat(reader.getNumberOfPages()).isEqualTo(1);
+            assertThat(reader.getPageSize(1).getHeight()).isEqualTo(300f);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Serves a head at the start and a tail at a large offset from memory, with zeros in between, as a sparse file
+     * would.
+     */
+    private static final class SparseFileOrArray extends RandomAccessFileOrArray {
+
+        private final byte[] head;
+        private final long tailStart;
+        private final byte[] tail;
+        private long position;
+
+        SparseFileOrArray(byte[] head, long tailStart, byte[] tail) {
+            super(new byte[0]);
+            this.head = head;
+            this.tailStart = tailStart;
+            this.tail = tail;
+        }
+
+        @Override
+        public int read() {
+            if (isBack) {
+                isBack = false;
+                return back & 0xff;
+            }
+            if (position >= longLength()) {
+                return -1;
+            }
+            long pos = position++;
+            if (pos < head.length) {
+                return head[(int) pos] & 0xff;
+            }
+            return pos < tailStart ? 0 : tail[(int) (pos - tailStart)] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            for (int c; n < len && (c = read()) >= 0; ++n) {
+                b[off + n] = (byte) c;
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        @Override
+        public long longLength() {
+            return tailStart + tail.length;
+        }
+
+        @Override
+        public void seek(long pos) {
+            isBack = false;
+            position = pos;
+        }
+
+        @Override
+        public long getLongFilePointer() {
+            return position - (isBack ? 1 : 0);
+        }
+
+        @Override
+        public RandomAccessFileOrArray createView() {
+            return new SparseFileOrArray(head, tailStart, tail);
+        }
+
+        @Override
+        public void reOpen() {
+            seek(0L);
+        }
+
+        @Override
+        public void close() {
+            isBack = false;
+        }
+    }
 }
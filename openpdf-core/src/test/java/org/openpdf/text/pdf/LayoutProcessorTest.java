@@ -4,6 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.openpdf.text.Document;
+import org.openpdf.text.Font;
+import java.io.ByteArrayOutputStream;
 import org.junit.jupiter.api.Test;
 
 class LayoutProcessorTest {
@@ -17,4 +20,76 @@ class LayoutProcessorTest {
         assertThat(LayoutProcessor.getFlags()).isEqualTo(-1);
     }
 
+    @Test
+    void repeatedTextIsLaidOutOnce() throws Exception {
+        String fontFile = "src/test/resources/fonts/NotoSansThaiLooped/NotoSansThaiLooped-Regular.ttf";
+        LayoutProcessor.enable();
+        try {
+            BaseFont baseFont = BaseFont.createFont(fontFile, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            BaseFont sameNamedFont = BaseFont.createFont(fontFile, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false,
+                    null, null);
+            LayoutProcessor.loadFont(baseFont, fontFile);
+            LayoutProcessor.loadFont(sameNamedFont, fontFile);
+            String text = "\u0e2a\u0e27\u0e31\u0e2a\u0e14\u0e35";
+            long hits = LayoutProcessor.getShapedRunCache().getHits();
+            long misses = LayoutProcessor.getShapedRunCache().getMisses();
+
+            Document document = new Document();
+            PdfWriter writer = PdfWriter.getInstance(document, new ByteArrayOutputStream());
+            document.open();
+            PdfContentByte cb = writer.getDirectContent();
+            cb.beginText();
+            cb.setFontAndSize(baseFont, 12f);
+            String before = cb.toString();
+            LayoutProcessor.showText(cb, baseFont, 12f, text);
+            String first = cb.toString().substring(before.length());
+            LayoutProcessor.showText(cb, baseFont, 12f, text);
+            assertThat(cb.toString()).isEqualTo(before + first + first);
+            LayoutProcessor.showText(cb, baseFont, 10f, text);
+            cb.setFontAndSize(sameNamedFont, 12f);
+            LayoutProcessor.showText(cb, sameNamedFont, 12f, text);
+            cb.endText();
+            document.close();
+
+            assertThat(LayoutProcessor.getShapedRunCache().getHits()).isEqualTo(hits + 1);
+            assertThat(LayoutProcessor.getShapedRunCache().getMisses()).isEqualTo(misses + 3);
+            assertThat(LayoutProcessor.computeGlyphVector(baseFont, 12f, text))
+                    .isNotSameAs(LayoutProcessor.computeGlyphVector(baseFont, 12f, text));
+        } finally {
+            LayoutProcessor.disable();
+        }
+        assertThat(LayoutProcessor.getShapedRunCache().size()).isZero();
+    }
+
+    @Test
+    void changedTextAttributesAreNotServedFromTheCache() throws Exception {
+        String fontFile = "src/test/resources/fonts/liberation/LiberationSerif-Regular.ttf";
+        LayoutProcessor.enable();
+        try {
+            BaseFont baseFont = BaseFont.createFont(fontFile, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            LayoutProcessor.loadFont(baseFont, fontFile);
+            Font font = new Font(baseFont, 12f);
+            String text = "AVAWAVATAY";
+
+            String plain = showText(baseFont, text);
+            assertThat(showText(baseFont, text)).isEqualTo(plain);
+            assertThat(plain).contains("Tj").doesNotContain("TJ");
+
+            LayoutProcessor.setKerning(font);
+            String kerned = showText(baseFont, text);
+            assertThat(kerned).isNotEqualTo(plain).contains("TJ");
+
+            LayoutProcessor.setRunDirectionRtl(font);
+            assertThat(showText(baseFont, text)).isNotEqualTo(kerned);
+        } finally {
+            LayoutProcessor.disable();
+        }
+    }
+
+    private static String showText(BaseFont baseFont, String text) {
+        PdfContentByte cb = new PdfContentByte(null);
+        cb.state.fontDetails = new FontDetails(new PdfName("F1"), null, baseFont);
+        LayoutProcessor.showText(cb, baseFont, 12f, text);
+        return cb.toString();
+    }
 }
@@ -0,0 +1,36 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class Murmur3Hash128Test {
+
+    private static long[] hash(String s) {
+        Murmur3Hash128 hasher = new Murmur3Hash128();
+        hasher.update(s);
+        return hasher.digest();
+    }
+
+    @Test
+    void matchesReferenceValues() {
+        assertThat(hash("")).containsExactly(0L, 0L);
+        assertThat(hash("hello")).containsExactly(0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L);
+        assertThat(hash("The quick brown fox jumps over the lazy dog"))
+                .containsExactly(0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L);
+    }
+
+    @Test
+    void doesNotDependOnHowDataIsSplit() {
+        byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.ISO_8859_1);
+        for (int split = 0; split <= data.length; ++split) {
+            Murmur3Hash128 hasher = new Murmur3Hash128();
+            hasher.update(data, 0, split);
+            for (int k = split; k < data.length; ++k) {
+                hasher.update(data[k]);
+            }
+            assertThat(hasher.digest()).containsExactly(0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NumberListTest {
+
+    private static List<PdfObject> parsed(String... numbers) {
+        List<PdfObject> elements = new ArrayList<>();
+        for (String number : numbers) {
+            elements.add(new PdfNumber(number));
+        }
+        return elements;
+    }
+
+    @Test
+    void compactsNumbersThatAreWrittenBackUnchanged() {
+        List<PdfObject> elements = parsed("0", "-12", "612", "792");
+        List<PdfObject> compact = NumberList.compact(elements);
+        assertThat(compact).isInstanceOf(NumberList.class).isEqualTo(elements);
+        assertThat(compact.toString()).isEqualTo(elements.toString());
+
+        elements = parsed("0", "0.5", "-3.25", "792");
+        compact = NumberList.compact(elements);
+        assertThat(compact).isInstanceOf(NumberList.class);
+        assertThat(compact.toString()).isEqualTo(elements.toString());
+    }
+
+    @Test
+    void keepsNumbersThatWouldBeWrittenDifferently() {
+        for (String odd : new String[]{"007", "+5", "-0", "1.50", ".5", "1.23456"}) {
+            List<PdfObject> elements = parsed("1", odd);
+            assertThat(NumberList.compact(elements)).as(odd).isSameAs(elements);
+        }
+        List<PdfObject> mixed = parsed("1", "2");
+        mixed.add(new PdfName("X"));
+        assertThat(NumberList.compact(mixed)).isSameAs(mixed);
+    }
+
+    @Test
+    void changesInflateTheList() {
+        PdfArray array = new PdfArray(new int[]{1, 2, 3});
+        assertThat(array.getAsNumber(1).intValue()).isEqualTo(2);
+        array.add(new PdfName("X"));
+        array.remove(0);
+        array.set(0, new PdfNumber(7));
+        assertThat(array.toString()).isEqualTo("[7, 3, /X]");
+
+        PdfArray box = new PdfArray(new float[]{0, 0, 595.5f, 842});
+        assertThat(box.toString()).isEqualTo("[0, 0, 595.5, 842]");
+    }
+}
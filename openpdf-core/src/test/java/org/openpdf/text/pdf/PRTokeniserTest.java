@@ -0,0 +1,145 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openpdf.text.exceptions.InvalidPdfException;
+
+class PRTokeniserTest {
+
+    private static PRTokeniser tokeniser(String s) {
+        return new PRTokeniser(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void subclassesSeeTheValueOfEveryToken() throws Exception {
+        List<String> values = new ArrayList<>();
+        PRTokeniser tk = new PRTokeniser("/Name 12 (text) <4142> 3.5 true".getBytes(StandardCharsets.ISO_8859_1)) {
+            @Override
+            public boolean nextToken() throws IOException {
+                boolean read = super.nextToken();
+                if (read) {
+                    values.add(getTokenType() + ":" + getStringValue());
+                }
+                return read;
+            }
+        };
+        while (tk.nextToken()) {
+            // the subclass collects the values
+        }
+        assertThat(values).containsExactly(
+                PRTokeniser.TK_NAME + ":Name",
+                PRTokeniser.TK_NUMBER + ":12",
+                PRTokeniser.TK_STRING + ":text",
+                PRTokeniser.TK_STRING + ":AB",
+                PRTokeniser.TK_NUMBER + ":3.5",
+                PRTokeniser.TK_OTHER + ":true");
+    }
+
+    @Test
+    void readsReferencesAndNumbers() throws Exception {
+        PRTokeniser tk = tokeniser("12 0 R 7 -3.25 obj +5 .5");
+        tk.nextValidToken();
+        assertThat(tk.getTokenType()).isEqualTo(PRTokeniser.TK_REF);
+        assertThat(tk.getReference()).isEqualTo(12);
+        assertThat(tk.getGeneration()).isZero();
+        tk.nextValidToken();
+        assertThat(tk.getTokenType()).isEqualTo(PRTokeniser.TK_NUMBER);
+        assertThat(tk.intValue()).isEqualTo(7);
+        assertThat(tk.getStringValue()).isEqualTo("7");
+        tk.nextValidToken();
+        assertThat(tk.numberValue().doubleValue()).isEqualTo(-3.25);
+        tk.nextValidToken();
+        assertThat(tk.getStringValue()).isSameAs("obj");
+        tk.nextValidToken();
+        assertThat(tk.intValue()).isEqualTo(5);
+        assertThat(tk.longValue()).isEqualTo(5L);
+        tk.nextValidToken();
+        PdfNumber number = tk.numberValue();
+        assertThat(number.doubleValue()).isEqualTo(0.5);
+        assertThat(number.toString()).isEqualTo(".5");
+    }
+
+    @Test
+    void parsesNumbersLikeDoubleParseDouble() throws Exception {
+        String[] numbers = {"0", "-0", "1.1", "0.1", "123456.789", "-98.76543210123", "3.", "1234567890123456789",
+                "0.000000000000000001"};
+        PRTokeniser tk = tokeniser(String.join(" ", numbers));
+        for (String n : numbers) {
+            tk.nextToken();
+            PdfNumber number = tk.numberValue();
+            assertThat(number.doubleValue()).isEqualTo(Double.parseDouble(n));
+            assertThat(number.toString()).isEqualTo(n);
+        }
+    }
+
+    @Test
+    void malformedNumbersFailAsBefore() throws Exception {
+        PRTokeniser tk = tokeniser("1.2.3 99999999999");
+        tk.nextToken();
+        assertThatThrownBy(tk::numberValue).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(tk::intValue).isInstanceOf(NumberFormatException.class);
+        tk.nextToken();
+        assertThatThrownBy(tk::intValue).isInstanceOf(NumberFormatException.class);
+        assertThat(tk.longValue()).isEqualTo(99999999999L);
+        assertThatThrownBy(tokeniser("1 2.5 R")::nextValidToken).isInstanceOf(InvalidPdfException.class);
+    }
+
+    @Test
+    void internsStaticNames() throws Exception {
+        PRTokeniser tk = tokeniser("/Type /Length /My#20Name /Ab#28");
+        tk.nextToken();
+        assertThat(tk.nameValue(true)).isSameAs(PdfName.TYPE);
+        assertThat(tk.nameValue(false)).isNotSameAs(PdfName.TYPE).isEqualTo(PdfName.TYPE);
+        tk.nextToken();
+        assertThat(tk.nameValue(true)).isSameAs(PdfName.LENGTH);
+        tk.nextToken();
+        assertThat(tk.nameValue(true)).isEqualTo(new PdfName("My Name"));
+        assertThat(tk.getStringValue()).isEqualTo("My Name");
+        tk.nextToken();
+        assertThat(tk.nameValue(true).toString()).isEqualTo("/Ab#28");
+    }
+
+    @Test
+    void readsStrings() throws Exception {
+        PRTokeniser tk = tokeniser("(a\\(b\\)\\101) <48656C6C6F>");
+        tk.nextToken();
+        assertThat(tk.getStringValue()).isEqualTo("a(b)A");
+        tk.nextToken();
+        assertThat(tk.isHexString()).isTrue();
+        assertThat(tk.getStringValue()).isEqualTo("Hello");
+    }
+
+    @Test
+    void readsAStreamSequentially() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < 2000; ++k) {
+            sb.append("BT /F1 12 Tf ").append(k).append(" 700 Td (Hello <OpenPDF>) Tj [<414243> -20] TJ ET\n");
+        }
+        byte[] content = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+        List<String> expected = new ArrayList<>();
+        try (PRTokeniser tk = new PRTokeniser(content)) {
+            while (tk.nextToken()) {
+                expected.add(tk.getTokenType() + ":" + tk.getStringValue());
+            }
+        }
+        List<String> tokens = new ArrayList<>();
+        try (PRTokeniser tk = new PRTokeniser(new ByteArrayInputStream(content))) {
+            while (tk.nextToken()) {
+                tokens.add(tk.getTokenType() + ":" + tk.getStringValue());
+            }
+            assertThat(tk.getLongFilePointer()).isEqualTo(content.length);
+            assertThatThrownBy(() -> tk.seek(0)).isInstanceOf(IOException.class);
+            assertThat(tk.longLength()).isEqualTo(-1);
+            assertThatThrownBy(() -> tk.getFile().createView()).isInstanceOf(IOException.class);
+            assertThatThrownBy(() -> tk.getFile().getNioByteBuffer()).isInstanceOf(IOException.class);
+        }
+        assertThat(tokens).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,133 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openpdf.text.Document;
+import org.openpdf.text.Paragraph;
+
+class PartialPdfReaderTest {
+
+    private static final int PAGES = 300;
+
+    private static File createDocument(File dir, boolean fullCompression) throws Exception {
+        File file = new File(dir, fullCompression ? "compressed.pdf" : "plain.pdf");
+        try (OutputStream out = new FileOutputStream(file)) {
+            Document document = new Document();
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            if (fullCompression) {
+                writer.setFullCompression();
+            }
+            document.open();
+            for (int page = 1; page <= PAGES; ++page) {
+                document.add(new Paragraph("Page " + page));
+                document.newPage();
+            }
+            document.close();
+        }
+        return file;
+    }
+
+    @Test
+    void partialReaderOnlyReadsUsedObjects(@TempDir File dir) throws Exception {
+        for (boolean fullCompression : new boolean[]{false, true}) {
+            File file = createDocument(dir, fullCompression);
+            try (PdfReader full = new PdfReader(file.getPath());
+                    PdfReader partial = new PdfReader(file.getPath(), null, true)) {
+                assertThat(partial.getNumberOfPages()).isEqualTo(PAGES);
+                assertThat(partial.getXrefSize()).isEqualTo(full.getXrefSize());
+                assertThat(partial.getPageContent(1)).isEqualTo(full.getPageContent(1));
+                assertThat(partial.getPageContent(PAGES)).isEqualTo(full.getPageContent(PAGES));
+                assertThat(partial.getPageSize(PAGES).getWidth()).isEqualTo(full.getPageSize(PAGES).getWidth());
+                assertThat(partial.dumpPerc()).isLessThan(10);
+            }
+        }
+    }
+
+    @Test
+    void softObjectCacheReturnsReleasedObjects(@TempDir File dir) throws Exception {
+        File file = createDocument(dir, true);
+        try (PdfReader reader = new PdfReader(file.getPath(), null, true)) {
+            PdfDictionary page = reader.getPageN(2);
+            int number = ((PRIndirectReference) page.get(PdfName.CONTENTS)).getNumber();
+
+            PdfObject first = reader.getPdfObjectRelease(number);
+            assertThat(reader.getPdfObjectRelease(number)).isNotSameAs(first);
+
+            reader.setSoftObjectCache(true);
+            assertThat(reader.isSoftObjectCache()).isTrue();
+            PdfObject cached = reader.getPdfObjectRelease(number);
+            assertThat(reader.getPdfObjectRelease(number)).isSameAs(cached);
+            assertThat(PdfReader.getStreamBytes((PRStream) cached)).isEqualTo(reader.getPageContent(2));
+        }
+    }
+
+    @Test
+    void pagesOfPartialReaderCanBeCopied(@TempDir File dir) throws Exception {
+        File file = createDocument(dir, true);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfReader reader = new PdfReader(file.getPath(), null, true)) {
+            Document document = new Document();
+            PdfCopy copy = new PdfCopy(document, baos);
+            document.open();
+            copy.addPage(copy.getImportedPage(reader, 150));
+            document.close();
+        }
+        try (PdfReader copied = new PdfReader(baos.toByteArray())) {
+            assertThat(copied.getNumberOfPages()).isEqualTo(1);
+            assertThat(new String(copied.getPageContent(1))).contains("Page 150");
+        }
+    }
+
+    @Test
+    void viewsReadPagesInParallel(@TempDir File dir) throws Exception {
+        File file = createDocument(dir, true);
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try (PdfReader reader = new PdfReader(file.getPath(), null, true)) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                int first = t + 1;
+                PdfReader view = reader.createView();
+                results.add(exec.submit(() -> {
+                    try (view) {
+                        for (int page = first; page <= PAGES; page += 4) {
+                            if (!new String(view.getPageContent(page)).contains("Page " + page)) {
+                                return false;
+                            }
+                            view.releasePage(page);
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+            assertThat(new String(reader.getPageContent(PAGES))).contains("Page " + PAGES);
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    void viewDoesNotShareChangesToXref(@TempDir File dir) throws Exception {
+        File file = createDocument(dir, true);
+        try (PdfReader reader = new PdfReader(file.getPath(), null, true)) {
+            PdfReader view = reader.createView();
+            PdfDictionary page = reader.getPageN(2);
+            PdfReader.killIndirect(page.get(PdfName.CONTENTS));
+            assertThat(reader.getPageContent(2)).isEmpty();
+            assertThat(new String(view.getPageContent(2))).contains("Page 2");
+        }
+    }
+}
@@ -4,15 +4,26 @@ import org.junit.jupiter.api.Test;
 import org.openpdf.text.Document;
 import org.openpdf.text.Paragraph;
 import org.openpdf.text.utils.PdfBatch;
+import org.openpdf.text.utils.PdfBatch.BatchOptions;
+import org.openpdf.text.utils.PdfBatch.TaskResult;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Tests for PdfBatchUtils to ensure it runs batch jobs on virtual threads.
@@ -86,4 +97,144 @@ class PdfBatchUtilsTest {
         Files.deleteIfExists(b);
         Files.deleteIfExists(merged);
     }
+
+    @Test
+    void stream_limitsConcurrency_and_reportsTimings() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<Callable<Integer>> tasks = IntStream.range(0, 50).mapToObj(i -> (Callable<Integer>) () -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            active.decrementAndGet();
+            return i;
+        }).toList();
+
+        try (var results = PdfBatch.stream(tasks, BatchOptions.defaults().withMaxConcurrency(4))) {
+            int sum = 0;
+            while (results.hasNext()) {
+                TaskResult<Integer> r = results.next();
+                assertTrue(r.isSuccess());
+                assertEquals(r.index(), r.value());
+                assertTrue(r.elapsed().toNanos() > 0);
+                assertTrue(results.inFlight() <= 4);
+                sum += r.value();
+            }
+            assertEquals(49 * 50 / 2, sum);
+            assertEquals(50, results.submitted());
+            assertEquals(50, results.completed());
+            assertEquals(0, results.failed());
+        }
+        assertTrue(maxActive.get() <= 4, "At most 4 tasks should run at once");
+    }
+
+    @Test
+    void stream_timesOutSlowTasks() {
+        List<Callable<String>> tasks = List.of(
+                () -> "fast",
+                () -> {
+                    Thread.sleep(10_000);
+                    return "slow";
+                });
+        try (var results = PdfBatch.stream(tasks, new BatchOptions(2, Duration.ofMillis(200)))) {
+            List<TaskResult<String>> all = results.stream().toList();
+            assertEquals(2, all.size());
+            TaskResult<String> slow = all.stream().filter(r -> r.index() == 1).findFirst().orElseThrow();
+            assertInstanceOf(TimeoutException.class, slow.failure());
+            assertEquals(1, results.failed());
+        }
+    }
+
+    @Test
+    void stream_stopsWhenCancelled() {
+        AtomicInteger started = new AtomicInteger();
+        Iterable<Callable<Integer>> endless = () -> IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> (Callable<Integer>) () -> {
+                    started.incrementAndGet();
+                    return i;
+                }).iterator();
+        try (var results = PdfBatch.stream(endless, new BatchOptions(2, null))) {
+            for (int k = 0; k < 10; ++k) {
+                assertTrue(results.hasNext());
+                results.next();
+            }
+            results.cancel();
+            assertFalse(results.hasNext());
+            assertTrue(results.submitted() <= 12);
+        }
+        assertTrue(started.get() <= 12);
+    }
+
+    @Test
+    void streamMerge_createsOutputs() throws Exception {
+        Path a = tinyPdf("a-");
+        Path b = tinyPdf("b-");
+        Path merged1 = Files.createTempFile("merged-", ".pdf");
+        Path merged2 = Files.createTempFile("merged-", ".pdf");
+        var jobs = List.of(new PdfBatchUtils.MergeJob(List.of(a, b), merged1),
+                new PdfBatchUtils.MergeJob(List.of(b, a), merged2));
+
+        try (var results = PdfBatchUtils.streamMerge(jobs, new BatchOptions(1, null))) {
+            results.forEachRemaining(r -> assertTrue(r.isSuccess(), () -> String.valueOf(r.failure())));
+            assertEquals(2, results.completed());
+        }
+        try (PdfReader reader = new PdfReader(merged2.toString())) {
+            assertEquals(2, reader.getNumberOfPages());
+        }
+
+        Files.deleteIfExists(a);
+        Files.deleteIfExists(b);
+        Files.deleteIfExists(merged1);
+        Files.deleteIfExists(merged2);
+    }
+
+    @Test
+    void watermarkEncryptAndSplit_readInputsFromFile() throws Exception {
+        Path in = tinyPdf("in-");
+        Path dir = Files.createTempDirectory("batch-");
+        Path watermarked = PdfBatchUtils.watermark(in, dir.resolve("wm.pdf"), "DRAFT", 40f, 0.3f);
+        Path encrypted = PdfBatchUtils.encrypt(watermarked, dir.resolve("enc.pdf"), "user", "owner",
+                PdfBatchUtils.perms(true, false, false, false), PdfBatchUtils.aes128());
+        List<Path> pages = PdfBatchUtils.split(watermarked, dir, "page");
+
+        try (PdfReader reader = new PdfReader(encrypted.toString(), "owner".getBytes())) {
+            assertTrue(reader.isEncrypted());
+            assertEquals(1, reader.getNumberOfPages());
+        }
+        assertEquals(1, pages.size());
+        try (PdfReader reader = new PdfReader(pages.get(0).toString())) {
+            assertEquals(1, reader.getNumberOfPages());
+        }
+        assertNotOpen(in, watermarked, encrypted, pages.get(0));
+        Files.delete(in);
+        Files.delete(watermarked);
+        Files.delete(encrypted);
+        Files.delete(pages.get(0));
+        Files.delete(dir);
+    }
+
+    /**
+     * Checks that no file descriptor of this process still points to the files. Deleting an open file succeeds on
+     * Linux, so the descriptors are looked up directly.
+     */
+    private static void assertNotOpen(Path... files) throws IOException {
+        Path fds = Path.of("/proc/self/fd");
+        assumeTrue(Files.isDirectory(fds), "needs /proc/self/fd");
+        Set<Path> expected = new HashSet<>();
+        for (Path file : files) {
+            expected.add(file.toRealPath());
+        }
+        List<Path> open = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(fds)) {
+            for (Path fd : stream) {
+                try {
+                    open.add(Files.readSymbolicLink(fd));
+                } catch (IOException e) {
+                    // the descriptor was closed while listing
+                }
+            }
+        }
+        for (Path target : open) {
+            assertFalse(expected.contains(target), () -> target + " is still open");
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PdfContentParserTest {
+
+    @Test
+    void operatorsAreReadOnce() throws Exception {
+        byte[] content = "q 1 0 0 1 10 20 cm BT (a) Tj ET Q q BT (b) Tj ET Q 1 2 m 3 4 l S true"
+                .getBytes(StandardCharsets.ISO_8859_1);
+        PdfContentParser parser = new PdfContentParser(new PRTokeniser(content));
+        List<PdfObject> operands = new ArrayList<>();
+        List<PdfObject> operators = new ArrayList<>();
+        while (!parser.parse(operands).isEmpty()) {
+            operators.add(operands.get(operands.size() - 1));
+        }
+        assertThat(operators).extracting(PdfObject::toString)
+                .containsExactly("q", "cm", "BT", "Tj", "ET", "Q", "q", "BT", "Tj", "ET", "Q", "m", "l", "S", "true");
+        assertThat(operators.get(6)).isSameAs(operators.get(0));
+        assertThat(operators.get(8)).isSameAs(operators.get(3));
+        assertThat(operators.get(14).type()).isEqualTo(PdfContentParser.COMMAND_TYPE);
+    }
+
+    @Test
+    void operatorCodesTellOperatorsApart() {
+        byte[] tj = {'T', 'j'};
+        byte[] tJ = {'T', 'J'};
+        byte[] quote = {'\''};
+        assertThat(PdfContentParser.getOperatorCode(tj, 2)).isNotEqualTo(PdfContentParser.getOperatorCode(tJ, 2));
+        assertThat(PdfContentParser.getOperatorCode(tj, 1)).isNotEqualTo(PdfContentParser.getOperatorCode(tj, 2));
+        assertThat(PdfContentParser.getOperatorCode(quote, 1)).isPositive();
+        assertThat(PdfContentParser.getOperatorCode(new byte[]{'t', 'r', 'u', 'e'}, 4)).isEqualTo(-1);
+    }
+}
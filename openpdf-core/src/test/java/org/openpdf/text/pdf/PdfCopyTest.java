@@ -7,6 +7,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import org.junit.jupiter.api.Assertions;
+import org.openpdf.text.Document;
+import org.openpdf.text.Paragraph;
+import org.openpdf.text.pdf.parser.PdfTextExtractor;
 import org.junit.jupiter.api.Test;
 
 public class PdfCopyTest {
@@ -41,4 +44,49 @@ public class PdfCopyTest {
             os.write(bytes);
         }
     }
+
+    private static byte[] createDocument(String text) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (Document document = new Document()) {
+            PdfWriter.getInstance(document, baos);
+            document.open();
+            document.add(new Paragraph(text + " page 1"));
+            document.newPage();
+            document.add(new Paragraph(text + " page 2"));
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    void freeReaderShouldReleaseTheCopiedReader() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (Document document = new Document()) {
+            PdfCopy copy = new PdfCopy(document, baos);
+            document.open();
+            for (int k = 0; k < 3; ++k) {
+                PdfReader reader = new PdfReader(createDocument("document " + k));
+                for (int page = 1; page <= reader.getNumberOfPages(); ++page) {
+                    PdfImportedPage imported = copy.getImportedPage(reader, page);
+                    if (page == 2) {
+                        PdfCopy.PageStamp stamp = copy.createPageStamp(imported);
+                        stamp.getOverContent().addTemplate(copy.getImportedPage(reader, 1), 0, 0);
+                        stamp.alterContents();
+                    }
+                    copy.addPage(imported);
+                }
+                copy.freeReader(reader);
+                reader.close();
+                Assertions.assertNull(copy.getIndirects());
+                Assertions.assertTrue(copy.importedPages.isEmpty());
+            }
+        }
+
+        try (PdfReader result = new PdfReader(baos.toByteArray())) {
+            Assertions.assertEquals(6, result.getNumberOfPages());
+            PdfTextExtractor extractor = new PdfTextExtractor(result);
+            Assertions.assertTrue(extractor.getTextFromPage(5).contains("document 2 page 1"));
+            Assertions.assertTrue(extractor.getTextFromPage(6).contains("document 2 page 1"));
+            Assertions.assertTrue(extractor.getTextFromPage(6).contains("document 2 page 2"));
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PdfDeferredSignatureTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static PdfSignatureAppearance preClose(PdfStamper stp) throws Exception {
+        PdfSignatureAppearance sap = stp.getSignatureAppearance();
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.FILTER, PdfName.ADOBE_PPKLITE);
+        dic.put(PdfName.SUBFILTER, PdfName.ADBE_PKCS7_DETACHED);
+        sap.setCryptoDictionary(dic);
+        sap.setReason("Test");
+        Map<PdfName, Integer> exc = new HashMap<>();
+        exc.put(PdfName.CONTENTS, 202);
+        sap.preClose(exc);
+        return sap;
+    }
+
+    private static byte[] sha256(InputStream in) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        byte[] buf = new byte[1000];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            md.update(buf, 0, n);
+        }
+        return md.digest();
+    }
+
+    @Test
+    void digestsRangesWhileWritingInMemory() throws Exception {
+        for (boolean append : new boolean[]{true, false}) {
+            try (InputStream is = getClass().getResourceAsStream("/EmptyPage.pdf");
+                    PdfReader reader = new PdfReader(is);
+                    ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                PdfStamper stp = PdfStamper.createSignature(reader, baos, null, null, append, "SHA-256");
+                PdfSignatureAppearance sap = preClose(stp);
+                assertThat(sap.getRangeDigest()).isEqualTo(sha256(sap.getRangeStream()));
+            }
+        }
+    }
+
+    @Test
+    void injectsSignatureLater() throws Exception {
+        File file = tempDir.resolve("deferred.pdf").toFile();
+        PdfDeferredSignature deferred;
+        try (InputStream is = getClass().getResourceAsStream("/EmptyPage.pdf");
+                PdfReader reader = new PdfReader(is)) {
+            PdfStamper stp = PdfStamper.createSignature(reader, null, null, file, true, "SHA-256");
+            deferred = preClose(stp).closeDeferred();
+        }
+        assertThat(deferred.getMaxSignatureLength()).isEqualTo(100);
+
+        long[] range = deferred.getByteRange();
+        assertThat(range[2] - range[1]).isEqualTo(deferred.getContentsLength());
+        assertThat(range[2] + range[3]).isEqualTo(file.length());
+        byte[] pdf = Files.readAllBytes(file.toPath());
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(pdf, 0, (int) range[1]);
+        md.update(pdf, (int) range[2], (int) range[3]);
+        assertThat(deferred.getRangeDigest()).isEqualTo(md.digest());
+
+        byte[] stub = deferred.getRangeDigest();
+        deferred.inject(stub);
+        assertThat(file.length()).isEqualTo(pdf.length);
+        try (PdfReader signed = new PdfReader(file.getPath())) {
+            AcroFields af = signed.getAcroFields();
+            String name = af.getSignedFieldNames().get(0);
+            assertThat(af.signatureCoversWholeDocument(name)).isTrue();
+            byte[] contents = af.getSignatureDictionary(name).getAsString(PdfName.CONTENTS).getOriginalBytes();
+            assertThat(contents).startsWith(stub).hasSize(100);
+        }
+    }
+
+    @Test
+    void refusesDeferredSigningIntoAStream() throws Exception {
+        try (InputStream is = getClass().getResourceAsStream("/EmptyPage.pdf");
+                PdfReader reader = new PdfReader(is);
+                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            PdfStamper stp = PdfStamper.createSignature(reader, baos, null, null, true, "SHA-256");
+            PdfSignatureAppearance sap = preClose(stp);
+            assertThatIllegalStateException().isThrownBy(sap::closeDeferred)
+                    .withMessage("A deferred signature needs a temporary file and no output stream.");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.openpdf.text.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.openpdf.text.Document;
+import org.openpdf.text.PageSize;
+import org.openpdf.text.Paragraph;
+import org.openpdf.text.Rectangle;
+
+class PdfFormTemplateTest {
+
+    private static byte[] createForm() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+        document.add(new Paragraph("Form"));
+        String[] names = {"name", "city", "amount"};
+        for (int k = 0; k < names.length; ++k) {
+            TextField field = new TextField(writer, new Rectangle(100, 700 - k * 40, 300, 720 - k * 40), names[k]);
+            writer.addAnnotation(field.getTextField());
+        }
+        document.close();
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> read(byte[] pdf) throws Exception {
+        try (PdfReader reader = new PdfReader(pdf)) {
+            AcroFields af = reader.getAcroFields();
+            return Map.of("name", af.getField("name"), "city", af.getField("city"), "amount",
+                    af.getField("amount"));
+        }
+    }
+
+    @Test
+    void fillsIncrementally() throws Exception {
+        byte[] form = createForm();
+        try (PdfFormTemplate template = PdfFormTemplate.compile(form)) {
+            assertThat(template.getFieldNames()).containsExactlyInAnyOrder("name", "city", "amount");
+            assertThat(template.getFieldType("city")).isEqualTo(AcroFields.FIELD_TYPE_TEXT);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            template.fill(Map.of("name", "Jane", "city", "Oslo"), out);
+            byte[] filled = out.toByteArray();
+            assertThat(filled).startsWith(form);
+            assertThat(read(filled)).containsEntry("name", "Jane").containsEntry("city", "Oslo")
+                    .containsEntry("amount", "");
+
+            out = new ByteArrayOutputStream();
+            template.fill(Map.of("amount", "42"), out, false);
+            assertThat(read(out.toByteArray())).containsEntry("amount", "42").containsEntry("name", "");
+
+            assertThatThrownBy(() -> template.fill(Map.of("missing", "x"), new ByteArrayOutputStream()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("The field missing does not exist.");
+        }
+    }
+
+    @Test
+    void fillsFromSeveralThreads() throws Exception {
+        try (PdfFormTemplate template = PdfFormTemplate.compile(createForm());
+                ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int k = 0; k < 40; ++k) {
+                String value = "value " + k;
+                results.add(executor.submit(() -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    template.fill(Map.of("name", value, "amount", value), out);
+                    return out.toByteArray();
+                }));
+            }
+            for (int k = 0; k < results.size(); ++k) {
+                assertThat(read(results.get(k).get())).containsEntry("name", "value " + k)
+                        .containsEntry("amount", "value " + k);
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.openpdf.text.pdf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.openpdf.text.Document;
 import org.openpdf.text.Paragraph;
@@ -107,4 +109,54 @@ public class PdfSmartCopyTest {
             }
         }
     }
+
+    private static byte[] mergeTwice(boolean offHeapIndex, long[] stats) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (PdfReader reader1 = new PdfReader("src/test/resources/pdfsmartcopy_bec.pdf");
+             PdfReader reader2 = new PdfReader("src/test/resources/pdfsmartcopy_bec.pdf")) {
+            try (Document document = new Document()) {
+                PdfSmartCopy copy = new PdfSmartCopy(document, outputStream, offHeapIndex);
+                document.open();
+                for (PdfReader reader : new PdfReader[]{reader1, reader2}) {
+                    for (int currentPage = 1; currentPage <= reader.getNumberOfPages(); currentPage++) {
+                        copy.addPage(copy.getImportedPage(reader, currentPage));
+                    }
+                    copy.freeReader(reader);
+                }
+                stats[0] = copy.getStreamsReused();
+                stats[1] = copy.getBytesSaved();
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    void reusesStreamsOfRepeatedDocument() throws IOException {
+        long[] heapStats = new long[2];
+        long[] offHeapStats = new long[2];
+        byte[] heap = mergeTwice(false, heapStats);
+        byte[] offHeap = mergeTwice(true, offHeapStats);
+        assertTrue(heapStats[0] > 0);
+        assertTrue(heapStats[1] > 0);
+        assertEquals(heapStats[0], offHeapStats[0]);
+        assertEquals(heapStats[1], offHeapStats[1]);
+        try (PdfReader heapReader = new PdfReader(heap);
+             PdfReader offHeapReader = new PdfReader(offHeap)) {
+            assertEquals(heapReader.getXrefSize(), offHeapReader.getXrefSize());
+            assertEquals(heapReader.getNumberOfPages(), offHeapReader.getNumberOfPages());
+        }
+    }
+
+    @Test
+    void offHeapIndexGrows() {
+        PdfSmartCopy.OffHeapStreamIndex index = new PdfSmartCopy.OffHeapStreamIndex(16);
+        for (int k = 1; k <= 5000; ++k) {
+            index.put(new PdfSmartCopy.ByteStore(k * 31L, -k), new PdfIndirectReference(0, k, 0));
+        }
+        assertEquals(5000, index.size());
+        for (int k = 1; k <= 5000; ++k) {
+            assertEquals(k, index.get(new PdfSmartCopy.ByteStore(k * 31L, -k)).getNumber());
+        }
+        assertNull(index.get(new PdfSmartCopy.ByteStore(31L, 1)));
+    }
 }
@@ -1,12 +1,24 @@
 package org.openpdf.text.pdf;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 
 import org.openpdf.text.Document;
+import org.openpdf.text.Element;
+import org.openpdf.text.Image;
 import org.openpdf.text.PageSize;
+import org.openpdf.text.Paragraph;
 import org.openpdf.text.Phrase;
 import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 
 class PdfWriterTest {
@@ -39,5 +51,192 @@ class PdfWriterTest {
         }
     }
 
+    private static byte[] createDocument(ExecutorService executor, boolean fullCompression) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (Document document = new Document(PageSize.A4)) {
+            PdfWriter writer = PdfWriter.getInstance(document, baos);
+            writer.setCompressionExecutor(executor);
+            writer.setParallelCompressionThreshold(0);
+            if (fullCompression) {
+                writer.setFullCompression();
+            }
+            document.open();
+            byte[] pixels = new byte[64 * 64 * 3];
+            for (int page = 0; page < 20; ++page) {
+                for (int k = 0; k < pixels.length; ++k) {
+                    pixels[k] = (byte) (k * page);
+                }
+                document.add(Image.getInstance(64, 64, 3, 8, pixels.clone()));
+                for (int line = 0; line < 30; ++line) {
+                    document.add(new Paragraph("Page " + page + " line " + line, null));
+                }
+                document.newPage();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] createRotatedDocument(boolean streamPageContents, boolean encrypted) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (Document document = new Document(PageSize.A4)) {
+            PdfWriter writer = PdfWriter.getInstance(document, baos);
+            writer.setStreamPageContents(streamPageContents);
+            if (encrypted) {
+                writer.setEncryption("user".getBytes(), "owner".getBytes(), PdfWriter.ALLOW_PRINTING,
+                        PdfWriter.ENCRYPTION_AES_128);
+            }
+            document.open();
+            for (int page = 0; page < 6; ++page) {
+                document.setPageSize(page % 2 == 0 ? PageSize.A4 : PageSize.A4.rotate());
+                for (int line = 0; line < 40; ++line) {
+                    document.add(new Paragraph("Page " + page + " line " + line, null));
+                }
+                writer.getDirectContentUnder().rectangle(10, 10, 50, 50);
+                writer.getDirectContentUnder().fill();
+                document.newPage();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    void testStreamedPageContentsMatchBufferedOnes() throws Exception {
+        for (boolean encrypted : new boolean[]{false, true}) {
+            PdfReader buffered = new PdfReader(createRotatedDocument(false, encrypted), "user".getBytes());
+            PdfReader streamed = new PdfReader(createRotatedDocument(true, encrypted), "user".getBytes());
+            assertThat(streamed.isRebuilt()).isFalse();
+            assertThat(streamed.getNumberOfPages()).isEqualTo(6);
+            for (int page = 1; page <= streamed.getNumberOfPages(); ++page) {
+                assertThat(streamed.getPageContent(page)).isEqualTo(buffered.getPageContent(page));
+                PdfObject length = streamed.getPageN(page).getAsStream(PdfName.CONTENTS).get(PdfName.LENGTH);
+                assertThat(length.isNumber()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void testParallelCompressionKeepsObjectOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (boolean fullCompression : new boolean[]{false, true}) {
+                PdfReader sequential = new PdfReader(createDocument(null, fullCompression));
+                PdfReader parallel = new PdfReader(createDocument(executor, fullCompression));
+                assertThat(parallel.isRebuilt()).isFalse();
+                assertThat(parallel.getXrefSize()).isEqualTo(sequential.getXrefSize());
+                assertThat(parallel.getNumberOfPages()).isEqualTo(sequential.getNumberOfPages());
+                for (int page = 1; page <= parallel.getNumberOfPages(); ++page) {
+                    assertThat(parallel.getPageContent(page)).isEqualTo(sequential.getPageContent(page));
+                    assertThat(parallel.getPageN(page).getAsDict(PdfName.RESOURCES).toString())
+                            .isEqualTo(sequential.getPageN(page).getAsDict(PdfName.RESOURCES).toString());
+                }
+                for (int k = 1; k < parallel.getXrefSize(); ++k) {
+                    PdfObject obj = parallel.getPdfObject(k);
+                    if (obj != null && obj.isStream()) {
+                        assertThat(PdfReader.getStreamBytes((PRStream) obj))
+                                .isEqualTo(PdfReader.getStreamBytes((PRStream) sequential.getPdfObject(k)));
+                    }
+                }
+                sequential.close();
+                parallel.close();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testPendingObjectsStayBoundedWhileCompressing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Executor slowExecutor = task -> new Thread(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        }).start();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        writer.setCompressionExecutor(slowExecutor);
+        writer.setParallelCompressionThreshold(0);
+        document.open();
+        document.add(new Paragraph("Pending objects"));
+
+        int objects = 1000;
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger maxPending = new AtomicInteger();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread adder = new Thread(() -> {
+            try {
+                PdfStream stream = new PdfStream(new byte[4096]);
+                stream.deferFlateCompress(PdfStream.DEFAULT_COMPRESSION);
+                writer.addToBody(stream);
+                for (int k = 0; k < objects; ++k) {
+                    PdfDictionary dictionary = new PdfDictionary();
+                    dictionary.put(PdfName.N, new PdfNumber(k));
+                    writer.addToBody(dictionary);
+                    maxPending.accumulateAndGet(writer.body.getPendingCount(), Math::max);
+                    added.incrementAndGet();
+                }
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        adder.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (adder.getState() != Thread.State.WAITING && adder.isAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(added.get()).isLessThan(objects);
+        release.countDown();
+        adder.join(TimeUnit.SECONDS.toMillis(10));
+        assertThat(failure.get()).isNull();
+        assertThat(added.get()).isEqualTo(objects);
+        assertThat(maxPending.get()).isLessThanOrEqualTo(PdfWriter.PdfBody.MAX_PENDING_OBJECTS);
+        document.close();
+
+        PdfReader reader = new PdfReader(baos.toByteArray());
+        assertThat(reader.isRebuilt()).isFalse();
+        assertThat(reader.getXrefSize()).isGreaterThan(objects);
+        reader.close();
+    }
+
+    @Test
+    void testObjectStreamSizeAndCrossReferenceTable() throws Exception {
+        for (int objectStreamSize : new int[]{1, 7, 200}) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Document document = new Document(PageSize.A4);
+            PdfWriter writer = PdfWriter.getInstance(document, baos);
+            writer.setFullCompression();
+            writer.setObjectStreamSize(objectStreamSize);
+            document.open();
+            for (int page = 0; page < 40; ++page) {
+                document.add(new Paragraph("Page " + page));
+                document.newPage();
+            }
+            int count = writer.getCrossReferenceCount();
+            assertThat(count).isGreaterThan(40);
+            assertThat(writer.getCrossReferenceMemoryUsage()).isGreaterThanOrEqualTo(count * 11L);
+            document.close();
+
+            PdfReader reader = new PdfReader(baos.toByteArray());
+            assertThat(reader.isRebuilt()).isFalse();
+            assertThat(reader.getNumberOfPages()).isEqualTo(40);
+            for (int k = 1; k < reader.getXrefSize(); ++k) {
+                PdfObject obj = reader.getPdfObjectRelease(k);
+                if (obj != null && obj.isStream() && PdfName.OBJSTM.equals(((PRStream) obj).get(PdfName.TYPE))) {
+                    assertThat(((PRStream) obj).getAsNumber(PdfName.N).intValue()).isLessThanOrEqualTo(objectStreamSize);
+                }
+            }
+            reader.close();
+        }
+    }
 
+    @Test
+    void testObjectStreamSizeIsValidated() {
+        PdfWriter writer = PdfWriter.getInstance(new Document(), new ByteArrayOutputStream());
+        assertThatIllegalArgumentException().isThrownBy(() -> writer.setObjectStreamSize(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> writer.setObjectStreamSize(65536));
+    }
 }
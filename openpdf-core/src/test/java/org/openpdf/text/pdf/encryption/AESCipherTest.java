@@ -0,0 +1,100 @@
+package org.openpdf.text.pdf.encryption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+import org.openpdf.text.pdf.OutputStreamEncryption;
+import org.openpdf.text.pdf.PdfEncryption;
+import org.openpdf.text.pdf.PdfWriter;
+import org.openpdf.text.pdf.StandardDecryption;
+import org.openpdf.text.pdf.crypto.AESCipher;
+
+public class AESCipherTest {
+
+    private static final Random RANDOM = new Random(42);
+
+    private static byte[] random(int length) {
+        byte[] b = new byte[length];
+        RANDOM.nextBytes(b);
+        return b;
+    }
+
+    private static byte[] process(AESCipher cipher, byte[] data, int chunk) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int off = 0; off < data.length; off += chunk) {
+            byte[] b = cipher.update(data, off, Math.min(chunk, data.length - off));
+            if (b != null) {
+                out.write(b, 0, b.length);
+            }
+        }
+        byte[] b = cipher.doFinal();
+        out.write(b, 0, b.length);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void matchesJcePaddedCipher() throws Exception {
+        byte[] key = random(32);
+        byte[] iv = random(16);
+        Cipher reference = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        reference.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        for (int length : new int[]{0, 1, 15, 16, 17, 31, 32, 100, 4097}) {
+            byte[] data = random(length);
+            byte[] expected = reference.doFinal(data);
+            for (int chunk : new int[]{1, 7, 16, 33, 5000}) {
+                byte[] encrypted = process(new AESCipher(true, key, iv), data, chunk);
+                assertArrayEquals(expected, encrypted);
+                assertArrayEquals(data, process(new AESCipher(false, key, iv), encrypted, chunk));
+            }
+        }
+    }
+
+    @Test
+    public void keepsBadPadding() {
+        byte[] key = random(16);
+        byte[] iv = random(16);
+        byte[] data = random(32);
+        data[31] = 0;
+        AESCipher encryptor = new AESCipher(true, key, iv);
+        byte[] encrypted = Arrays.copyOf(encryptor.update(data, 0, data.length), 32);
+        assertArrayEquals(data, process(new AESCipher(false, key, iv), encrypted, 32));
+    }
+
+    @Test
+    public void byteArraysAndStreamsRoundTrip() throws Exception {
+        for (int mode : new int[]{PdfWriter.STANDARD_ENCRYPTION_128, PdfWriter.ENCRYPTION_AES_128,
+                PdfWriter.ENCRYPTION_AES_256_V3}) {
+            PdfEncryption crypto = new PdfEncryption();
+            crypto.setCryptoMode(mode, 0);
+            crypto.setupAllKeys("user".getBytes(), "owner".getBytes(), 0);
+            for (int number = 1; number < 4; ++number) {
+                crypto.setHashKey(number, 0);
+                byte[] data = random(1000 + number);
+                byte[] encrypted = crypto.encryptByteArray(data);
+                assertArrayEquals(data, crypto.decryptByteArray(encrypted));
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                OutputStreamEncryption ose = crypto.getEncryptionStream(out);
+                ose.write(data, 0, 10);
+                ose.write(data, 10, data.length - 10);
+                ose.finish();
+                assertArrayEquals(data, crypto.decryptByteArray(out.toByteArray()));
+
+                StandardDecryption decryptor = crypto.getDecryptor();
+                ByteArrayOutputStream plain = new ByteArrayOutputStream();
+                plain.write(decryptor.update(encrypted, 0, encrypted.length));
+                byte[] last = decryptor.finish();
+                if (last != null) {
+                    plain.write(last);
+                }
+                assertArrayEquals(data, plain.toByteArray());
+            }
+        }
+    }
+}
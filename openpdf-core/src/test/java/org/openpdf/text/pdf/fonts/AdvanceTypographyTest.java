@@ -47,6 +47,22 @@ class AdvanceTypographyTest {
         LayoutProcessor.disable();
     }
 
+    @Test
+    void testRepeatedSubstitutionIsCached() throws Exception {
+        char[] expectedOutput = {254, 278, 390, 314, 331, 376, 254, 285, 278};
+        BaseFont font = BaseFont.createFont("fonts/Viaoda_Libre/ViaodaLibre-Regular.ttf", BaseFont.IDENTITY_H, false);
+        FopGlyphProcessor.convertToBytesWithGlyphs(font, "instruction",
+                "fonts/Viaoda_Libre/ViaodaLibre-Regular.ttf", new HashMap<>(), "dflt");
+        long hits = FopGlyphProcessor.getShapedRunCache().getHits();
+        HashMap<Integer, int[]> longTag = new HashMap<>();
+        byte[] processedContent = FopGlyphProcessor.convertToBytesWithGlyphs(font, "instruction",
+                "fonts/Viaoda_Libre/ViaodaLibre-Regular.ttf", longTag, "dflt");
+        assertThat(FopGlyphProcessor.getShapedRunCache().getHits()).isEqualTo(hits + 1);
+        assertArrayEquals(expectedOutput, new String(processedContent, "UnicodeBigUnmarked").toCharArray());
+        assertThat(longTag).containsKeys(254, 278, 390, 314, 331, 376, 285);
+        assertThat(longTag.get(254)[2]).isEqualTo('i');
+    }
+
     /**
      * Test fonts loaded externally and passed as byte array to BaseFont, Fop should be able to resolve these fonts
      *
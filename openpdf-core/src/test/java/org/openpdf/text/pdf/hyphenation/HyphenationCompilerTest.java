@@ -0,0 +1,106 @@
+package org.openpdf.text.pdf.hyphenation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HyphenationCompilerTest {
+
+    private static final String PATTERNS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+            + "<hyphenation-info>\n"
+            + "<hyphen-char value=\"-\"/>\n"
+            + "<classes>\naA\nbB\ncC\ndD\neE\nfF\ngG\nhH\niI\njJ\nkK\nlL\nmM\nnN\noO\npP\nqQ\nrR\nsS\ntT\nuU\nvV\nwW\n"
+            + "xX\nyY\nzZ\n</classes>\n"
+            + "<exceptions>\nta-ble\nre<hyphen pre=\"c-\" no=\"ck\" post=\"k\"/>koning\n</exceptions>\n"
+            + "<patterns>\n.un1 1tion n1n 1na 1ber 1ter pu1 m1p\n</patterns>\n"
+            + "</hyphenation-info>\n";
+
+    private static InputStream patterns() {
+        return new ByteArrayInputStream(PATTERNS.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] compiled() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HyphenationCompiler.compile(patterns(), out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void compiledTreeHyphenatesAsParsedTree() throws IOException {
+        HyphenationTree parsed = new HyphenationTree();
+        parsed.loadSimplePatterns(patterns());
+        HyphenationTree loaded = HyphenationTree.readCompiled(ByteBuffer.wrap(compiled()));
+
+        for (String word : new String[]{"unmanned", "computer", "nation", "number", "table", "Unbearable", "xyz"}) {
+            Hyphenation expected = parsed.hyphenate(word, 2, 2);
+            Hyphenation actual = loaded.hyphenate(word, 2, 2);
+            assertThat(String.valueOf(actual)).as(word).isEqualTo(String.valueOf(expected));
+        }
+        assertThat(loaded.hyphenate("computer", 2, 2).toString()).isEqualTo("com-pu-ter");
+        assertThat(loaded.hyphenate("table", 2, 2).toString()).isEqualTo("ta-ble");
+        assertThat(loaded.stoplist).hasSize(parsed.stoplist.size()).containsKey("table");
+        assertThat(loaded.stoplist.toString()).isEqualTo(parsed.stoplist.toString());
+        assertThat(loaded.stoplist.values())
+                .anySatisfy(parts -> assertThat((List<?>) parts).hasAtLeastOneElementOfType(Hyphen.class));
+    }
+
+    @Test
+    void hyphenationOfAWordIsRemembered() throws IOException {
+        HyphenationTree tree = HyphenationTree.readCompiled(ByteBuffer.wrap(compiled()));
+        Hyphenation first = tree.hyphenate("computer", 2, 2);
+        assertThat(tree.hyphenate("computer".toCharArray(), 0, 8, 2, 2)).isSameAs(first);
+        assertThat(tree.hyphenate("computer", 3, 3)).isNotSameAs(first);
+        assertThat(tree.hyphenate("xyz", 2, 2)).isNull();
+        assertThat(tree.hyphenate("xyz", 2, 2)).isNull();
+    }
+
+    @Test
+    void invalidDataIsRejected() {
+        assertThatThrownBy(() -> HyphenationTree.readCompiled(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> HyphenationTree.readCompiled(ByteBuffer.wrap(new byte[]{0x4f, 0x50, 0x48, 0x59})))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void hyphenatorLoadsCompiledFile(@TempDir File dir) throws IOException {
+        Files.write(new File(dir, "xx.hyb").toPath(), compiled());
+        String hyphenDir = Hyphenator.getHyphenDir();
+        try {
+            Hyphenator.setHyphenDir(dir.getPath());
+            Hyphenator hyphenator = new Hyphenator("xx", "YY", 2, 2);
+            assertThat(hyphenator.hyphenate("computer").toString()).isEqualTo("com-pu-ter");
+            assertThat(Hyphenator.getHyphenationTree("xx", "YY")).isSameAs(Hyphenator.getHyphenationTree("xx", "YY"));
+        } finally {
+            Hyphenator.setHyphenDir(hyphenDir);
+            Hyphenator.removeHyphenationTree("xx_YY");
+        }
+    }
+
+    @Test
+    void commandLineFailsWithoutPartialOutput(@TempDir File dir) throws IOException {
+        File good = new File(dir, "good.xml");
+        File broken = new File(dir, "broken.xml");
+        Files.write(good.toPath(), PATTERNS.getBytes(StandardCharsets.UTF_8));
+        Files.write(broken.toPath(), PATTERNS.replace(".un1", "<patterns>").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(HyphenationCompiler.run(new String[]{dir.getPath()})).isEqualTo(1);
+        assertThat(HyphenationCompiler.run(new String[]{dir.getPath(), good.getPath()})).isZero();
+        assertThat(new File(dir, "good.hyb")).isNotEmpty();
+        assertThat(HyphenationCompiler.run(new String[]{dir.getPath(), broken.getPath()})).isEqualTo(1);
+        assertThat(new File(dir, "broken.hyb")).doesNotExist();
+        assertThat(HyphenationCompiler.run(new String[]{dir.getPath(), new File(dir, "missing.xml").getPath()}))
+                .isEqualTo(1);
+    }
+}
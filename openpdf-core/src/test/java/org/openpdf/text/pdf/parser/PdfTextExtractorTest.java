@@ -3,6 +3,7 @@ package org.openpdf.text.pdf.parser;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.openpdf.text.Chunk;
@@ -12,16 +13,30 @@ import org.openpdf.text.Font;
 import org.openpdf.text.PageSize;
 import org.openpdf.text.Paragraph;
 import org.openpdf.text.Phrase;
+import org.openpdf.text.pdf.BaseFont;
+import org.openpdf.text.pdf.CMapAwareDocumentFont;
 import org.openpdf.text.pdf.FontSelector;
+import org.openpdf.text.pdf.PRIndirectReference;
+import org.openpdf.text.pdf.PdfContentByte;
+import org.openpdf.text.pdf.PdfName;
 import org.openpdf.text.pdf.PdfPTable;
 import org.openpdf.text.pdf.PdfReader;
+import org.openpdf.text.pdf.PdfStamper;
+import org.openpdf.text.pdf.PdfTemplate;
 import org.openpdf.text.pdf.PdfWriter;
+import org.openpdf.text.pdf.RandomAccessFileOrArray;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.jupiter.api.Test;
 
 
@@ -174,6 +189,86 @@ class PdfTextExtractorTest {
         assertEquals("One Two Three", extracted);
     }
 
+    @Test
+    void getTextFromPagesInParallel_expectsSameTextInPageOrder() throws IOException {
+        Document document = new Document(PageSize.A6);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int page = 1; page <= 40; page++) {
+            document.add(new Paragraph("Text of page " + page));
+            document.add(new Paragraph("Bold " + page, new Font(Font.HELVETICA, 12, Font.BOLD)));
+            document.newPage();
+        }
+        document.close();
+
+        List<String> expected = new ArrayList<>();
+        try (PdfReader reader = new PdfReader(baos.toByteArray())) {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                expected.add(extractor.getTextFromPage(page));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (PdfReader reader = new PdfReader(new RandomAccessFileOrArray(baos.toByteArray()), null)) {
+            List<String> texts = new ArrayList<>();
+            List<Integer> pages = new ArrayList<>();
+            new PdfTextExtractor(reader).getTextFromPages(executor, (text, page) -> {
+                texts.add(text);
+                pages.add(page);
+            });
+            assertEquals(expected, texts);
+            for (int i = 0; i < pages.size(); i++) {
+                assertEquals(i + 1, pages.get(i));
+            }
+            assertTrue(texts.get(39).contains("Text of page 40"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void fontsAreDecodedOnceForAllPages() throws IOException {
+        byte[] pdfBytes = createSimpleDocumentWithElements(new Paragraph("One"), Chunk.NEXTPAGE,
+                new Paragraph("Two"));
+        try (PdfReader reader = new PdfReader(pdfBytes)) {
+            Map<Long, CMapAwareDocumentFont> fonts = new ConcurrentHashMap<>();
+            CMapAwareDocumentFont[] decoded = new CMapAwareDocumentFont[2];
+            for (int page = 1; page <= 2; page++) {
+                PdfContentStreamHandler handler = new PdfContentStreamHandler(
+                        new MarkedUpTextAssembler(reader), fonts);
+                PRIndirectReference ref = (PRIndirectReference) reader.getPageN(page)
+                        .getAsDict(PdfName.RESOURCES).getAsDict(PdfName.FONT).get(new PdfName("F1"));
+                decoded[page - 1] = handler.getFont(ref);
+            }
+            assertSame(decoded[0], decoded[1]);
+            assertEquals(1, fonts.size());
+        }
+    }
+
+    @Test
+    void getTextFromPageWithContentArrayAndFormXObject() throws Exception {
+        byte[] pdfBytes = createSimpleDocumentWithElements(new Paragraph("Original text"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PdfReader reader = new PdfReader(pdfBytes)) {
+            PdfStamper stamper = new PdfStamper(reader, baos);
+            PdfContentByte over = stamper.getOverContent(1);
+            PdfTemplate template = over.createTemplate(200, 50);
+            template.beginText();
+            template.setFontAndSize(BaseFont.createFont(), 12);
+            template.showTextAligned(Element.ALIGN_LEFT, "Stamped text", 0, 10, 0);
+            template.endText();
+            over.addTemplate(template, 36, 36);
+            stamper.close();
+        }
+        try (PdfReader reader = new PdfReader(baos.toByteArray())) {
+            assertTrue(reader.getPageN(1).get(PdfName.CONTENTS).isArray());
+            String extracted = new PdfTextExtractor(reader).getTextFromPage(1);
+            assertTrue(extracted.contains("Original text"));
+            assertTrue(extracted.contains("Stamped text"));
+        }
+    }
+
     private String getString(String fileName, int pageNumber) throws Exception {
         URL resource = getClass().getResource("/" + fileName);
         return getString(new File(resource.toURI()), pageNumber);
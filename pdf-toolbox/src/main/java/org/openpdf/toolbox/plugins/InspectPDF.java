@@ -110,7 +110,7 @@ public class InspectPDF extends AbstractTool {
             System.out.println("PDF Version: " + reader.getPdfVersion());
             System.out.println("Number of pages: " + reader.getNumberOfPages());
             System.out.println("Number of PDF objects: " + reader.getXrefSize());
-            System.out.println("File length: " + reader.getFileLength());
+            System.out.println("File length: " + reader.getLongFileLength());
             System.out.println("Encrypted? " + reader.isEncrypted());
             if (reader.isEncrypted()) {
                 System.out.println("Permissions: " + PdfEncryptor.getPermissionsVerbose(reader.getPermissions()));